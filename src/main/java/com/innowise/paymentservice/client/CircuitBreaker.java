@@ -0,0 +1,60 @@
+package com.innowise.paymentservice.client;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Consecutive failure circuit breaker
+ * Opens after the failure threshold, lets one trial call through when the open period is over
+ */
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+
+    CircuitBreaker(int failureThreshold, long openMillis, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Check whether a call may go through
+     * @return false while the breaker is open or a trial call is already running
+     */
+    boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && clock.millis() - openedAt.get() >= openMillis) {
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (state.get() == State.HALF_OPEN || failures >= failureThreshold) {
+            openedAt.set(clock.millis());
+            state.set(State.OPEN);
+        }
+    }
+
+    State state() {
+        return state.get();
+    }
+}
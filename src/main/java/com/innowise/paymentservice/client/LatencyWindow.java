@@ -0,0 +1,46 @@
+package com.innowise.paymentservice.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the latest successful call latencies to estimate a percentile
+ */
+class LatencyWindow {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+
+    LatencyWindow(int size) {
+        this.samples = new AtomicLongArray(size);
+    }
+
+    void record(long nanos) {
+        long index = count.getAndIncrement();
+        samples.set((int) (index % samples.length()), nanos);
+    }
+
+    long size() {
+        return Math.min(count.get(), samples.length());
+    }
+
+    /**
+     * Get percentile of recorded latencies
+     * @param percentile value between 0 and 1
+     * @return latency in nanos, 0 when nothing was recorded
+     */
+    long percentile(double percentile) {
+        int size = (int) size();
+        if (size == 0) {
+            return 0;
+        }
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percentile * size) - 1;
+        return copy[Math.max(0, Math.min(index, size - 1))];
+    }
+}
@@ -0,0 +1,140 @@
+package com.innowise.paymentservice.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps Random.org numbers fetched in bulk, so a payment does not wait for a round trip
+ * Refill runs on a virtual thread once the pool drops below the low water mark,
+ * an empty pool falls back to a single synchronous call
+ */
+@Slf4j
+@Component
+public class RandomNumberPool {
+
+    /**
+     * Random.org does not serve more numbers per request
+     */
+    private static final int MAX_NUMBERS_PER_REQUEST = 10_000;
+
+    private final RandomOrgClient randomOrgClient;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int lowWaterMark;
+    private final long retryBackoffMillis;
+    private final IntRingBuffer buffer;
+    private final ExecutorService refillExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final AtomicLong lastFailureMillis = new AtomicLong();
+
+    public RandomNumberPool(
+            RandomOrgClient randomOrgClient,
+            MeterRegistry meterRegistry,
+            @Value("${randomorg.pool.enabled:true}") boolean enabled,
+            @Value("${randomorg.pool.capacity:1024}") int capacity,
+            @Value("${randomorg.pool.low-water-mark:256}") int lowWaterMark,
+            @Value("${randomorg.pool.retry-backoff-ms:5000}") long retryBackoffMillis
+    ) {
+        this.randomOrgClient = randomOrgClient;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.buffer = new IntRingBuffer(capacity);
+        this.lowWaterMark = Math.min(lowWaterMark, buffer.capacity() - 1);
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("randomorg.pool.size", buffer, IntRingBuffer::size)
+                .description("Random numbers available without calling Random.org")
+                .register(meterRegistry);
+        Gauge.builder("randomorg.pool.capacity", buffer, IntRingBuffer::capacity)
+                .register(meterRegistry);
+        triggerRefill();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refillExecutor.shutdownNow();
+    }
+
+    /**
+     * Get next random number, calls Random.org directly only when the pool is empty
+     */
+    public Integer next() {
+        if (!enabled) {
+            return randomOrgClient.generateRandomNumber();
+        }
+
+        Integer number = buffer.poll();
+        if (buffer.size() < lowWaterMark) {
+            triggerRefill();
+        }
+        if (number != null) {
+            return number;
+        }
+
+        meterRegistry.counter("randomorg.pool.misses").increment();
+        log.debug("Random number pool is empty, calling Random.org directly");
+        return randomOrgClient.generateRandomNumber();
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    void triggerRefill() {
+        if (System.currentTimeMillis() - lastFailureMillis.get() < retryBackoffMillis) {
+            return;
+        }
+        if (refilling.compareAndSet(false, true)) {
+            refillExecutor.execute(this::refill);
+        }
+    }
+
+    private void refill() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            int missing = Math.min(buffer.capacity() - buffer.size(), MAX_NUMBERS_PER_REQUEST);
+            if (missing <= 0) {
+                return;
+            }
+
+            List<Integer> numbers = randomOrgClient.generateRandomNumbers(missing);
+            int added = 0;
+            for (Integer number : numbers) {
+                if (!buffer.offer(number)) {
+                    break;
+                }
+                added++;
+            }
+            log.debug("Random number pool refilled: added={}, size={}", added, buffer.size());
+        } catch (Exception e) {
+            outcome = "failure";
+            lastFailureMillis.set(System.currentTimeMillis());
+            log.warn("Failed to refill random number pool: {}", e.getMessage());
+        } finally {
+            sample.stop(Timer.builder("randomorg.pool.refill")
+                    .description("Time to fetch a batch of numbers from Random.org")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            refilling.set(false);
+        }
+    }
+}
@@ -1,47 +1,296 @@
 package com.innowise.paymentservice.client;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking Random.org client
+ * Calls go through a circuit breaker and get a hedged second request once they run longer than the recent p95,
+ * concurrent single number calls are coalesced into one request
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class RandomOrgClient {
 
-    private final RestTemplate restTemplate;
+    private static final int MIN_SAMPLES_FOR_HEDGING = 20;
+
+    private final HttpClient httpClient;
+    private final MeterRegistry meterRegistry;
+    private final String randomOrgUrl;
+    private final String randomOrgBulkUrl;
+    private final Duration requestTimeout;
+    private final long awaitTimeoutMillis;
+    private final boolean hedgingEnabled;
+    private final long initialHedgeDelayMillis;
+    private final long minHedgeDelayMillis;
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyWindow latencyWindow = new LatencyWindow(256);
+    private final Counter hedgedRequests;
+    private final Counter rejectedRequests;
 
-    @Value("${randomorg.api.url:https://www.random.org/integers/?num=1&min=1&max=100&col=1&base=10&format=plain}")
-    private String randomOrgUrl;
+    private final Object coalescingLock = new Object();
+    private List<CompletableFuture<Integer>> waitingCallers = new ArrayList<>();
+    private boolean singleNumberRequestInFlight;
+
+    public RandomOrgClient(
+            HttpClient randomOrgHttpClient,
+            MeterRegistry meterRegistry,
+            @Value("${randomorg.api.url:https://www.random.org/integers/?num=1&min=1&max=100&col=1&base=10&format=plain}")
+            String randomOrgUrl,
+            @Value("${randomorg.api.bulk-url:https://www.random.org/integers/?num={num}&min=1&max=100&col=1&base=10&format=plain}")
+            String randomOrgBulkUrl,
+            @Value("${randomorg.http.request-timeout-ms:3000}") long requestTimeoutMillis,
+            @Value("${randomorg.http.await-timeout-ms:10000}") long awaitTimeoutMillis,
+            @Value("${randomorg.http.hedging.enabled:true}") boolean hedgingEnabled,
+            @Value("${randomorg.http.hedging.initial-delay-ms:500}") long initialHedgeDelayMillis,
+            @Value("${randomorg.http.hedging.min-delay-ms:20}") long minHedgeDelayMillis,
+            @Value("${randomorg.http.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${randomorg.http.circuit-breaker.open-ms:10000}") long openMillis
+    ) {
+        this.httpClient = randomOrgHttpClient;
+        this.meterRegistry = meterRegistry;
+        this.randomOrgUrl = randomOrgUrl;
+        this.randomOrgBulkUrl = randomOrgBulkUrl;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.awaitTimeoutMillis = awaitTimeoutMillis;
+        this.hedgingEnabled = hedgingEnabled;
+        this.initialHedgeDelayMillis = initialHedgeDelayMillis;
+        this.minHedgeDelayMillis = minHedgeDelayMillis;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMillis, Clock.systemUTC());
+        this.hedgedRequests = meterRegistry.counter("randomorg.http.hedged");
+        this.rejectedRequests = meterRegistry.counter("randomorg.http.rejected");
+        Gauge.builder("randomorg.http.circuit.open", circuitBreaker, cb -> cb.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while the Random.org circuit breaker is open or half open")
+                .register(meterRegistry);
+    }
 
     public Integer generateRandomNumber() {
-        try {
-            log.debug("Calling Random.org: {}", randomOrgUrl);
+        Integer randomNumber = await(generateRandomNumberAsync());
+        log.info("Random.org randomNumber: {}", randomNumber);
+        return randomNumber;
+    }
+
+    /**
+     * Get random number without blocking, callers arriving while a request is in flight share the next one
+     */
+    public CompletableFuture<Integer> generateRandomNumberAsync() {
+        CompletableFuture<Integer> caller = new CompletableFuture<>();
+        synchronized (coalescingLock) {
+            waitingCallers.add(caller);
+            if (singleNumberRequestInFlight) {
+                return caller;
+            }
+            singleNumberRequestInFlight = true;
+        }
+        dispatchWaitingCallers();
+        return caller;
+    }
+
+    /**
+     * Get several random numbers in one call, Random.org returns one number per line
+     * @param count amount of numbers
+     */
+    public List<Integer> generateRandomNumbers(int count) {
+        return await(fetchNumbers(count));
+    }
+
+    public boolean isEven(Integer number) {
+        return number % 2 == 0;
+    }
 
-            String response = restTemplate.getForObject(randomOrgUrl, String.class);
+    /**
+     * A call that throws instead of returning a failed future still completes the callers
+     * and clears the in-flight flag, otherwise every later caller would wait forever
+     */
+    private void dispatchWaitingCallers() {
+        List<CompletableFuture<Integer>> callers;
+        synchronized (coalescingLock) {
+            callers = waitingCallers;
+            waitingCallers = new ArrayList<>();
+        }
 
-            if (response == null || response.trim().isEmpty()) {
-                log.error("Random.org returned empty response");
-                throw new RestClientException("Random.org returned empty response");
+        CompletableFuture<List<Integer>> fetched;
+        try {
+            fetched = fetchNumbers(callers.size());
+        } catch (RuntimeException e) {
+            fetched = CompletableFuture.failedFuture(e);
+        }
+        fetched.whenComplete((numbers, e) -> {
+            List<CompletableFuture<Integer>> unserved = List.of();
+            if (e != null) {
+                callers.forEach(caller -> caller.completeExceptionally(e));
+            } else {
+                int served = Math.min(numbers.size(), callers.size());
+                for (int i = 0; i < served; i++) {
+                    callers.get(i).complete(numbers.get(i));
+                }
+                unserved = callers.subList(served, callers.size());
             }
 
-            Integer randomNumber = Integer.parseInt(response.trim());
-            log.info("Random.org randomNumber: {}", randomNumber);
+            synchronized (coalescingLock) {
+                waitingCallers.addAll(0, unserved);
+                if (waitingCallers.isEmpty()) {
+                    singleNumberRequestInFlight = false;
+                    return;
+                }
+            }
+            dispatchWaitingCallers();
+        });
+    }
+
+    private CompletableFuture<List<Integer>> fetchNumbers(int count) {
+        String url = count == 1 ? randomOrgUrl : randomOrgBulkUrl.replace("{num}", String.valueOf(count));
+        log.debug("Calling Random.org for {} numbers: {}", count, url);
+
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedRequests.increment();
+            return CompletableFuture.failedFuture(new RestClientException("Random.org circuit breaker is open"));
+        }
 
-            return randomNumber;
-        } catch (RestClientException e) {
-            log.error("Failed to call Random.org: {}", e.getMessage());
-            throw e;
+        CompletableFuture<String> response;
+        try {
+            response = hedged(URI.create(url));
+        } catch (RuntimeException e) {
+            // reported to the circuit breaker like any other failed call, a half open breaker would stay stuck otherwise
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response
+                .thenApply(RandomOrgClient::parseNumbers)
+                .whenComplete((numbers, e) -> {
+                    if (e == null) {
+                        circuitBreaker.onSuccess();
+                    } else {
+                        circuitBreaker.onFailure();
+                        log.error("Failed to call Random.org: {}", e.getMessage());
+                    }
+                });
+    }
+
+    private CompletableFuture<String> hedged(URI uri) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        AtomicInteger pendingAttempts = new AtomicInteger(1);
+
+        CompletableFuture<String> primary = attempt(uri, "primary");
+        primary.whenComplete((body, e) -> completeAttempt(result, pendingAttempts, body, e));
+        result.whenComplete((body, e) -> primary.cancel(true));
+
+        if (hedgingEnabled) {
+            CompletableFuture.delayedExecutor(hedgeDelayMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                pendingAttempts.incrementAndGet();
+                hedgedRequests.increment();
+                CompletableFuture<String> hedge = attempt(uri, "hedge");
+                hedge.whenComplete((body, e) -> completeAttempt(result, pendingAttempts, body, e));
+                result.whenComplete((body, e) -> hedge.cancel(true));
+            });
+        }
+        return result;
+    }
+
+    private static void completeAttempt(CompletableFuture<String> result, AtomicInteger pendingAttempts,
+                                        String body, Throwable e) {
+        if (e == null) {
+            result.complete(body);
+        } else if (pendingAttempts.decrementAndGet() == 0) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private CompletableFuture<String> attempt(URI uri, String attempt) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Accept", "text/plain")
+                .GET()
+                .build();
+        long start = System.nanoTime();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new RestClientException("Random.org responded with status " + response.statusCode());
+                    }
+                    return response.body();
+                })
+                .whenComplete((body, e) -> {
+                    long elapsed = System.nanoTime() - start;
+                    if (e == null) {
+                        latencyWindow.record(elapsed);
+                    }
+                    Timer.builder("randomorg.http.requests")
+                            .description("Random.org call latency per attempt and outcome")
+                            .tag("attempt", attempt)
+                            .tag("outcome", e == null ? "success" : "failure")
+                            .publishPercentileHistogram()
+                            .register(meterRegistry)
+                            .record(elapsed, TimeUnit.NANOSECONDS);
+                });
+    }
+
+    private long hedgeDelayMillis() {
+        if (latencyWindow.size() < MIN_SAMPLES_FOR_HEDGING) {
+            return initialHedgeDelayMillis;
+        }
+        return Math.max(minHedgeDelayMillis, TimeUnit.NANOSECONDS.toMillis(latencyWindow.percentile(0.95)));
+    }
+
+    private static List<Integer> parseNumbers(String response) {
+        if (response == null || response.isBlank()) {
+            log.error("Random.org returned empty response");
+            throw new RestClientException("Random.org returned empty response");
+        }
+        try {
+            return response.lines()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .map(Integer::parseInt)
+                    .toList();
         } catch (NumberFormatException e) {
             log.error("Failed to parse Random.org API response: {}", e.getMessage());
             throw new RestClientException("Invalid response format from Random.org API", e);
         }
     }
 
-    public boolean isEven(Integer number) {
-        return number % 2 == 0;
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(awaitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Interrupted while waiting for Random.org", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RestClientException("Timed out waiting for Random.org after " + awaitTimeoutMillis + " ms", e);
+        }
+    }
+
+    private static RestClientException unwrap(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RestClientException restClientException) {
+            return restClientException;
+        }
+        return new RestClientException("Failed to call Random.org: " + cause.getMessage(), cause);
     }
 }
@@ -0,0 +1,26 @@
+package com.innowise.paymentservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Async client for Random.org, keeps connections alive in its pool and completes responses on virtual threads
+     */
+    @Bean
+    public HttpClient randomOrgHttpClient(@Value("${randomorg.http.connect-timeout-ms:2000}") long connectTimeoutMillis) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+}
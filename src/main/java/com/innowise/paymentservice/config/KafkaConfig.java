@@ -2,22 +2,38 @@ package com.innowise.paymentservice.config;
 
 import com.innowise.paymentservice.dto.OrderCreatedEvent;
 import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.kafka.consumer.KeyOrderedExecutor;
+import com.innowise.paymentservice.kafka.consumer.PartitionAckWindow;
+import com.innowise.paymentservice.kafka.serialization.CompactEventDeserializer;
+import com.innowise.paymentservice.kafka.serialization.CompactEventSerializer;
+import com.innowise.paymentservice.kafka.serialization.OrderCreatedEventCodec;
+import com.innowise.paymentservice.kafka.serialization.PaymentEventCodec;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Configuration
 @EnableKafka
@@ -29,6 +45,36 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${kafka.consumer.mode:record}")
+    private String consumerMode;
+
+    @Value("${kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${kafka.consumer.transactional.enabled:false}")
+    private boolean transactional;
+
+    @Value("${kafka.consumer.transactional.transaction-id-prefix:payment-service-tx-}")
+    private String transactionIdPrefix;
+
+    @Value("${kafka.consumer.transactional.producer-pool-size:8}")
+    private int producerPoolSize;
+
+    @Value("${payment.outbox.enabled:false}")
+    private boolean outboxEnabled;
+
+    @Value("${kafka.topics.order-events-retry}")
+    private String orderEventsRetryTopic;
+
+    @Value("${kafka.topics.order-events-retry}-dlt")
+    private String orderEventsDltTopic;
+
+    @Value("${kafka.consumer.ack-after-delivery.max-in-flight:1000}")
+    private int ackWindowMaxInFlight;
+
+    @Value("${kafka.serialization.compact-topics:}")
+    private Set<String> compactTopics;
+
     @Bean
     public ConsumerFactory<String, OrderCreatedEvent> consumerFactory() {
         Map<String, Object> config = new HashMap<>();
@@ -42,11 +88,16 @@ public class KafkaConfig {
         config.put(JsonDeserializer.TRUSTED_PACKAGES, "com.innowise.*");
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        if (transactional) {
+            config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        }
 
         return new DefaultKafkaConsumerFactory<>(
                 config,
                 new StringDeserializer(),
-                new JsonDeserializer<>(OrderCreatedEvent.class, false)
+                new ErrorHandlingDeserializer<>(new CompactEventDeserializer<>(
+                        new OrderCreatedEventCodec(), new JsonDeserializer<>(OrderCreatedEvent.class, false)))
         );
     }
 
@@ -55,12 +106,86 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, OrderCreatedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener("batch".equalsIgnoreCase(consumerMode));
         factory.getContainerProperties().setAckMode(
                 org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL
         );
+        factory.getContainerProperties().setAsyncAcks("parallel".equalsIgnoreCase(consumerMode));
+        if ("record".equalsIgnoreCase(consumerMode)) {
+            // records in flight on a revoked partition must not hold its window
+            factory.getContainerProperties().setConsumerRebalanceListener(orderEventAckWindow());
+        }
+        if (transactional) {
+            checkTransactionalModeSupported();
+            // Immediate acks inside the listener transaction send the offset to that transaction
+            factory.getContainerProperties().setAckMode(
+                    org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL_IMMEDIATE
+            );
+            factory.getContainerProperties().setKafkaAwareTransactionManager(
+                    new KafkaTransactionManager<>(producerFactory())
+            );
+            // A rolled back record bypasses the error handler, it is moved to the retry lane here
+            // and its offset is committed in a new transaction of the listener producer
+            factory.setAfterRollbackProcessor(new DefaultAfterRollbackProcessor<>(
+                    orderEventRecoverer(), new FixedBackOff(0L, 0L), kafkaTemplate(), true));
+        }
+        factory.setCommonErrorHandler(new DefaultErrorHandler(orderEventRecoverer(), new FixedBackOff(0L, 0L)));
+        return factory;
+    }
+
+    /**
+     * Record listener factory for the retry lane, back off and error handling are set up by @RetryableTopic
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderCreatedEvent> retryKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, OrderCreatedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
         return factory;
     }
 
+    /**
+     * Moves failed main lane records to the retry lane without retrying in place
+     * Records that could not be deserialized go straight to the DLT
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer orderEventRecoverer() {
+        return new DeadLetterPublishingRecoverer(dltKafkaTemplate(), (record, ex) -> record.value() == null
+                ? new TopicPartition(orderEventsDltTopic, -1)
+                : new TopicPartition(orderEventsRetryTopic, -1));
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "kafka.consumer.mode", havingValue = "parallel")
+    public KeyOrderedExecutor orderEventExecutor(
+            @Value("${kafka.consumer.parallel.max-in-flight:256}") int maxInFlight
+    ) {
+        return new KeyOrderedExecutor(maxInFlight);
+    }
+
+    /**
+     * Holds back acks of record mode listener until the payment events of all earlier records are delivered
+     */
+    @Bean
+    @ConditionalOnProperty(name = "kafka.consumer.mode", havingValue = "record", matchIfMissing = true)
+    public PartitionAckWindow orderEventAckWindow() {
+        return new PartitionAckWindow(ackWindowMaxInFlight);
+    }
+
+    /**
+     * Offsets and payment events are committed in one transaction, only the record mode listener supports it
+     */
+    private void checkTransactionalModeSupported() {
+        if (!"record".equalsIgnoreCase(consumerMode)) {
+            throw new IllegalStateException(
+                    "kafka.consumer.transactional.enabled requires kafka.consumer.mode=record, got " + consumerMode);
+        }
+        if (outboxEnabled) {
+            throw new IllegalStateException(
+                    "kafka.consumer.transactional.enabled can not be combined with payment.outbox.enabled");
+        }
+    }
+
     @Bean
     public ProducerFactory<String, PaymentEvent> producerFactory() {
         Map<String, Object> config = new HashMap<>();
@@ -72,11 +197,77 @@ public class KafkaConfig {
         config.put(ProducerConfig.RETRIES_CONFIG, 3);
         config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
 
-        return new DefaultKafkaProducerFactory<>(config);
+        DefaultKafkaProducerFactory<String, PaymentEvent> factory =
+                new DefaultKafkaProducerFactory<>(config, new StringSerializer(), paymentEventSerializer());
+        if (transactional) {
+            // Producers are pooled and reused across partitions, transaction ids come from a bounded suffix range
+            factory.setTransactionIdPrefix(transactionIdPrefix);
+            factory.setTransactionIdSuffixStrategy(new DefaultTransactionIdSuffixStrategy(producerPoolSize));
+        }
+        return factory;
     }
 
     @Bean
     public KafkaTemplate<String, PaymentEvent> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        KafkaTemplate<String, PaymentEvent> template = new KafkaTemplate<>(producerFactory());
+        // Sends outside a listener transaction (retry lane) keep the plain idempotent producer
+        template.setAllowNonTransactional(true);
+        return template;
+    }
+
+    /**
+     * Template for the outbox relay, tuned for large compressed batches
+     */
+    @Bean
+    @ConditionalOnProperty(name = "payment.outbox.enabled", havingValue = "true")
+    public KafkaTemplate<String, PaymentEvent> outboxKafkaTemplate(
+            @Value("${payment.outbox.relay.linger-ms:20}") int lingerMs,
+            @Value("${payment.outbox.relay.producer-batch-size:262144}") int producerBatchSize,
+            @Value("${payment.outbox.relay.send-timeout-ms:10000}") int sendTimeoutMs
+    ) {
+        Map<String, Object> config = new HashMap<>();
+
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        // send must not block on metadata longer than the relay waits for a batch
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, sendTimeoutMs);
+
+        return new KafkaTemplate<>(
+                new DefaultKafkaProducerFactory<>(config, new StringSerializer(), paymentEventSerializer()));
+    }
+
+    /**
+     * Payment events go out in the compact format on topics listed in kafka.serialization.compact-topics, as JSON elsewhere
+     */
+    private CompactEventSerializer<PaymentEvent> paymentEventSerializer() {
+        return new CompactEventSerializer<>(new PaymentEventCodec(), new JsonSerializer<>(), compactTopics);
+    }
+
+    /**
+     * Template for republishing order events to retry and dead letter topics
+     * Raw bytes are kept as is for records that failed deserialization
+     */
+    @Bean
+    public KafkaTemplate<Object, Object> dltKafkaTemplate() {
+        Map<String, Object> config = new HashMap<>();
+
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+
+        DefaultKafkaProducerFactory<Object, Object> factory = new DefaultKafkaProducerFactory<>(config);
+        factory.setValueSerializer(new DelegatingByTypeSerializer(Map.of(
+                byte[].class, new ByteArraySerializer(),
+                OrderCreatedEvent.class, new CompactEventSerializer<>(
+                        new OrderCreatedEventCodec(), new JsonSerializer<>(), compactTopics)
+        )));
+        return new KafkaTemplate<>(factory);
     }
 }
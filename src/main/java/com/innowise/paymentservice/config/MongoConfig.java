@@ -0,0 +1,34 @@
+package com.innowise.paymentservice.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Makes @Transactional effective, so a payment and its outbox entry are written atomically
+     * Requires MongoDB running as a replica set
+     */
+    @Bean
+    @ConditionalOnProperty(name = "payment.outbox.enabled", havingValue = "true")
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+
+    /**
+     * Programmatic transactions for writes made outside a @Transactional call, such as background resolution
+     * Runs the callback directly when there is no transaction manager
+     */
+    @Bean
+    public TransactionOperations paymentTransactionOperations(ObjectProvider<MongoTransactionManager> transactionManager) {
+        MongoTransactionManager manager = transactionManager.getIfAvailable();
+        return manager != null ? new TransactionTemplate(manager) : TransactionOperations.withoutTransaction();
+    }
+}
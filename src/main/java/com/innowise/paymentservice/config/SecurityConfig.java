@@ -2,6 +2,7 @@ package com.innowise.paymentservice.config;
 
 import com.innowise.paymentservice.security.HeaderAuthenticationFilter;
 import com.innowise.paymentservice.security.SecurityKeyFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,6 +29,8 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/actuator/**").permitAll()
+                        // long-poll and SSE results are written on an async dispatch of an already authorized request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session ->
@@ -0,0 +1,35 @@
+package com.innowise.paymentservice.controller;
+
+import com.innowise.paymentservice.dto.DltReplayResponse;
+import com.innowise.paymentservice.service.OrderEventDltReplayService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/dlt")
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterController {
+
+    private final OrderEventDltReplayService replayService;
+
+    /**
+     * Replay ORDER_CREATED events from the DLT (only ADMIN)
+     * @param max max number of events to replay
+     * @return replay result
+     */
+    @PostMapping("/order-events/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DltReplayResponse> replayOrderEvents(
+            @RequestParam(defaultValue = "100") int max
+    ) {
+        log.info("DLT replay requested, max={}", max);
+        return ResponseEntity.ok(replayService.replay(max));
+    }
+}
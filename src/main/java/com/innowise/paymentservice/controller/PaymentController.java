@@ -1,23 +1,41 @@
 package com.innowise.paymentservice.controller;
 
+import com.innowise.paymentservice.dto.BatchPaymentItemResult;
 import com.innowise.paymentservice.dto.CreatePaymentRequest;
+import com.innowise.paymentservice.dto.CreatePaymentsBatchRequest;
 import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.dto.PaymentSliceResponse;
 import com.innowise.paymentservice.dto.PaymentSummaryResponse;
+import com.innowise.paymentservice.enums.PaymentExportFormat;
 import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.exception.PaymentNotFoundException;
 import com.innowise.paymentservice.repository.PaymentRepository;
+import com.innowise.paymentservice.service.PaymentOrchestrator;
 import com.innowise.paymentservice.service.PaymentService;
+import com.innowise.paymentservice.service.PaymentStreamWriter;
+import com.innowise.paymentservice.service.RequestPaymentLookup;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -27,29 +45,66 @@ import java.util.List;
 @Slf4j
 public class PaymentController {
 
+    private static final int MAX_SLICE_SIZE = 100;
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     private final PaymentService paymentService;
     private final PaymentRepository paymentRepository;
+    private final PaymentOrchestrator paymentOrchestrator;
+    private final RequestPaymentLookup paymentLookup;
+    private final PaymentStreamWriter paymentStreamWriter;
+
+    @Value("${payment.async.max-wait-ms:30000}")
+    private long maxWaitMillis;
+
+    @Value("${payment.streaming.request-timeout-ms:1800000}")
+    private long streamingTimeoutMillis;
 
     /**
      * Create new payment (only for ADMIN)
      * Payments are creates automatically via Kafka events
      * @param request payment data
+     * @param async return PROCESSING payment with 202 and resolve the status in the background
      * @return created payment
      */
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<PaymentResponse> createPayment(
-            @Valid @RequestBody CreatePaymentRequest request
+            @Valid @RequestBody CreatePaymentRequest request,
+            @RequestParam(defaultValue = "false") boolean async
     ) {
-        log.info("Manual creation payment request for orderId={}", request.orderId());
+        log.info("Manual creation payment request for orderId={}, async={}", request.orderId(), async);
+        if (async) {
+            PaymentResponse response = paymentService.createPaymentAsync(request);
+            return ResponseEntity
+                    .status(response.status() == PaymentStatus.PROCESSING ? HttpStatus.ACCEPTED : HttpStatus.CREATED)
+                    .body(response);
+        }
         PaymentResponse response = paymentService.createPayment(request);
         return ResponseEntity
                 .status(HttpStatus.CREATED)
                 .body(response);
     }
 
+    /**
+     * Create payments in bulk (only for ADMIN)
+     * Used by backfill and reconciliation jobs, one dedupe query and one bulk insert for the whole batch
+     * @param request payments data
+     * @return per item results (created, duplicate, failed) in request order
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<BatchPaymentItemResult>> createPayments(
+            @Valid @RequestBody CreatePaymentsBatchRequest request
+    ) {
+        log.info("Bulk creation payment request, size={}", request.payments().size());
+        List<BatchPaymentItemResult> results = paymentOrchestrator.createPaymentsAndSendEvents(request.payments());
+        return ResponseEntity.ok(results);
+    }
+
     /**
      * Get payment by order id
+     * The ownership check and the response share one read of the payment
      * @param orderId order id
      * @return payment info
      */
@@ -59,23 +114,73 @@ public class PaymentController {
             @PathVariable Long orderId
     ) {
         log.debug("Getting payment for orderId={}", orderId);
-        PaymentResponse response = paymentService.getPaymentByOrderId(orderId);
+        PaymentResponse response = paymentLookup.find(orderId)
+                .orElseThrow(() -> new PaymentNotFoundException("Payment not found for orderId=" + orderId));
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Long-poll payment by order id until it leaves PROCESSING
+     * @param orderId order id
+     * @param waitMs how long to wait, capped by payment.async.max-wait-ms
+     * @return resolved payment, or the current one when the wait times out
+     */
+    @GetMapping(value = "/order/{orderId}", params = "waitMs")
+    @PreAuthorize("hasRole('ADMIN') or @paymentSecurityService.isPaymentOwner(#orderId, authentication.principal)")
+    public DeferredResult<ResponseEntity<PaymentResponse>> awaitPaymentByOrderId(
+            @PathVariable Long orderId,
+            @RequestParam long waitMs
+    ) {
+        log.debug("Waiting up to {} ms for payment of orderId={}", waitMs, orderId);
+        DeferredResult<ResponseEntity<PaymentResponse>> result =
+                new DeferredResult<>(Math.clamp(waitMs, 1, maxWaitMillis));
+        Runnable stopWaiting = paymentService.onPaymentResolved(orderId,
+                payment -> result.setResult(ResponseEntity.ok(payment)));
+        result.onCompletion(stopWaiting);
+        result.onTimeout(() -> result.setResult(ResponseEntity.ok(paymentService.getPaymentByOrderId(orderId))));
+        return result;
+    }
+
+    /**
+     * Stream payment by order id as Server-Sent Events, a single "payment" event is sent once it is resolved
+     * @param orderId order id
+     * @return event stream, closed after the event or after payment.async.max-wait-ms
+     */
+    @GetMapping(value = "/order/{orderId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or @paymentSecurityService.isPaymentOwner(#orderId, authentication.principal)")
+    public SseEmitter streamPaymentByOrderId(
+            @PathVariable Long orderId
+    ) {
+        log.debug("Streaming payment for orderId={}", orderId);
+        SseEmitter emitter = new SseEmitter(maxWaitMillis);
+        Runnable stopWaiting = paymentService.onPaymentResolved(orderId, payment -> {
+            try {
+                emitter.send(SseEmitter.event().name("payment").data(payment, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        emitter.onCompletion(stopWaiting);
+        emitter.onTimeout(emitter::complete);
+        return emitter;
+    }
+
     /**
      * Get all payments for user
+     * Payments are written to the response while they are read, without collecting them first
      * @param userId user id
-     * @return list of users payments
+     * @param response response the payments are written to
+     * @return list of users payments, written within payment.streaming.request-timeout-ms
      */
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('ADMIN') or #userId == authentication.principal")
-    public ResponseEntity<List<PaymentResponse>> getPaymentsByUserId(
-            @PathVariable Long userId
+    public WebAsyncTask<Void> getPaymentsByUserId(
+            @PathVariable Long userId,
+            HttpServletResponse response
     ) {
         log.debug("Getting payments for userId={}", userId);
-        List<PaymentResponse> payments = paymentService.getPaymentsByUserId(userId);
-        return ResponseEntity.ok(payments);
+        return stream(response, MediaType.APPLICATION_JSON, out -> paymentStreamWriter.writeJsonArray(out, userId, null));
     }
 
     /**
@@ -95,19 +200,41 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
+    /**
+     * Get next slice of payments for user, constant cost at any depth
+     * @param userId user id
+     * @param pageToken token from the previous slice, absent for the first one
+     * @param size max number of payments
+     * @return slice of users payments with the token of the next one
+     */
+    @GetMapping("/user/{userId}/slice")
+    @PreAuthorize("hasRole('ADMIN') or #userId == authentication.principal")
+    public ResponseEntity<PaymentSliceResponse> getPaymentsByUserIdSlice(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String pageToken,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        log.debug("Getting payment slice for userId={}", userId);
+        PaymentSliceResponse payments =
+                paymentService.getPaymentsByUserId(userId, pageToken, Math.clamp(size, 1, MAX_SLICE_SIZE));
+        return ResponseEntity.ok(payments);
+    }
+
     /**
      * Get all payments by status (only ADMIN)
+     * Payments are written to the response while they are read, without collecting them first
      * @param status payment status
-     * @return list of payments by status
+     * @param response response the payments are written to
+     * @return list of payments by status, written within payment.streaming.request-timeout-ms
      */
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<PaymentResponse>> getPaymentsByStatus(
-            @PathVariable PaymentStatus status
+    public WebAsyncTask<Void> getPaymentsByStatus(
+            @PathVariable PaymentStatus status,
+            HttpServletResponse response
     ) {
         log.debug("Getting payments with status={}", status);
-        List<PaymentResponse> payments = paymentService.getPaymentsByStatus(status);
-        return ResponseEntity.ok(payments);
+        return stream(response, MediaType.APPLICATION_JSON, out -> paymentStreamWriter.writeJsonArray(out, null, status));
     }
 
     /**
@@ -127,6 +254,56 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
+    /**
+     * Get next slice of payments by status, constant cost at any depth (only ADMIN)
+     * @param status payment status
+     * @param pageToken token from the previous slice, absent for the first one
+     * @param size max number of payments
+     * @return slice of payments by status with the token of the next one
+     */
+    @GetMapping("/status/{status}/slice")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PaymentSliceResponse> getPaymentsByStatusSlice(
+            @PathVariable PaymentStatus status,
+            @RequestParam(required = false) String pageToken,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        log.debug("Getting payment slice with status={}", status);
+        PaymentSliceResponse payments =
+                paymentService.getPaymentsByStatus(status, pageToken, Math.clamp(size, 1, MAX_SLICE_SIZE));
+        return ResponseEntity.ok(payments);
+    }
+
+    /**
+     * Export payments as NDJSON or CSV file (only ADMIN)
+     * Payments are written to the response while they are read, without collecting them first
+     * @param userId user id, all users when absent
+     * @param status payment status, all statuses when absent
+     * @param format NDJSON or CSV
+     * @param response response the payments are written to
+     * @return payments file, written within payment.streaming.request-timeout-ms
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public WebAsyncTask<Void> exportPayments(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) PaymentStatus status,
+            @RequestParam(defaultValue = "NDJSON") PaymentExportFormat format,
+            HttpServletResponse response
+    ) {
+        log.info("Exporting payments for userId={}, status={} as {}", userId, status, format);
+        return switch (format) {
+            case NDJSON -> {
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"payments.ndjson\"");
+                yield stream(response, MediaType.APPLICATION_NDJSON, out -> paymentStreamWriter.writeNdjson(out, userId, status));
+            }
+            case CSV -> {
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"payments.csv\"");
+                yield stream(response, TEXT_CSV, out -> paymentStreamWriter.writeCsv(out, userId, status));
+            }
+        };
+    }
+
     /**
      * Get payments statistic for user with date range (only ADMIN)
      * @param userId user id
@@ -162,4 +339,17 @@ public class PaymentController {
         PaymentSummaryResponse summary = paymentService.getTotalAmountForDateRange(from, to);
         return ResponseEntity.ok(summary);
     }
+
+    /**
+     * Long reads get their own timeout instead of the global MVC one,
+     * the body is written on the MVC async executor configured in WebMvcConfig
+     */
+    private WebAsyncTask<Void> stream(HttpServletResponse response, MediaType contentType, StreamingResponseBody body) {
+        response.setContentType(contentType.toString());
+        return new WebAsyncTask<>(streamingTimeoutMillis, () -> {
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
 }
@@ -0,0 +1,54 @@
+package com.innowise.paymentservice.controller;
+
+import com.innowise.paymentservice.dto.PaymentDecisionStrategyResponse;
+import com.innowise.paymentservice.service.decision.PaymentDecisionSelector;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/payment-decision")
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentDecisionController {
+
+    private final PaymentDecisionSelector paymentDecisionSelector;
+
+    /**
+     * Get active payment decision strategy (only ADMIN)
+     * @return active and available strategies
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PaymentDecisionStrategyResponse> getStrategy() {
+        return ResponseEntity.ok(toResponse());
+    }
+
+    /**
+     * Switch payment decision strategy (only ADMIN)
+     * @param strategy strategy name
+     * @return active and available strategies, 400 if strategy is unknown
+     */
+    @PutMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PaymentDecisionStrategyResponse> switchStrategy(@RequestParam String strategy) {
+        log.info("Payment decision strategy switch requested: {}", strategy);
+        if (!paymentDecisionSelector.switchTo(strategy)) {
+            return ResponseEntity.badRequest().body(toResponse());
+        }
+        return ResponseEntity.ok(toResponse());
+    }
+
+    private PaymentDecisionStrategyResponse toResponse() {
+        return PaymentDecisionStrategyResponse.builder()
+                .current(paymentDecisionSelector.currentStrategy())
+                .available(paymentDecisionSelector.availableStrategies())
+                .build();
+    }
+}
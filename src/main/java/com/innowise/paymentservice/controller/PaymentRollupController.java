@@ -0,0 +1,31 @@
+package com.innowise.paymentservice.controller;
+
+import com.innowise.paymentservice.dto.RollupRebuildResponse;
+import com.innowise.paymentservice.service.PaymentRollupRebuildService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/rollups")
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentRollupController {
+
+    private final PaymentRollupRebuildService rebuildService;
+
+    /**
+     * Regenerate daily payment rollups from the payments collection (only ADMIN)
+     * @return rebuild result
+     */
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RollupRebuildResponse> rebuild() {
+        log.info("Payment rollup rebuild requested");
+        return ResponseEntity.ok(rebuildService.rebuild());
+    }
+}
@@ -0,0 +1,35 @@
+package com.innowise.paymentservice.controller;
+
+import com.innowise.paymentservice.dto.PaymentWindowStatisticsResponse;
+import com.innowise.paymentservice.service.statistics.PaymentWindowStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/payments/statistics")
+@RequiredArgsConstructor
+public class PaymentStatisticsController {
+
+    private final PaymentWindowStatistics paymentWindowStatistics;
+
+    /**
+     * Get payments finalized within the last minutes, served from memory (only ADMIN)
+     * @param minutes window length
+     * @return succeeded and failed counts and amounts, 400 if the window is longer than the kept history
+     */
+    @GetMapping("/window")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PaymentWindowStatisticsResponse> getWindowStatistics(
+            @RequestParam(defaultValue = "5") int minutes
+    ) {
+        if (!paymentWindowStatistics.supportsWindow(minutes)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(paymentWindowStatistics.getStatistics(minutes));
+    }
+}
@@ -0,0 +1,36 @@
+package com.innowise.paymentservice.dto;
+
+import com.innowise.paymentservice.enums.BatchItemStatus;
+import lombok.Builder;
+
+@Builder
+public record BatchPaymentItemResult(
+        Long orderId,
+        BatchItemStatus result,
+        PaymentResponse payment,
+        String error
+) {
+    public static BatchPaymentItemResult created(PaymentResponse payment) {
+        return BatchPaymentItemResult.builder()
+                .orderId(payment.orderId())
+                .result(BatchItemStatus.CREATED)
+                .payment(payment)
+                .build();
+    }
+
+    public static BatchPaymentItemResult duplicate(Long orderId) {
+        return BatchPaymentItemResult.builder()
+                .orderId(orderId)
+                .result(BatchItemStatus.DUPLICATE)
+                .error("Payment already exists for orderId=" + orderId)
+                .build();
+    }
+
+    public static BatchPaymentItemResult failed(Long orderId, String error) {
+        return BatchPaymentItemResult.builder()
+                .orderId(orderId)
+                .result(BatchItemStatus.FAILED)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.innowise.paymentservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record CreatePaymentsBatchRequest(
+        @NotEmpty(message = "Payments are required")
+        @Size(max = 1000, message = "Batch must not contain more than 1000 payments")
+        List<@Valid CreatePaymentRequest> payments
+) {
+}
@@ -0,0 +1,13 @@
+package com.innowise.paymentservice.dto;
+
+import lombok.Builder;
+
+@Builder
+public record DltReplayResponse(
+        int replayed,
+        int duplicates,
+        int skipped,
+        int failed,
+        String error
+) {
+}
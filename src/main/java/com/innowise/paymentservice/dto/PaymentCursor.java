@@ -0,0 +1,49 @@
+package com.innowise.paymentservice.dto;
+
+import com.innowise.paymentservice.exception.InvalidPageTokenException;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+
+/**
+ * Position after the last returned payment in (timestamp, id) order, sent to clients as an opaque token
+ */
+public record PaymentCursor(
+        LocalDateTime timestamp,
+        String id
+) {
+
+    public static PaymentCursor after(PaymentResponse payment) {
+        return new PaymentCursor(payment.timestamp(), payment.id());
+    }
+
+    /**
+     * @param token token from a previous slice, null or blank for the first one
+     * @return cursor, null for the first slice
+     */
+    public static PaymentCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 2);
+            if (parts.length != 2 || !ObjectId.isValid(parts[1])) {
+                throw new InvalidPageTokenException("Malformed page token");
+            }
+            Instant timestamp = Instant.ofEpochMilli(Long.parseLong(parts[0]));
+            return new PaymentCursor(LocalDateTime.ofInstant(timestamp, ZoneId.systemDefault()), parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageTokenException("Malformed page token");
+        }
+    }
+
+    public String encode() {
+        long millis = timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((millis + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
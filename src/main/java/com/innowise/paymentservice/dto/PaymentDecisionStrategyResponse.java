@@ -0,0 +1,12 @@
+package com.innowise.paymentservice.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record PaymentDecisionStrategyResponse(
+        String current,
+        List<String> available
+) {
+}
@@ -0,0 +1,14 @@
+package com.innowise.paymentservice.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record PaymentSliceResponse(
+        List<PaymentResponse> content,
+        int size,
+        boolean hasNext,
+        String nextToken
+) {
+}
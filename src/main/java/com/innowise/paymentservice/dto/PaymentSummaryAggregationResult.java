@@ -0,0 +1,37 @@
+package com.innowise.paymentservice.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+@Builder
+public record PaymentSummaryAggregationResult(
+        BigDecimal totalAmount,
+        Long paymentsCount,
+        BigDecimal minAmount,
+        BigDecimal maxAmount,
+        BigDecimal averageAmount
+) {
+
+    public static final PaymentSummaryAggregationResult EMPTY =
+            new PaymentSummaryAggregationResult(BigDecimal.ZERO, 0L, null, null, null);
+
+    /**
+     * Summary of both ranges, average is recomputed from the combined total and count
+     */
+    public PaymentSummaryAggregationResult combine(PaymentSummaryAggregationResult other) {
+        BigDecimal total = totalAmount.add(other.totalAmount);
+        long count = paymentsCount + other.paymentsCount;
+
+        return PaymentSummaryAggregationResult.builder()
+                .totalAmount(total)
+                .paymentsCount(count)
+                .minAmount(minAmount == null || (other.minAmount != null && other.minAmount.compareTo(minAmount) < 0)
+                        ? other.minAmount : minAmount)
+                .maxAmount(maxAmount == null || (other.maxAmount != null && other.maxAmount.compareTo(maxAmount) > 0)
+                        ? other.maxAmount : maxAmount)
+                .averageAmount(count == 0 ? null : total.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128))
+                .build();
+    }
+}
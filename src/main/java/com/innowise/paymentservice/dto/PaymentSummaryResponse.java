@@ -11,6 +11,9 @@ public record PaymentSummaryResponse(
         LocalDateTime fromDate,
         LocalDateTime toDate,
         Long userId,
-        Long paymentsCount
+        Long paymentsCount,
+        BigDecimal minAmount,
+        BigDecimal maxAmount,
+        BigDecimal averageAmount
 ) {
 }
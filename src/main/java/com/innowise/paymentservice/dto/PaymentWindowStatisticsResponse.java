@@ -0,0 +1,15 @@
+package com.innowise.paymentservice.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+@Builder
+public record PaymentWindowStatisticsResponse(
+        int windowMinutes,
+        long succeededCount,
+        BigDecimal succeededAmount,
+        long failedCount,
+        BigDecimal failedAmount
+) {
+}
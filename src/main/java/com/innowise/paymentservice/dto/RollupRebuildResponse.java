@@ -0,0 +1,10 @@
+package com.innowise.paymentservice.dto;
+
+import lombok.Builder;
+
+@Builder
+public record RollupRebuildResponse(
+        int chunks,
+        long rollups
+) {
+}
@@ -0,0 +1,39 @@
+package com.innowise.paymentservice.entity;
+
+import com.innowise.paymentservice.dto.PaymentEvent;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+@Document(collection = "payment_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class OutboxEvent {
+
+    @Id
+    private String id;
+
+    @Field("event_key")
+    private String key;
+
+    @Field("event")
+    private PaymentEvent event;
+
+    @Field("created_at")
+    private LocalDateTime createdAt;
+
+    public static OutboxEvent of(PaymentEvent event) {
+        return OutboxEvent.builder()
+                .key(event.orderId().toString())
+                .event(event)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
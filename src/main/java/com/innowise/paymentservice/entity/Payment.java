@@ -3,6 +3,9 @@ package com.innowise.paymentservice.entity;
 import com.innowise.paymentservice.enums.PaymentStatus;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.IndexDirection;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -12,6 +15,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Document(collection = "payments")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_id_timestamp_id", def = "{ 'user_id': 1, 'timestamp': 1, '_id': 1 }"),
+        @CompoundIndex(name = "status_timestamp_id", def = "{ 'status': 1, 'timestamp': 1, '_id': 1 }")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -30,12 +37,13 @@ public class Payment {
     @Field("user_id")
     private Long userId;
 
+    // names and directions match changeSets 4 and 5, auto index creation must not build the same keys again
     @Field("status")
-    @Indexed
+    @Indexed(name = "idx_status")
     private PaymentStatus status;
 
     @Field("timestamp")
-    @Indexed
+    @Indexed(name = "idx_timestamp_desc", direction = IndexDirection.DESCENDING)
     private LocalDateTime timestamp;
 
     @Field(name = "payment_amount", targetType = FieldType.DECIMAL128)
@@ -0,0 +1,51 @@
+package com.innowise.paymentservice.entity;
+
+import com.innowise.paymentservice.enums.PaymentStatus;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Payments of one user on one day in one status, kept up to date on every payment write
+ * Min and max are not lowered when a payment leaves the status, they still belong to a payment of that user and day
+ */
+@Document(collection = "payment_daily_rollups")
+@CompoundIndex(name = "user_id_day_status", def = "{ 'user_id': 1, 'day': 1, 'status': 1 }", unique = true)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class PaymentDailyRollup {
+
+    @Id
+    private String id;
+
+    @Field("user_id")
+    private Long userId;
+
+    @Field("day")
+    private LocalDateTime day;
+
+    @Field("status")
+    private PaymentStatus status;
+
+    @Field(name = "total_amount", targetType = FieldType.DECIMAL128)
+    private BigDecimal totalAmount;
+
+    @Field("payments_count")
+    private Long paymentsCount;
+
+    @Field(name = "min_amount", targetType = FieldType.DECIMAL128)
+    private BigDecimal minAmount;
+
+    @Field(name = "max_amount", targetType = FieldType.DECIMAL128)
+    private BigDecimal maxAmount;
+}
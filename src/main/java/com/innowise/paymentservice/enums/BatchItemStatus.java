@@ -0,0 +1,7 @@
+package com.innowise.paymentservice.enums;
+
+public enum BatchItemStatus {
+    CREATED,
+    DUPLICATE,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.innowise.paymentservice.enums;
+
+public enum PaymentExportFormat {
+    NDJSON,
+    CSV
+}
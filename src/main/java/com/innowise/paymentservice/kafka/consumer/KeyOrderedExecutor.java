@@ -0,0 +1,53 @@
+package com.innowise.paymentservice.kafka.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs tasks on virtual threads, serially per key and concurrently across keys
+ * The number of tasks in flight is bounded, submit blocks the caller when the limit is reached
+ */
+@Slf4j
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+
+    public KeyOrderedExecutor(int maxInFlight) {
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Schedule task after all previously submitted tasks with the same key
+     * @param key ordering key
+     * @param task task to run
+     * @return future completed when the task finishes
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     */
+    public CompletableFuture<Void> submit(String key, Runnable task) throws InterruptedException {
+        permits.acquire();
+
+        CompletableFuture<Void> next = tails.compute(key, (k, tail) -> (tail == null
+                ? CompletableFuture.<Void>completedFuture(null)
+                : tail.exceptionally(e -> null))
+                .thenRunAsync(task, executor));
+
+        next.whenComplete((r, e) -> {
+            tails.remove(key, next);
+            permits.release();
+        });
+        return next;
+    }
+
+    @Override
+    public void close() {
+        log.info("Waiting for in-flight tasks to complete: keys={}", tails.size());
+        executor.close();
+    }
+}
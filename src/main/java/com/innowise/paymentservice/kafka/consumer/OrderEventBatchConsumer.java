@@ -0,0 +1,93 @@
+package com.innowise.paymentservice.kafka.consumer;
+
+import com.innowise.paymentservice.dto.BatchPaymentItemResult;
+import com.innowise.paymentservice.dto.CreatePaymentRequest;
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
+import com.innowise.paymentservice.service.PaymentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Batch alternative to {@link OrderEventConsumer}, enabled with kafka.consumer.mode=batch
+ * Handles a whole poll() at once: one dedupe query and one bulk insert per batch
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.consumer.mode", havingValue = "batch")
+public class OrderEventBatchConsumer {
+
+    private final PaymentService paymentService;
+    private final PaymentEventProducer producer;
+
+    @KafkaListener(
+            topics = "${kafka.topics.order-events}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void handleOrderCreatedEvents(
+            List<ConsumerRecord<String, OrderCreatedEvent>> records,
+            Acknowledgment acknowledgment
+    ) {
+        log.info("Received batch of ORDER_CREATED events: size={}", records.size());
+
+        // a record that failed deserialization has no value, only the records before it are processed
+        int firstUnreadableIndex = IntStream.range(0, records.size())
+                .filter(i -> records.get(i).value() == null)
+                .findFirst()
+                .orElse(-1);
+
+        List<CreatePaymentRequest> requests = records.stream()
+                .limit(firstUnreadableIndex < 0 ? records.size() : firstUnreadableIndex)
+                .map(record -> record.value().toCreatePaymentRequest())
+                .toList();
+
+        List<BatchPaymentItemResult> results = paymentService.createPayments(requests);
+
+        int firstFailedIndex = -1;
+        List<PaymentEvent> created = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            BatchPaymentItemResult result = results.get(i);
+            ConsumerRecord<String, OrderCreatedEvent> record = records.get(i);
+
+            switch (result.result()) {
+                case CREATED -> created.add(PaymentEvent.fromPaymentResponse(result.payment()));
+                case DUPLICATE -> log.warn("Payment already exists for orderId={}, skip", result.orderId());
+                case FAILED -> {
+                    log.error("Error processing ORDER_CREATED event for orderId={}, partition={}, offset={}: {}",
+                            result.orderId(), record.partition(), record.offset(), result.error());
+                    if (firstFailedIndex < 0) {
+                        firstFailedIndex = i;
+                    }
+                }
+            }
+        }
+
+        producer.sendPaymentEvents(created);
+
+        if (firstFailedIndex < 0) {
+            firstFailedIndex = firstUnreadableIndex;
+        }
+
+        // records before the failed one are committed by the error handler, the failed one goes to the
+        // retry lane and the rest are redelivered, the ones already created above are skipped as duplicates
+        if (firstFailedIndex >= 0) {
+            throw new BatchListenerFailedException("Error processing ORDER_CREATED event", firstFailedIndex);
+        }
+
+        acknowledgment.acknowledge();
+        log.info("ORDER_CREATED batch processed successfully: size={}", records.size());
+    }
+}
@@ -7,22 +7,55 @@ import com.innowise.paymentservice.dto.PaymentResponse;
 import com.innowise.paymentservice.exception.PaymentAlreadyExistsException;
 import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
 import com.innowise.paymentservice.service.PaymentService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.BackOffExecution;
+import org.springframework.util.backoff.ExponentialBackOff;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record mode listener, creates the payment on the listener thread and publishes its event
+ * With ack-after-delivery the record is acknowledged only once the broker confirmed the payment event,
+ * the listener moves on to the next record meanwhile and {@link PartitionAckWindow} keeps commits in offset order
+ * A record whose event could not be delivered goes to the retry lane, which publishes the event again,
+ * moving it there is retried with back off while its partition stays assigned
+ */
 @Component
 @Slf4j
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.consumer.mode", havingValue = "record", matchIfMissing = true)
 public class OrderEventConsumer {
 
     private final PaymentService paymentService;
     private final PaymentEventProducer producer;
+    private final PartitionAckWindow orderEventAckWindow;
+    private final DeadLetterPublishingRecoverer orderEventRecoverer;
+    private final ExecutorService recoveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${kafka.consumer.transactional.enabled:false}")
+    private boolean transactional;
+
+    @Value("${kafka.consumer.ack-after-delivery.enabled:true}")
+    private boolean ackAfterDelivery;
+
+    @Value("${kafka.consumer.ack-after-delivery.recovery-backoff.initial-ms:500}")
+    private long recoveryInitialIntervalMs;
+
+    @Value("${kafka.consumer.ack-after-delivery.recovery-backoff.max-ms:30000}")
+    private long recoveryMaxIntervalMs;
 
     @KafkaListener(
             topics = "${kafka.topics.order-events}",
@@ -30,13 +63,23 @@ public class OrderEventConsumer {
             containerFactory = "kafkaListenerContainerFactory"
     )
     public void handleOrderCreatedEvent(
-            @Payload OrderCreatedEvent event,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-            @Header(KafkaHeaders.OFFSET) long offset,
+            ConsumerRecord<String, OrderCreatedEvent> record,
             Acknowledgment acknowledgment
-    ) {
+    ) throws InterruptedException {
+        // offsets and events of a listener transaction are committed together, nothing to wait for
+        if (ackAfterDelivery && !transactional) {
+            PartitionAckWindow.Pending pending = orderEventAckWindow.track(
+                    record.topic(), record.partition(), record.offset(), acknowledgment);
+            processPipelined(record, pending);
+        } else {
+            process(record, acknowledgment);
+        }
+    }
+
+    private void process(ConsumerRecord<String, OrderCreatedEvent> record, Acknowledgment acknowledgment) {
+        OrderCreatedEvent event = record.value();
         log.info("Received ORDER_CREATED event: orderId={}, userId={}, amount={}, partition={}, offset={}",
-                event.orderId(), event.userId(), event.totalAmount(), partition, offset);
+                event.orderId(), event.userId(), event.totalAmount(), record.partition(), record.offset());
         try {
             CreatePaymentRequest request = event.toCreatePaymentRequest();
 
@@ -52,11 +95,101 @@ public class OrderEventConsumer {
             log.info("ORDER_CREATED event processed successfully: orderId={}", event.orderId());
         } catch (PaymentAlreadyExistsException e) {
             log.warn("Payment already exists for orderId={}, skip={}", event.orderId(), e.getMessage());
+            if (transactional) {
+                // Previous transaction may have rolled back after the payment was stored, publish its event again
+                producer.sendPaymentEvent(PaymentEvent.fromPaymentResponse(
+                        paymentService.getPaymentByOrderId(event.orderId())));
+            }
             acknowledgment.acknowledge();
         } catch (Exception e) {
-            log.error("Error processing ORDER_CREATED event for orderId={}: {}",
-                    event.orderId(), e.getMessage(), e);  // TODO: add DLQ
+            log.error("Error processing ORDER_CREATED event for orderId={}, moving to retry topic: {}",
+                    event.orderId(), e.getMessage(), e);
             throw new RuntimeException("Error processing ORDER_CREATED event", e);
         }
     }
+
+    /**
+     * Failures are routed to the retry lane here instead of the error handler,
+     * which would commit the failed offset ahead of records whose events are still in flight
+     */
+    private void processPipelined(ConsumerRecord<String, OrderCreatedEvent> record, PartitionAckWindow.Pending pending) {
+        OrderCreatedEvent event = record.value();
+        CompletableFuture<Void> delivery;
+        try {
+            if (event == null) {
+                throw new IllegalStateException("ORDER_CREATED event could not be deserialized");
+            }
+            log.info("Received ORDER_CREATED event: orderId={}, userId={}, amount={}, partition={}, offset={}",
+                    event.orderId(), event.userId(), event.totalAmount(), record.partition(), record.offset());
+            delivery = producer.sendPaymentEventAsync(PaymentEvent.fromPaymentResponse(createOrFind(event)));
+        } catch (Exception e) {
+            log.error("Error processing ORDER_CREATED event, partition={}, offset={}, moving to retry topic: {}",
+                    record.partition(), record.offset(), e.getMessage(), e);
+            recover(record, e, pending);
+            return;
+        }
+
+        delivery.whenComplete((r, e) -> {
+            if (e == null) {
+                pending.complete();
+                log.info("ORDER_CREATED event processed successfully: orderId={}", event.orderId());
+            } else {
+                // the producer network thread must not block on the retry lane send
+                recoveryExecutor.execute(() -> recover(record, e, pending));
+            }
+        });
+    }
+
+    /**
+     * A redelivered order may have been stored by an attempt whose event never reached the broker,
+     * its event is published again, consumers of payment events see it at least once
+     */
+    private PaymentResponse createOrFind(OrderCreatedEvent event) {
+        try {
+            PaymentResponse response = paymentService.createPayment(event.toCreatePaymentRequest());
+            log.info("Payment created successfully: paymentId={}, orderId={}, status={}",
+                    response.id(), response.orderId(), response.status());
+            return response;
+        } catch (PaymentAlreadyExistsException e) {
+            log.warn("Payment already exists for orderId={}, publishing its event again: {}",
+                    event.orderId(), e.getMessage());
+            return paymentService.getPaymentByOrderId(event.orderId());
+        }
+    }
+
+    private void recover(ConsumerRecord<String, OrderCreatedEvent> record, Throwable cause,
+                         PartitionAckWindow.Pending pending) {
+        Throwable failure = cause instanceof CompletionException completion ? completion.getCause() : cause;
+        ExponentialBackOff backOff = new ExponentialBackOff(recoveryInitialIntervalMs, ExponentialBackOff.DEFAULT_MULTIPLIER);
+        backOff.setMaxInterval(recoveryMaxIntervalMs);
+        recover(record, failure instanceof Exception ex ? ex : new RuntimeException(failure), pending, backOff.start());
+    }
+
+    /**
+     * A record that could not be moved to the retry lane would hold back every later commit of its partition,
+     * so the move is retried with back off until it succeeds or the partition is revoked
+     */
+    private void recover(ConsumerRecord<String, OrderCreatedEvent> record, Exception failure,
+                         PartitionAckWindow.Pending pending, BackOffExecution backOff) {
+        if (pending.isRevoked()) {
+            log.info("Partition revoked, partition={}, offset={} is left to the new owner",
+                    record.partition(), record.offset());
+            return;
+        }
+        try {
+            orderEventRecoverer.accept(record, failure);
+            pending.complete();
+        } catch (Exception e) {
+            long delayMs = backOff.nextBackOff();
+            log.error("Failed to move ORDER_CREATED event to retry topic, partition={}, offset={}, retrying in {} ms: {}",
+                    record.partition(), record.offset(), delayMs, e.getMessage(), e);
+            CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, recoveryExecutor)
+                    .execute(() -> recover(record, failure, pending, backOff));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        recoveryExecutor.close();
+    }
 }
@@ -0,0 +1,152 @@
+package com.innowise.paymentservice.kafka.consumer;
+
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.exception.PaymentAlreadyExistsException;
+import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
+import com.innowise.paymentservice.service.PaymentService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.BackOffExecution;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parallel alternative to {@link OrderEventConsumer}, enabled with kafka.consumer.mode=parallel
+ * Records of one partition are processed concurrently, records with the same key stay in order
+ * Acks are asynchronous and sent once the payment event is delivered,
+ * the container commits only up to the highest contiguous acked offset
+ * A failed record is acked once it is on the retry lane, moving it there is retried with back off
+ * since an unacked record holds back every later commit of its partition
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.consumer.mode", havingValue = "parallel")
+public class OrderEventParallelConsumer {
+
+    private final PaymentService paymentService;
+    private final PaymentEventProducer producer;
+    private final KeyOrderedExecutor orderEventExecutor;
+    private final DeadLetterPublishingRecoverer orderEventRecoverer;
+    private final ExecutorService recoveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${kafka.consumer.parallel.ordering-key:order}")
+    private String orderingKey;
+
+    @Value("${kafka.consumer.parallel.recovery-backoff.initial-ms:500}")
+    private long recoveryInitialIntervalMs;
+
+    @Value("${kafka.consumer.parallel.recovery-backoff.max-ms:30000}")
+    private long recoveryMaxIntervalMs;
+
+    @KafkaListener(
+            topics = "${kafka.topics.order-events}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void handleOrderCreatedEvent(
+            ConsumerRecord<String, OrderCreatedEvent> record,
+            Acknowledgment acknowledgment
+    ) throws InterruptedException {
+        OrderCreatedEvent event = record.value();
+        if (event == null) {
+            // the recoverer sends records that failed deserialization to the DLT
+            log.error("ORDER_CREATED event could not be deserialized, partition={}, offset={}, moving to DLT",
+                    record.partition(), record.offset());
+            recover(record, new IllegalStateException("ORDER_CREATED event could not be deserialized"), acknowledgment);
+            return;
+        }
+        log.info("Received ORDER_CREATED event: orderId={}, userId={}, amount={}, partition={}, offset={}",
+                event.orderId(), event.userId(), event.totalAmount(), record.partition(), record.offset());
+
+        orderEventExecutor.submit(orderingKey(event), () -> process(record, acknowledgment));
+    }
+
+    private void process(ConsumerRecord<String, OrderCreatedEvent> record, Acknowledgment acknowledgment) {
+        OrderCreatedEvent event = record.value();
+        try {
+            PaymentResponse response = paymentService.createPayment(event.toCreatePaymentRequest());
+            log.info("Payment created successfully: paymentId={}, orderId={}, status={}",
+                    response.id(), response.orderId(), response.status());
+
+            // a virtual thread waits for the broker, other keys keep being processed meanwhile
+            producer.sendPaymentEventAsync(PaymentEvent.fromPaymentResponse(response)).join();
+            acknowledgment.acknowledge();
+            log.info("ORDER_CREATED event processed successfully: orderId={}", event.orderId());
+        } catch (PaymentAlreadyExistsException e) {
+            // a previous attempt may have stored the payment without delivering its event
+            log.warn("Payment already exists for orderId={}, publishing its event again: {}",
+                    event.orderId(), e.getMessage());
+            republish(record, acknowledgment);
+        } catch (Exception e) {
+            log.error("Error processing ORDER_CREATED event for orderId={}, moving to retry topic: {}",
+                    event.orderId(), e.getMessage(), e);
+            recover(record, e, acknowledgment);
+        }
+    }
+
+    private void republish(ConsumerRecord<String, OrderCreatedEvent> record, Acknowledgment acknowledgment) {
+        try {
+            producer.sendPaymentEventAsync(PaymentEvent.fromPaymentResponse(
+                    paymentService.getPaymentByOrderId(record.value().orderId()))).join();
+            acknowledgment.acknowledge();
+        } catch (Exception e) {
+            log.error("Error publishing payment event again for orderId={}, moving to retry topic: {}",
+                    record.value().orderId(), e.getMessage(), e);
+            recover(record, e, acknowledgment);
+        }
+    }
+
+    private void recover(ConsumerRecord<String, OrderCreatedEvent> record, Exception failure,
+                         Acknowledgment acknowledgment) {
+        Exception cause = failure instanceof CompletionException && failure.getCause() instanceof Exception e
+                ? e : failure;
+        ExponentialBackOff backOff = new ExponentialBackOff(recoveryInitialIntervalMs, ExponentialBackOff.DEFAULT_MULTIPLIER);
+        backOff.setMaxInterval(recoveryMaxIntervalMs);
+        recover(record, cause, acknowledgment, backOff.start());
+    }
+
+    /**
+     * The record is acked only once it is on the retry lane, a failed move is retried off the key's task
+     * so later records of the same key are not held back
+     */
+    private void recover(ConsumerRecord<String, OrderCreatedEvent> record, Exception failure,
+                         Acknowledgment acknowledgment, BackOffExecution backOff) {
+        try {
+            orderEventRecoverer.accept(record, failure);
+            acknowledgment.acknowledge();
+        } catch (Exception e) {
+            long delayMs = backOff.nextBackOff();
+            log.error("Failed to move ORDER_CREATED event to retry topic, partition={}, offset={}, retrying in {} ms: {}",
+                    record.partition(), record.offset(), delayMs, e.getMessage(), e);
+            CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, recoveryExecutor)
+                    .execute(() -> recover(record, failure, acknowledgment, backOff));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        recoveryExecutor.close();
+    }
+
+    private String orderingKey(OrderCreatedEvent event) {
+        return "user".equalsIgnoreCase(orderingKey)
+                ? "user-" + event.userId()
+                : "order-" + event.orderId();
+    }
+}
@@ -0,0 +1,80 @@
+package com.innowise.paymentservice.kafka.consumer;
+
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.exception.PaymentAlreadyExistsException;
+import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
+import com.innowise.paymentservice.service.PaymentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retry lane for ORDER_CREATED events that failed on the main lane
+ * Each failed attempt moves the event to the next backoff topic with an exponentially growing delay,
+ * the backoff topics pause only their own partitions so the main lane is never blocked
+ * Events that exhaust all attempts end up in the DLT, see {@link com.innowise.paymentservice.service.OrderEventDltReplayService}
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OrderEventRetryConsumer {
+
+    private final PaymentService paymentService;
+    private final PaymentEventProducer producer;
+
+    @RetryableTopic(
+            attempts = "${kafka.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${kafka.retry.initial-interval-ms:1000}",
+                    multiplierExpression = "${kafka.retry.multiplier:2.0}",
+                    maxDelayExpression = "${kafka.retry.max-interval-ms:60000}"
+            ),
+            kafkaTemplate = "dltKafkaTemplate",
+            retryTopicSuffix = "-backoff",
+            dltTopicSuffix = "-dlt",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            autoCreateTopics = "${kafka.retry.auto-create-topics:true}"
+    )
+    @KafkaListener(
+            topics = "${kafka.topics.order-events-retry}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    public void handleOrderCreatedEventRetry(
+            @Payload OrderCreatedEvent event,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic
+    ) {
+        log.info("Retrying ORDER_CREATED event: orderId={}, topic={}", event.orderId(), topic);
+        try {
+            PaymentResponse response = paymentService.createPayment(event.toCreatePaymentRequest());
+            log.info("Payment created on retry: paymentId={}, orderId={}, status={}",
+                    response.id(), response.orderId(), response.status());
+
+            // wait for the broker, a failed send moves the event to the next backoff topic
+            producer.sendPaymentEventAsync(PaymentEvent.fromPaymentResponse(response)).join();
+        } catch (PaymentAlreadyExistsException e) {
+            // the main lane stored the payment but its event may not have been delivered
+            log.warn("Payment already exists for orderId={}, publishing its event again: {}",
+                    event.orderId(), e.getMessage());
+            producer.sendPaymentEventAsync(PaymentEvent.fromPaymentResponse(
+                    paymentService.getPaymentByOrderId(event.orderId()))).join();
+        }
+    }
+
+    @DltHandler
+    public void handleOrderCreatedEventDlt(ConsumerRecord<String, OrderCreatedEvent> record) {
+        log.error("ORDER_CREATED event moved to DLT after all retries: key={}, topic={}, offset={}",
+                record.key(), record.topic(), record.offset());
+    }
+}
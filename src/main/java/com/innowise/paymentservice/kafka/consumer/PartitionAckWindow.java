@@ -0,0 +1,156 @@
+package com.innowise.paymentservice.kafka.consumer;
+
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Acknowledges records of each partition in the order they were received, whatever order they complete in
+ * A partition keeps a window of records still in flight, once the oldest ones are complete the last of them
+ * is acknowledged, which commits the whole prefix, a record that never completes holds back later commits
+ * The number of records in flight is bounded, track blocks the listener when the limit is reached
+ * Windows of revoked partitions are dropped, their records are redelivered to the new owner
+ */
+public class PartitionAckWindow implements ConsumerRebalanceListener {
+
+    private final Map<TopicPartition, Deque<Pending>> windows = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final int maxInFlight;
+
+    public PartitionAckWindow(int maxInFlight) {
+        this.permits = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Start tracking a record, must be called on the listener thread in the order records are received
+     * @param topic record topic
+     * @param partition record partition
+     * @param offset record offset
+     * @param acknowledgment acknowledgment of the record
+     * @return handle to complete once the record is fully processed
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     */
+    public Pending track(String topic, int partition, long offset, Acknowledgment acknowledgment)
+            throws InterruptedException {
+        permits.acquire();
+        TopicPartition topicPartition = new TopicPartition(topic, partition);
+        Deque<Pending> window = windows.computeIfAbsent(topicPartition, tp -> new ArrayDeque<>());
+        Pending pending = new Pending(window, offset, acknowledgment);
+        synchronized (window) {
+            window.addLast(pending);
+        }
+        return pending;
+    }
+
+    /**
+     * Records still in flight on revoked partitions are never acknowledged, their permits are released
+     */
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            Deque<Pending> window = windows.remove(partition);
+            if (window == null) {
+                continue;
+            }
+            int released = 0;
+            synchronized (window) {
+                for (Pending pending : window) {
+                    pending.complete = true;
+                    pending.revoked = true;
+                    released++;
+                }
+                window.clear();
+            }
+            permits.release(released);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        // windows are created on the first tracked record
+    }
+
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        onPartitionsRevoked(partitions);
+    }
+
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    /**
+     * Records of one partition tracked but not acknowledged yet
+     */
+    int pending(String topic, int partition) {
+        Deque<Pending> window = windows.get(new TopicPartition(topic, partition));
+        if (window == null) {
+            return 0;
+        }
+        synchronized (window) {
+            return window.size();
+        }
+    }
+
+    public final class Pending {
+
+        private final Deque<Pending> window;
+        private final long offset;
+        private final Acknowledgment acknowledgment;
+        private boolean complete;
+        private boolean revoked;
+
+        private Pending(Deque<Pending> window, long offset, Acknowledgment acknowledgment) {
+            this.window = window;
+            this.offset = offset;
+            this.acknowledgment = acknowledgment;
+        }
+
+        public long offset() {
+            return offset;
+        }
+
+        /**
+         * Whether the partition of the record was revoked before the record completed
+         */
+        public boolean isRevoked() {
+            synchronized (window) {
+                return revoked;
+            }
+        }
+
+        /**
+         * Mark the record processed, acknowledge it and every record before it once they are all processed
+         * Acks are sent under the window lock so a later offset is never acknowledged before an earlier one
+         */
+        public void complete() {
+            int released = 0;
+            try {
+                synchronized (window) {
+                    if (complete) {
+                        return;
+                    }
+                    complete = true;
+                    Acknowledgment last = null;
+                    while (!window.isEmpty() && window.peekFirst().complete) {
+                        last = window.pollFirst().acknowledgment;
+                        released++;
+                    }
+                    if (last != null) {
+                        last.acknowledge();
+                    }
+                }
+            } finally {
+                permits.release(released);
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 @Component
@@ -20,7 +21,24 @@ public class PaymentEventProducer {
     @Value("${kafka.topics.payment-events}")
     private String paymentEventsTopic;
 
+    @Value("${payment.outbox.enabled:false}")
+    private boolean outboxEnabled;
+
     public void sendPaymentEvent(PaymentEvent event) {
+        sendPaymentEventAsync(event);
+    }
+
+    /**
+     * Send event without waiting for the broker
+     * @param event payment event
+     * @return future completed once the broker acknowledged the event, or right away when the outbox publishes it
+     */
+    public CompletableFuture<Void> sendPaymentEventAsync(PaymentEvent event) {
+        if (outboxEnabled) {
+            log.debug("Payment event for orderId={} is stored in outbox, published by relay", event.orderId());
+            return CompletableFuture.completedFuture(null);
+        }
+
         log.info("Sending payment event to Kafka: orderId={}, status={}", event.orderId(), event.status());
 
         try {
@@ -29,7 +47,7 @@ public class PaymentEventProducer {
             CompletableFuture<SendResult<String, PaymentEvent>> future =
                     kafkaTemplate.send(paymentEventsTopic, key, event);
 
-            future.whenComplete((r, e) -> {
+            return future.whenComplete((r, e) -> {
                 if (e != null) {
                     log.error("Error while sending payment event to Kafka for orderId={}: {}", event.orderId() ,e.getMessage());
                 } else {
@@ -39,10 +57,28 @@ public class PaymentEventProducer {
                             r.getRecordMetadata().offset()
                     );
                 }
-            });
+            }).thenApply(r -> null);
         } catch (Exception e) {
             log.error("Error sending event for orderId={}: {}", event.orderId(), e.getMessage());
             throw new RuntimeException("Failed to send payment event", e);
         }
     }
+
+    /**
+     * Send several events and flush once, so they leave the producer in as few requests as possible
+     * @param events payment events
+     */
+    public void sendPaymentEvents(List<PaymentEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (outboxEnabled) {
+            log.debug("{} payment events are stored in outbox, published by relay", events.size());
+            return;
+        }
+
+        log.info("Sending {} payment events to Kafka", events.size());
+        events.forEach(this::sendPaymentEvent);
+        kafkaTemplate.flush();
+    }
 }
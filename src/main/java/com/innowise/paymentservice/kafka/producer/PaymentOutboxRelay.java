@@ -0,0 +1,129 @@
+package com.innowise.paymentservice.kafka.producer;
+
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.entity.OutboxEvent;
+import com.innowise.paymentservice.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes outbox entries to Kafka in insertion order and deletes them once the broker confirms
+ * Only the instance holding the relay lease publishes, so entries are not sent twice by different pods
+ * A batch is awaited for at most the send timeout, the lease must outlast it and the delete of delivered entries
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "payment.outbox.enabled", havingValue = "true")
+public class PaymentOutboxRelay {
+
+    private static final String LEASE_COLLECTION = "payment_outbox_lease";
+    private static final String LEASE_ID = "relay";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, PaymentEvent> outboxKafkaTemplate;
+    private final MongoTemplate mongoTemplate;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${kafka.topics.payment-events}")
+    private String paymentEventsTopic;
+
+    @Value("${payment.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payment.outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${payment.outbox.relay.lease-ms:30000}")
+    private long leaseMs;
+
+    @PostConstruct
+    void checkLease() {
+        if (leaseMs <= sendTimeoutMs) {
+            throw new IllegalStateException("payment.outbox.relay.lease-ms must be longer than send-timeout-ms, got "
+                    + leaseMs + " <= " + sendTimeoutMs);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        if (!acquireLease()) {
+            return;
+        }
+
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findByOrderByIdAsc(PageRequest.of(0, batchSize));
+            if (batch.isEmpty() || publish(batch) < batch.size()) {
+                return;
+            }
+        } while (batch.size() == batchSize && acquireLease());
+    }
+
+    private int publish(List<OutboxEvent> batch) {
+        List<CompletableFuture<SendResult<String, PaymentEvent>>> futures = batch.stream()
+                .map(entry -> outboxKafkaTemplate.send(paymentEventsTopic, entry.getKey(), entry.getEvent()))
+                .toList();
+
+        // one deadline for the whole batch, waiting per entry could hold the batch past the lease
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<String> delivered = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                delivered.add(batch.get(i).getId());
+            } catch (ExecutionException | TimeoutException e) {
+                log.error("Error while relaying payment event for orderId={}: {}",
+                        batch.get(i).getKey(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        outboxEventRepository.deleteAllById(delivered);
+        log.debug("Relayed payment events: delivered={}, batch={}", delivered.size(), batch.size());
+        return delivered.size();
+    }
+
+    private boolean acquireLease() {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID).orOperator(
+                Criteria.where("owner").is(instanceId),
+                Criteria.where("expires_at").lt(now)
+        ));
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("expires_at", now.plusMillis(leaseMs));
+
+        try {
+            mongoTemplate.upsert(query, update, LEASE_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.innowise.paymentservice.kafka.serialization;
+
+/**
+ * Field layout of one event type in the compact format
+ * A message is the schema version byte followed by the fields written by the codec of that version
+ * @param <T> event type
+ */
+public interface CompactEventCodec<T> {
+
+    /**
+     * Highest schema version, JSON never starts with a byte this low, see {@link CompactEventDeserializer}
+     */
+    int MAX_VERSION = 0x08;
+
+    /**
+     * @return schema version written by this codec, from 1 to {@link #MAX_VERSION}
+     */
+    int version();
+
+    void write(T event, CompactOutput out);
+
+    T read(CompactInput in);
+}
@@ -0,0 +1,63 @@
+package com.innowise.paymentservice.kafka.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Reads events in both formats whatever the topic, so producers can switch a topic to the compact format
+ * while older JSON messages are still being consumed
+ * JSON text starts with '{' or whitespace, never with a byte below tab, such a byte is a compact schema version
+ * @param <T> event type
+ */
+public class CompactEventDeserializer<T> implements Deserializer<T> {
+
+    private final CompactEventCodec<T> codec;
+    private final Deserializer<T> jsonDeserializer;
+
+    public CompactEventDeserializer(CompactEventCodec<T> codec, Deserializer<T> jsonDeserializer) {
+        this.codec = codec;
+        this.jsonDeserializer = jsonDeserializer;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (!isCompact(data)) {
+            return jsonDeserializer.deserialize(topic, data);
+        }
+        return decode(data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (!isCompact(data)) {
+            return jsonDeserializer.deserialize(topic, headers, data);
+        }
+        return decode(data);
+    }
+
+    public T decode(byte[] data) {
+        int version = data[0];
+        if (version != codec.version()) {
+            throw new SerializationException("Unsupported compact schema version " + version
+                    + ", this reader supports " + codec.version());
+        }
+        return codec.read(new CompactInput(data, 1));
+    }
+
+    private static boolean isCompact(byte[] data) {
+        return data != null && data.length > 0 && data[0] >= 1 && data[0] <= CompactEventCodec.MAX_VERSION;
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.innowise.paymentservice.kafka.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes events of the configured topics in the compact format and every other topic with the JSON serializer
+ * Compact messages carry no type headers, readers detect the format by the first byte
+ * @param <T> event type
+ */
+public class CompactEventSerializer<T> implements Serializer<T> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final CompactEventCodec<T> codec;
+    private final Serializer<T> jsonSerializer;
+    private final Set<String> compactTopics;
+
+    public CompactEventSerializer(CompactEventCodec<T> codec, Serializer<T> jsonSerializer, Set<String> compactTopics) {
+        this.codec = codec;
+        this.jsonSerializer = jsonSerializer;
+        this.compactTopics = Set.copyOf(compactTopics);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null || !compactTopics.contains(topic)) {
+            return jsonSerializer.serialize(topic, data);
+        }
+        return encode(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data == null || !compactTopics.contains(topic)) {
+            return jsonSerializer.serialize(topic, headers, data);
+        }
+        return encode(data);
+    }
+
+    /**
+     * Schema version byte followed by the fields
+     */
+    public byte[] encode(T data) {
+        CompactOutput out = new CompactOutput(INITIAL_CAPACITY);
+        out.writeByte(codec.version());
+        try {
+            codec.write(data, out);
+        } catch (ArithmeticException e) {
+            throw new SerializationException("Can't write " + data + " in the compact format", e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
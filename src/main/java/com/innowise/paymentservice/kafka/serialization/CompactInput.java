@@ -0,0 +1,78 @@
+package com.innowise.paymentservice.kafka.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Reader of the compact event format, see {@link CompactOutput}
+ */
+public final class CompactInput {
+
+    private static final long MICROS_PER_SECOND = 1_000_000;
+    private static final int NANOS_PER_MICRO = 1_000;
+
+    private final byte[] data;
+    private int position;
+
+    public CompactInput(byte[] data, int position) {
+        this.data = data;
+        this.position = position;
+    }
+
+    public int readByte() {
+        require(1);
+        return data[position++] & 0xFF;
+    }
+
+    public byte[] readBytes(int length) {
+        require(length);
+        byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+        position += length;
+        return bytes;
+    }
+
+    public long readVarLong() {
+        long zigzag = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new SerializationException("Malformed varint at position " + position);
+    }
+
+    public String readString() {
+        int length = Math.toIntExact(readVarLong());
+        require(length);
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public BigDecimal readDecimal() {
+        int scale = Math.toIntExact(readVarLong());
+        return BigDecimal.valueOf(readVarLong(), scale);
+    }
+
+    public LocalDateTime readEpochMicros() {
+        long micros = readVarLong();
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, MICROS_PER_SECOND),
+                (int) Math.floorMod(micros, MICROS_PER_SECOND) * NANOS_PER_MICRO,
+                ZoneOffset.UTC
+        );
+    }
+
+    private void require(int length) {
+        if (length < 0 || position + length > data.length) {
+            throw new SerializationException("Compact event truncated at position " + position);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.innowise.paymentservice.kafka.serialization;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Growable buffer for the compact event format
+ * Integers are zigzag varints, so small ids take one or two bytes whatever their sign
+ */
+public final class CompactOutput {
+
+    private static final long MICROS_PER_SECOND = 1_000_000;
+    private static final int NANOS_PER_MICRO = 1_000;
+
+    private byte[] buffer;
+    private int size;
+
+    public CompactOutput(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    public void writeVarLong(long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        ensureCapacity(10);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        buffer[size++] = (byte) zigzag;
+    }
+
+    /**
+     * Length prefixed UTF-8
+     */
+    public void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        writeBytes(bytes);
+    }
+
+    /**
+     * Amount as minor units and their scale, 100.25 is 10025 with scale 2, read back with the same scale
+     * @throws ArithmeticException if the unscaled value does not fit a long
+     */
+    public void writeDecimal(BigDecimal value) {
+        writeVarLong(value.scale());
+        writeVarLong(value.unscaledValue().longValueExact());
+    }
+
+    /**
+     * Wall clock time as microseconds since 1970-01-01T00:00, nanoseconds below a microsecond are dropped
+     */
+    public void writeEpochMicros(LocalDateTime value) {
+        writeVarLong(value.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + value.getNano() / NANOS_PER_MICRO);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.innowise.paymentservice.kafka.serialization;
+
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+
+/**
+ * Version 1: field presence bits, orderId, userId, totalAmount, event
+ * Absent fields are null and take no bytes
+ */
+public class OrderCreatedEventCodec implements CompactEventCodec<OrderCreatedEvent> {
+
+    private static final int VERSION = 1;
+
+    private static final int ORDER_ID = 1;
+    private static final int USER_ID = 1 << 1;
+    private static final int TOTAL_AMOUNT = 1 << 2;
+    private static final int EVENT = 1 << 3;
+
+    @Override
+    public int version() {
+        return VERSION;
+    }
+
+    @Override
+    public void write(OrderCreatedEvent event, CompactOutput out) {
+        int present = (event.orderId() != null ? ORDER_ID : 0)
+                | (event.userId() != null ? USER_ID : 0)
+                | (event.totalAmount() != null ? TOTAL_AMOUNT : 0)
+                | (event.event() != null ? EVENT : 0);
+        out.writeByte(present);
+        if (event.orderId() != null) {
+            out.writeVarLong(event.orderId());
+        }
+        if (event.userId() != null) {
+            out.writeVarLong(event.userId());
+        }
+        if (event.totalAmount() != null) {
+            out.writeDecimal(event.totalAmount());
+        }
+        if (event.event() != null) {
+            out.writeString(event.event());
+        }
+    }
+
+    @Override
+    public OrderCreatedEvent read(CompactInput in) {
+        int present = in.readByte();
+        return OrderCreatedEvent.builder()
+                .orderId((present & ORDER_ID) != 0 ? in.readVarLong() : null)
+                .userId((present & USER_ID) != 0 ? in.readVarLong() : null)
+                .totalAmount((present & TOTAL_AMOUNT) != 0 ? in.readDecimal() : null)
+                .event((present & EVENT) != 0 ? in.readString() : null)
+                .build();
+    }
+}
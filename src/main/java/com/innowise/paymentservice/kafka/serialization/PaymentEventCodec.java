@@ -0,0 +1,125 @@
+package com.innowise.paymentservice.kafka.serialization;
+
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import org.apache.kafka.common.errors.SerializationException;
+import org.bson.types.ObjectId;
+
+import java.util.Locale;
+
+/**
+ * Version 1: field presence bits, paymentId, orderId, userId, status, paymentAmount, timestamp, eventType
+ * Payment ids that are ObjectIds take their 12 raw bytes, any other id is written as a string
+ * Absent fields are null and take no bytes
+ */
+public class PaymentEventCodec implements CompactEventCodec<PaymentEvent> {
+
+    private static final int VERSION = 1;
+
+    private static final int PAYMENT_ID = 1;
+    private static final int ORDER_ID = 1 << 1;
+    private static final int USER_ID = 1 << 2;
+    private static final int STATUS = 1 << 3;
+    private static final int PAYMENT_AMOUNT = 1 << 4;
+    private static final int TIMESTAMP = 1 << 5;
+    private static final int EVENT_TYPE = 1 << 6;
+    private static final int PAYMENT_ID_IS_OBJECT_ID = 1 << 7;
+
+    private static final int OBJECT_ID_BYTES = 12;
+
+    /**
+     * Status codes are part of the wire format, new statuses are appended and never reordered
+     */
+    private static final PaymentStatus[] STATUS_CODES = {
+            PaymentStatus.PENDING,
+            PaymentStatus.PROCESSING,
+            PaymentStatus.SUCCESS,
+            PaymentStatus.FAILED,
+            PaymentStatus.CANCELLED
+    };
+
+    @Override
+    public int version() {
+        return VERSION;
+    }
+
+    @Override
+    public void write(PaymentEvent event, CompactOutput out) {
+        boolean objectId = isObjectId(event.paymentId());
+        int present = (event.paymentId() != null ? PAYMENT_ID : 0)
+                | (objectId ? PAYMENT_ID_IS_OBJECT_ID : 0)
+                | (event.orderId() != null ? ORDER_ID : 0)
+                | (event.userId() != null ? USER_ID : 0)
+                | (event.status() != null ? STATUS : 0)
+                | (event.paymentAmount() != null ? PAYMENT_AMOUNT : 0)
+                | (event.timestamp() != null ? TIMESTAMP : 0)
+                | (event.eventType() != null ? EVENT_TYPE : 0);
+        out.writeByte(present);
+        if (objectId) {
+            out.writeBytes(new ObjectId(event.paymentId()).toByteArray());
+        } else if (event.paymentId() != null) {
+            out.writeString(event.paymentId());
+        }
+        if (event.orderId() != null) {
+            out.writeVarLong(event.orderId());
+        }
+        if (event.userId() != null) {
+            out.writeVarLong(event.userId());
+        }
+        if (event.status() != null) {
+            out.writeByte(statusCode(event.status()));
+        }
+        if (event.paymentAmount() != null) {
+            out.writeDecimal(event.paymentAmount());
+        }
+        if (event.timestamp() != null) {
+            out.writeEpochMicros(event.timestamp());
+        }
+        if (event.eventType() != null) {
+            out.writeString(event.eventType());
+        }
+    }
+
+    @Override
+    public PaymentEvent read(CompactInput in) {
+        int present = in.readByte();
+        String paymentId = null;
+        if ((present & PAYMENT_ID_IS_OBJECT_ID) != 0) {
+            paymentId = new ObjectId(in.readBytes(OBJECT_ID_BYTES)).toHexString();
+        } else if ((present & PAYMENT_ID) != 0) {
+            paymentId = in.readString();
+        }
+        return PaymentEvent.builder()
+                .paymentId(paymentId)
+                .orderId((present & ORDER_ID) != 0 ? in.readVarLong() : null)
+                .userId((present & USER_ID) != 0 ? in.readVarLong() : null)
+                .status((present & STATUS) != 0 ? status(in.readByte()) : null)
+                .paymentAmount((present & PAYMENT_AMOUNT) != 0 ? in.readDecimal() : null)
+                .timestamp((present & TIMESTAMP) != 0 ? in.readEpochMicros() : null)
+                .eventType((present & EVENT_TYPE) != 0 ? in.readString() : null)
+                .build();
+    }
+
+    /**
+     * Only lower case hex round trips, ObjectId.toHexString never returns upper case
+     */
+    private static boolean isObjectId(String paymentId) {
+        return paymentId != null && ObjectId.isValid(paymentId) && paymentId.equals(paymentId.toLowerCase(Locale.ROOT));
+    }
+
+    private static int statusCode(PaymentStatus status) {
+        for (int code = 0; code < STATUS_CODES.length; code++) {
+            if (STATUS_CODES[code] == status) {
+                return code;
+            }
+        }
+        throw new SerializationException("No wire code for payment status " + status);
+    }
+
+    private static PaymentStatus status(int code) {
+        if (code >= STATUS_CODES.length) {
+            throw new SerializationException("Unknown payment status code " + code);
+        }
+        return STATUS_CODES[code];
+    }
+}
@@ -0,0 +1,18 @@
+package com.innowise.paymentservice.repository;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of an unordered bulk insert
+ * @param duplicateOrderIds orders rejected by the unique order_id index
+ * @param failedOrderIds orders rejected by any other write error, with the error message
+ */
+public record BulkInsertResult(
+        Set<Long> duplicateOrderIds,
+        Map<Long, String> failedOrderIds
+) {
+    public static BulkInsertResult empty() {
+        return new BulkInsertResult(Set.of(), Map.of());
+    }
+}
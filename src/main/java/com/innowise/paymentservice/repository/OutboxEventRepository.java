@@ -0,0 +1,14 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends MongoRepository<OutboxEvent, String> {
+
+    List<OutboxEvent> findByOrderByIdAsc(Pageable pageable);
+}
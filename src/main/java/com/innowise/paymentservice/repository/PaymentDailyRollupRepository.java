@@ -0,0 +1,36 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.dto.PaymentSummaryAggregationResult;
+import com.innowise.paymentservice.entity.PaymentDailyRollup;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.Optional;
+
+@Repository
+public interface PaymentDailyRollupRepository
+        extends MongoRepository<PaymentDailyRollup, String>, PaymentDailyRollupRepositoryCustom {
+
+    /**
+     * Average is left out, it is derived from total and count once rollups are combined with raw edge days
+     */
+    String SUMMARY_GROUP_STAGE = "{ '$group': { '_id': null, "
+            + "'totalAmount': { '$sum': '$total_amount' }, "
+            + "'paymentsCount': { '$sum': '$payments_count' }, "
+            + "'minAmount': { '$min': '$min_amount' }, "
+            + "'maxAmount': { '$max': '$max_amount' } } }";
+
+    @Aggregation(pipeline = {
+            "{ '$match': { 'user_id': ?0, 'day': { '$gte': ?1, '$lt': ?2 } } }",
+            SUMMARY_GROUP_STAGE
+    })
+    Optional<PaymentSummaryAggregationResult> summarizeByUserIdAndDays(Long userId, Date fromDay, Date toDay);
+
+    @Aggregation(pipeline = {
+            "{ '$match': { 'day': { '$gte': ?0, '$lt': ?1 } } }",
+            SUMMARY_GROUP_STAGE
+    })
+    Optional<PaymentSummaryAggregationResult> summarizeForDays(Date fromDay, Date toDay);
+}
@@ -0,0 +1,22 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+
+import java.util.List;
+
+public interface PaymentDailyRollupRepositoryCustom {
+
+    /**
+     * Add new payments to the rollups of their user, day and status with a single unordered bulk of upserts
+     * @param payments inserted payments
+     */
+    void addAll(List<Payment> payments);
+
+    /**
+     * Move payment from the rollup of its previous status to the rollup of its current one
+     * @param payment payment with its current status
+     * @param from previous status
+     */
+    void moveStatus(Payment payment, PaymentStatus from);
+}
@@ -0,0 +1,66 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.entity.PaymentDailyRollup;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Upserts match the unique user_id/day/status index by equality, so the server retries concurrent inserts of the same rollup
+ */
+@RequiredArgsConstructor
+public class PaymentDailyRollupRepositoryCustomImpl implements PaymentDailyRollupRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void addAll(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PaymentDailyRollup.class);
+        payments.forEach(payment -> bulk.upsert(rollupOf(payment, payment.getStatus()), add(payment.getPaymentAmount())));
+        bulk.execute();
+    }
+
+    @Override
+    public void moveStatus(Payment payment, PaymentStatus from) {
+        if (from == payment.getStatus()) {
+            return;
+        }
+
+        // the source rollup was created when the payment was added, it is never created from a decrement
+        BigDecimal amount = payment.getPaymentAmount();
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PaymentDailyRollup.class)
+                .updateOne(rollupOf(payment, from), new Update()
+                        .inc("totalAmount", new Decimal128(amount.negate()))
+                        .inc("paymentsCount", -1L))
+                .upsert(rollupOf(payment, payment.getStatus()), add(amount))
+                .execute();
+    }
+
+    private static Query rollupOf(Payment payment, PaymentStatus status) {
+        return Query.query(Criteria.where("userId").is(payment.getUserId())
+                .and("day").is(payment.getTimestamp().toLocalDate().atStartOfDay())
+                .and("status").is(status));
+    }
+
+    private static Update add(BigDecimal amount) {
+        Decimal128 value = new Decimal128(amount);
+        return new Update()
+                .inc("totalAmount", value)
+                .inc("paymentsCount", 1L)
+                .min("minAmount", value)
+                .max("maxAmount", value);
+    }
+}
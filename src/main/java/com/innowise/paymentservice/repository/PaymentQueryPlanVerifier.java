@@ -0,0 +1,208 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.dto.PaymentCursor;
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Explains every query shape of PaymentRepository once the application is ready and reports collection scans
+ * Shapes use placeholder values of the stored types, the planner picks indexes by shape and not by value
+ * Queries of PaymentRepositoryCustomImpl are taken from its query factories and mapped like MongoTemplate maps them,
+ * derived and annotated queries of PaymentRepository are listed here, keep them in sync when one is added
+ */
+@Slf4j
+@Component
+public class PaymentQueryPlanVerifier {
+
+    private static final Date DATE = new Date(0);
+    private static final ObjectId ID = new ObjectId("000000000000000000000000");
+    private static final PaymentCursor CURSOR = new PaymentCursor(LocalDateTime.of(1970, 1, 1, 0, 0), ID.toHexString());
+
+    static final List<QueryShape> REPOSITORY_QUERY_SHAPES = List.of(
+            new QueryShape("findByOrderId", new Document("order_id", 0L), null),
+            new QueryShape("existsByOrderId", new Document("order_id", 0L), null),
+            new QueryShape("findOrderIdsByOrderIdIn",
+                    new Document("order_id", new Document("$in", List.of(0L, 1L))), null),
+            new QueryShape("findByUserId", new Document("user_id", 0L), null),
+            new QueryShape("findByStatus", new Document("status", "SUCCESS"), null),
+            new QueryShape("countByStatusAndTimestampBefore",
+                    new Document("status", "PROCESSING").append("timestamp", new Document("$lt", DATE)), null),
+            new QueryShape("findFirstByOrderByTimestampAsc", new Document(), new Document("timestamp", 1)),
+            new QueryShape("findFirstByOrderByTimestampDesc", new Document(), new Document("timestamp", -1)),
+            new QueryShape("summarizeByUserIdAndDateRange", new Document("user_id", 0L)
+                    .append("timestamp", new Document("$gte", DATE).append("$lte", DATE)), null),
+            new QueryShape("summarizeForDateRange",
+                    new Document("timestamp", new Document("$gte", DATE).append("$lte", DATE)), null),
+            new QueryShape("rollUpDaily",
+                    new Document("timestamp", new Document("$gte", DATE).append("$lt", DATE)), null)
+    );
+
+    static final Map<String, Query> CUSTOM_QUERIES = customQueries();
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final boolean failOnCollectionScan;
+
+    public PaymentQueryPlanVerifier(
+            MongoTemplate mongoTemplate,
+            @Value("${payment.index-verification.enabled:true}") boolean enabled,
+            @Value("${payment.index-verification.fail-on-collection-scan:false}") boolean failOnCollectionScan
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.failOnCollectionScan = failOnCollectionScan;
+    }
+
+    /**
+     * Verification only reports unless fail-on-collection-scan is set,
+     * an explain that could not run is logged and does not stop the application
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        List<String> collectionScans;
+        try {
+            collectionScans = verify();
+        } catch (RuntimeException e) {
+            if (failOnCollectionScan) {
+                throw e;
+            }
+            log.warn("Payment query plans could not be verified: {}", e.getMessage(), e);
+            return;
+        }
+        if (!collectionScans.isEmpty() && failOnCollectionScan) {
+            throw new IllegalStateException("Payment queries fall back to a collection scan: " + collectionScans);
+        }
+    }
+
+    /**
+     * Explain all query shapes with the queryPlanner verbosity, nothing is executed
+     * @return names of the shapes whose winning plan scans the whole collection
+     */
+    public List<String> verify() {
+        String collection = mongoTemplate.getCollectionName(Payment.class);
+        List<String> collectionScans = new ArrayList<>();
+
+        for (QueryShape shape : queryShapes()) {
+            Document explain = mongoTemplate.getDb().runCommand(explainCommand(collection, shape));
+            Document queryPlanner = explain.get("queryPlanner", Document.class);
+            Set<String> indexes = new TreeSet<>();
+            boolean collectionScan = queryPlanner != null
+                    && inspectPlan(queryPlanner.get("winningPlan"), indexes);
+
+            if (collectionScan && shape.scansAll()) {
+                log.info("Query {} on {} reads the whole collection by design", shape.name(), collection);
+            } else if (collectionScan) {
+                log.warn("Query {} on {} uses a collection scan, filter={}, sort={}",
+                        shape.name(), collection, shape.filter().toJson(), shape.sort());
+                collectionScans.add(shape.name());
+            } else {
+                log.info("Query {} on {} uses indexes {}", shape.name(), collection, indexes);
+            }
+        }
+        return collectionScans;
+    }
+
+    /**
+     * @return repository shapes followed by the custom queries mapped to stored field names
+     */
+    List<QueryShape> queryShapes() {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Payment.class);
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+
+        List<QueryShape> shapes = new ArrayList<>(REPOSITORY_QUERY_SHAPES);
+        CUSTOM_QUERIES.forEach((name, query) -> {
+            Document sort = query.getSortObject().isEmpty()
+                    ? null : queryMapper.getMappedSort(query.getSortObject(), entity);
+            Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+            shapes.add(new QueryShape(name, filter, sort, filter.isEmpty()));
+        });
+        return shapes;
+    }
+
+    private static Map<String, Query> customQueries() {
+        Map<String, Query> queries = new LinkedHashMap<>();
+        queries.put("insertIfAbsent", PaymentRepositoryCustomImpl.orderIdQuery(0L));
+        queries.put("updateStatus", PaymentRepositoryCustomImpl.statusTransitionQuery(
+                ID.toHexString(), PaymentStatus.PROCESSING));
+        queries.put("findResponsesByUserId", PaymentRepositoryCustomImpl.userIdQuery(0L));
+        queries.put("findResponsesByStatus", PaymentRepositoryCustomImpl.statusQuery(PaymentStatus.SUCCESS));
+        queries.put("findSliceByUserId", PaymentRepositoryCustomImpl.sliceQuery(
+                PaymentRepositoryCustomImpl.userIdQuery(0L), CURSOR, 1));
+        queries.put("findSliceByStatus", PaymentRepositoryCustomImpl.sliceQuery(
+                PaymentRepositoryCustomImpl.statusQuery(PaymentStatus.SUCCESS), CURSOR, 1));
+        // the full export reads every payment, its shape is explained but not reported
+        queries.put("streamResponses", PaymentRepositoryCustomImpl.streamQuery(null, null));
+        queries.put("streamResponsesByUserId", PaymentRepositoryCustomImpl.streamQuery(0L, null));
+        queries.put("streamResponsesByStatus", PaymentRepositoryCustomImpl.streamQuery(null, PaymentStatus.SUCCESS));
+        queries.put("streamResponsesByUserIdAndStatus",
+                PaymentRepositoryCustomImpl.streamQuery(0L, PaymentStatus.SUCCESS));
+        return Collections.unmodifiableMap(queries);
+    }
+
+    private static Document explainCommand(String collection, QueryShape shape) {
+        Document find = new Document("find", collection).append("filter", shape.filter());
+        if (shape.sort() != null) {
+            find.append("sort", shape.sort());
+        }
+        return new Document("explain", find).append("verbosity", "queryPlanner");
+    }
+
+    /**
+     * Walk the plan tree, classic plans nest stages under inputStage(s), slot based ones under queryPlan
+     * @return true if any stage is a collection scan
+     */
+    private static boolean inspectPlan(Object node, Set<String> indexes) {
+        boolean collectionScan = false;
+        if (node instanceof Document stage) {
+            if ("COLLSCAN".equals(stage.get("stage"))) {
+                collectionScan = true;
+            }
+            if (stage.get("indexName") instanceof String indexName) {
+                indexes.add(indexName);
+            }
+            for (Object child : stage.values()) {
+                collectionScan |= inspectPlan(child, indexes);
+            }
+        } else if (node instanceof List<?> children) {
+            for (Object child : children) {
+                collectionScan |= inspectPlan(child, indexes);
+            }
+        }
+        return collectionScan;
+    }
+
+    /**
+     * @param scansAll whether the query reads the whole collection by design, its collection scan is not reported
+     */
+    record QueryShape(String name, Document filter, Document sort, boolean scansAll) {
+
+        QueryShape(String name, Document filter, Document sort) {
+            this(name, filter, sort, false);
+        }
+    }
+}
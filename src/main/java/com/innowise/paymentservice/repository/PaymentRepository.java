@@ -1,27 +1,41 @@
 package com.innowise.paymentservice.repository;
 
-import com.innowise.paymentservice.dto.TotalAmountAggregationResult;
+import com.innowise.paymentservice.dto.PaymentSummaryAggregationResult;
 import com.innowise.paymentservice.entity.Payment;
 import com.innowise.paymentservice.enums.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PaymentRepository extends MongoRepository<Payment, String> {
+public interface PaymentRepository extends MongoRepository<Payment, String>, PaymentRepositoryCustom {
+
+    /**
+     * Totals computed in one pass over the matched payments, only the group result leaves the server
+     */
+    String SUMMARY_GROUP_STAGE = "{ '$group': { '_id': null, "
+            + "'totalAmount': { '$sum': '$payment_amount' }, "
+            + "'paymentsCount': { '$sum': 1 }, "
+            + "'minAmount': { '$min': '$payment_amount' }, "
+            + "'maxAmount': { '$max': '$payment_amount' }, "
+            + "'averageAmount': { '$avg': '$payment_amount' } } }";
 
     Optional<Payment> findByOrderId(Long orderId);
 
     boolean existsByOrderId(Long id);
 
+    @Query(value = "{ 'order_id': { '$in': ?0 } }", fields = "{ 'order_id': 1 }")
+    List<Payment> findOrderIdsByOrderIdIn(Collection<Long> orderIds);
+
     List<Payment> findByUserId(Long userId);
 
     Page<Payment> findByUserId(Long userId, Pageable pageable);
@@ -30,15 +44,41 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
 
     Page<Payment> findByStatus(PaymentStatus status, Pageable pageable);
 
+    long countByStatusAndTimestampBefore(PaymentStatus status, LocalDateTime timestamp);
+
+    Optional<Payment> findFirstByOrderByTimestampAsc();
+
+    Optional<Payment> findFirstByOrderByTimestampDesc();
+
     @Aggregation(pipeline = {
             "{ '$match': { 'user_id': ?0, 'timestamp': { '$gte': ?1, '$lte': ?2 } } }",
-            "{ '$group': { '_id': null, 'totalAmount': { '$sum': '$payment_amount' } } }"
+            SUMMARY_GROUP_STAGE
     })
-    Optional<TotalAmountAggregationResult> getTotalAmountByUserIdAndDateRange(Long userId, Date from, Date to);
+    Optional<PaymentSummaryAggregationResult> summarizeByUserIdAndDateRange(Long userId, Date from, Date to);
 
     @Aggregation(pipeline = {
             "{ '$match': { 'timestamp': { '$gte': ?0, '$lte': ?1 } } }",
-            "{ '$group': { '_id': null, 'totalAmount': { '$sum': '$payment_amount' } } }"
+            SUMMARY_GROUP_STAGE
+    })
+    Optional<PaymentSummaryAggregationResult> summarizeForDateRange(Date from, Date to);
+
+    /**
+     * Recompute daily rollups of payments in [from, to) on the server and replace the stored ones
+     * Range must start and end at day boundaries of the given time zone
+     */
+    @Aggregation(pipeline = {
+            "{ '$match': { 'timestamp': { '$gte': ?0, '$lt': ?1 } } }",
+            "{ '$group': { '_id': { 'user_id': '$user_id', "
+                    + "'day': { '$dateTrunc': { 'date': '$timestamp', 'unit': 'day', 'timezone': ?2 } }, "
+                    + "'status': '$status' }, "
+                    + "'total_amount': { '$sum': '$payment_amount' }, "
+                    + "'payments_count': { '$sum': 1 }, "
+                    + "'min_amount': { '$min': '$payment_amount' }, "
+                    + "'max_amount': { '$max': '$payment_amount' } } }",
+            "{ '$project': { '_id': 0, 'user_id': '$_id.user_id', 'day': '$_id.day', 'status': '$_id.status', "
+                    + "'total_amount': 1, 'payments_count': 1, 'min_amount': 1, 'max_amount': 1 } }",
+            "{ '$merge': { 'into': 'payment_daily_rollups', 'on': ['user_id', 'day', 'status'], "
+                    + "'whenMatched': 'replace', 'whenNotMatched': 'insert' } }"
     })
-    Optional<TotalAmountAggregationResult> getTotalAmountForDateRange(Date from, Date to);
+    void rollUpDaily(Date from, Date to, String timezone);
 }
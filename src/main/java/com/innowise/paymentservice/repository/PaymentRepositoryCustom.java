@@ -0,0 +1,87 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.dto.PaymentCursor;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Insert all payments with a single unordered bulk write
+     * Payments must already have their ids assigned
+     * @param payments payments to insert
+     * @return orders that were not inserted
+     */
+    BulkInsertResult insertAllUnordered(List<Payment> payments);
+
+    /**
+     * Insert payment unless one with the same order id exists, in a single findAndModify upsert
+     * Payment must already have its id assigned
+     * @param payment payment to insert
+     * @return existing payment, empty if the given one was inserted
+     */
+    Optional<Payment> insertIfAbsent(Payment payment);
+
+    /**
+     * Move payment from one status to another in a single findAndModify
+     * @param id payment id
+     * @param from expected current status
+     * @param to new status
+     * @return updated payment, empty if the payment is not in the expected status
+     */
+    Optional<Payment> updateStatus(String id, PaymentStatus from, PaymentStatus to);
+
+    /**
+     * Read user payments as responses, decoded from the projected fields without building entities
+     * @param userId user id
+     * @return users payments
+     */
+    List<PaymentResponse> findResponsesByUserId(Long userId);
+
+    /**
+     * Read payments with status as responses, decoded from the projected fields without building entities
+     * @param status payment status
+     * @return payments with status
+     */
+    List<PaymentResponse> findResponsesByStatus(PaymentStatus status);
+
+    /**
+     * Seek user payments in (timestamp, id) order, served by the user_id/timestamp/_id index without skipping
+     * @param userId user id
+     * @param after position after the last payment of the previous slice, null for the first slice
+     * @param limit max number of payments
+     * @return payments after the cursor
+     */
+    List<PaymentResponse> findSliceByUserId(Long userId, PaymentCursor after, int limit);
+
+    /**
+     * Seek payments with status in (timestamp, id) order, served by the status/timestamp/_id index without skipping
+     * @param status payment status
+     * @param after position after the last payment of the previous slice, null for the first slice
+     * @param limit max number of payments
+     * @return payments after the cursor
+     */
+    List<PaymentResponse> findSliceByStatus(PaymentStatus status, PaymentCursor after, int limit);
+
+    /**
+     * Stream payments as responses from a server side cursor, fetched in fixed size batches instead of all at once
+     * The stream holds the cursor open and must be closed by the caller
+     * @param userId user id, null for any user
+     * @param status payment status, null for any status
+     * @return payments matching both filters in natural order
+     */
+    Stream<PaymentResponse> streamResponses(Long userId, PaymentStatus status);
+
+    /**
+     * Read the order id of every payment with a covered scan of the unique order_id index
+     * @param action called once per order id, in index order
+     * @return number of order ids read
+     */
+    long forEachOrderId(LongConsumer action);
+}
@@ -0,0 +1,244 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.dto.PaymentCursor;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Projections;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Slf4j
+public class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final int ORDER_ID_BATCH_SIZE = 10_000;
+    private static final Document ORDER_ID_INDEX = new Document(PaymentResponseCodec.ORDER_ID, 1);
+
+    private static final CodecRegistry RESPONSE_CODECS = CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(new PaymentResponseCodec()),
+            MongoClientSettings.getDefaultCodecRegistry()
+    );
+    private static final Bson RESPONSE_FIELDS = Projections.include(
+            PaymentResponseCodec.ORDER_ID,
+            PaymentResponseCodec.USER_ID,
+            PaymentResponseCodec.STATUS,
+            PaymentResponseCodec.TIMESTAMP,
+            PaymentResponseCodec.PAYMENT_AMOUNT
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final QueryMapper queryMapper;
+
+    public PaymentRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+    }
+
+    @Override
+    public BulkInsertResult insertAllUnordered(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return BulkInsertResult.empty();
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)
+                    .insert(payments)
+                    .execute();
+            return BulkInsertResult.empty();
+        } catch (BulkOperationException ex) {
+            Set<Long> duplicates = new HashSet<>();
+            Map<Long, String> failed = new HashMap<>();
+
+            ex.getErrors().forEach(error -> {
+                Long orderId = payments.get(error.getIndex()).getOrderId();
+                if (error.getCode() == DUPLICATE_KEY_ERROR_CODE) {
+                    duplicates.add(orderId);
+                } else {
+                    failed.put(orderId, error.getMessage());
+                }
+            });
+
+            log.warn("Bulk insert finished with errors: duplicates={}, failed={}", duplicates.size(), failed.size());
+            return new BulkInsertResult(duplicates, failed);
+        }
+    }
+
+    @Override
+    public Optional<Payment> insertIfAbsent(Payment payment) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(payment, document);
+
+        Update update = new Update();
+        document.forEach(update::setOnInsert);
+
+        Payment existing = mongoTemplate.findAndModify(
+                orderIdQuery(payment.getOrderId()),
+                update,
+                FindAndModifyOptions.options().upsert(true).returnNew(false),
+                Payment.class
+        );
+        return Optional.ofNullable(existing);
+    }
+
+    @Override
+    public Optional<Payment> updateStatus(String id, PaymentStatus from, PaymentStatus to) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                statusTransitionQuery(id, from),
+                Update.update("status", to),
+                FindAndModifyOptions.options().returnNew(true),
+                Payment.class
+        ));
+    }
+
+    @Override
+    public List<PaymentResponse> findResponsesByUserId(Long userId) {
+        return findResponses(userIdQuery(userId));
+    }
+
+    @Override
+    public List<PaymentResponse> findResponsesByStatus(PaymentStatus status) {
+        return findResponses(statusQuery(status));
+    }
+
+    @Override
+    public List<PaymentResponse> findSliceByUserId(Long userId, PaymentCursor after, int limit) {
+        return findResponses(sliceQuery(userIdQuery(userId), after, limit));
+    }
+
+    @Override
+    public List<PaymentResponse> findSliceByStatus(PaymentStatus status, PaymentCursor after, int limit) {
+        return findResponses(sliceQuery(statusQuery(status), after, limit));
+    }
+
+    @Override
+    public Stream<PaymentResponse> streamResponses(Long userId, PaymentStatus status) {
+        Query query = streamQuery(userId, status);
+        MongoCursor<PaymentResponse> cursor = mongoTemplate.execute(Payment.class, collection ->
+                findResponses(collection, query).batchSize(STREAM_BATCH_SIZE).cursor());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .onClose(cursor::close);
+    }
+
+    @Override
+    public long forEachOrderId(LongConsumer action) {
+        return mongoTemplate.execute(Payment.class, collection -> {
+            long count = 0;
+            try (MongoCursor<Document> cursor = collection.find()
+                    .projection(Projections.fields(
+                            Projections.include(PaymentResponseCodec.ORDER_ID), Projections.excludeId()))
+                    .hint(ORDER_ID_INDEX)
+                    .batchSize(ORDER_ID_BATCH_SIZE)
+                    .cursor()) {
+                while (cursor.hasNext()) {
+                    if (cursor.next().get(PaymentResponseCodec.ORDER_ID) instanceof Number orderId) {
+                        action.accept(orderId.longValue());
+                        count++;
+                    }
+                }
+            }
+            return count;
+        });
+    }
+
+    // Queries are built here so PaymentQueryPlanVerifier explains the same shapes the methods above execute
+
+    static Query orderIdQuery(Long orderId) {
+        return Query.query(Criteria.where("orderId").is(orderId));
+    }
+
+    static Query statusTransitionQuery(String id, PaymentStatus from) {
+        return Query.query(Criteria.where("id").is(id).and("status").is(from));
+    }
+
+    static Query userIdQuery(Long userId) {
+        return Query.query(Criteria.where("userId").is(userId));
+    }
+
+    static Query statusQuery(PaymentStatus status) {
+        return Query.query(Criteria.where("status").is(status));
+    }
+
+    /**
+     * @param query filter of the slice
+     * @param after cursor of the previous slice, null for the first one
+     */
+    static Query sliceQuery(Query query, PaymentCursor after, int limit) {
+        query.with(Sort.by(Sort.Order.asc("timestamp"), Sort.Order.asc("id"))).limit(limit);
+        if (after != null) {
+            ObjectId afterId = new ObjectId(after.id());
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("timestamp").gt(after.timestamp()),
+                    Criteria.where("timestamp").is(after.timestamp()).and("id").gt(afterId)
+            ));
+        }
+        return query;
+    }
+
+    /**
+     * @param userId user to export, null for all users
+     * @param status status to export, null for all statuses
+     */
+    static Query streamQuery(Long userId, PaymentStatus status) {
+        Query query = new Query();
+        if (userId != null) {
+            query.addCriteria(Criteria.where("userId").is(userId));
+        }
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        return query;
+    }
+
+    private List<PaymentResponse> findResponses(Query query) {
+        return mongoTemplate.execute(Payment.class, collection ->
+                findResponses(collection, query).into(new ArrayList<>()));
+    }
+
+    /**
+     * Run the query with the response fields projection, documents are decoded by PaymentResponseCodec
+     * The query is mapped the same way MongoTemplate maps it, so criteria use entity property names
+     */
+    private FindIterable<PaymentResponse> findResponses(MongoCollection<Document> collection, Query query) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Payment.class);
+        return collection.withDocumentClass(PaymentResponse.class)
+                .withCodecRegistry(RESPONSE_CODECS)
+                .find(queryMapper.getMappedObject(query.getQueryObject(), entity))
+                .projection(RESPONSE_FIELDS)
+                .sort(queryMapper.getMappedSort(query.getSortObject(), entity))
+                .limit(query.getLimit());
+    }
+}
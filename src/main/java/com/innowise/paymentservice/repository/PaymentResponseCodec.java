@@ -0,0 +1,127 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Reads payment documents straight into the response record, field by field from the BSON stream
+ * Skips the intermediate Document, the Payment entity and the mapper used by MappingMongoConverter
+ * Timestamps use the system default zone, same as the Spring Data conversion of LocalDateTime
+ */
+public class PaymentResponseCodec implements Codec<PaymentResponse> {
+
+    public static final String ID = "_id";
+    public static final String ORDER_ID = "order_id";
+    public static final String USER_ID = "user_id";
+    public static final String STATUS = "status";
+    public static final String TIMESTAMP = "timestamp";
+    public static final String PAYMENT_AMOUNT = "payment_amount";
+
+    @Override
+    public PaymentResponse decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        Long orderId = null;
+        Long userId = null;
+        PaymentStatus status = null;
+        LocalDateTime timestamp = null;
+        BigDecimal amount = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case ID -> id = readId(reader);
+                case ORDER_ID -> orderId = readLong(reader);
+                case USER_ID -> userId = readLong(reader);
+                case STATUS -> status = PaymentStatus.valueOf(reader.readString());
+                case TIMESTAMP -> timestamp = LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(reader.readDateTime()), ZoneId.systemDefault());
+                case PAYMENT_AMOUNT -> amount = readAmount(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new PaymentResponse(id, orderId, userId, status, timestamp, amount);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, PaymentResponse payment, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (payment.id() != null) {
+            writer.writeName(ID);
+            if (ObjectId.isValid(payment.id())) {
+                writer.writeObjectId(new ObjectId(payment.id()));
+            } else {
+                writer.writeString(payment.id());
+            }
+        }
+        if (payment.orderId() != null) {
+            writer.writeInt64(ORDER_ID, payment.orderId());
+        }
+        if (payment.userId() != null) {
+            writer.writeInt64(USER_ID, payment.userId());
+        }
+        if (payment.status() != null) {
+            writer.writeString(STATUS, payment.status().name());
+        }
+        if (payment.timestamp() != null) {
+            writer.writeDateTime(TIMESTAMP,
+                    payment.timestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        if (payment.totalAmount() != null) {
+            writer.writeDecimal128(PAYMENT_AMOUNT, new Decimal128(payment.totalAmount()));
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<PaymentResponse> getEncoderClass() {
+        return PaymentResponse.class;
+    }
+
+    private static String readId(BsonReader reader) {
+        return reader.getCurrentBsonType() == BsonType.OBJECT_ID
+                ? reader.readObjectId().toHexString()
+                : reader.readString();
+    }
+
+    private static Long readLong(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> (long) reader.readInt32();
+            case INT64 -> reader.readInt64();
+            default -> throw new BsonInvalidOperationException(
+                    "Unexpected BSON type " + reader.getCurrentBsonType() + " for a long field");
+        };
+    }
+
+    private static BigDecimal readAmount(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case DECIMAL128 -> reader.readDecimal128().bigDecimalValue();
+            case STRING -> new BigDecimal(reader.readString());
+            case DOUBLE -> BigDecimal.valueOf(reader.readDouble());
+            case INT32 -> BigDecimal.valueOf(reader.readInt32());
+            case INT64 -> BigDecimal.valueOf(reader.readInt64());
+            default -> throw new BsonInvalidOperationException(
+                    "Unexpected BSON type " + reader.getCurrentBsonType() + " for payment amount");
+        };
+    }
+}
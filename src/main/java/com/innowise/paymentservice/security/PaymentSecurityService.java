@@ -1,19 +1,20 @@
 package com.innowise.paymentservice.security;
 
-import com.innowise.paymentservice.repository.PaymentRepository;
+import com.innowise.paymentservice.service.RequestPaymentLookup;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 /**
  * Service for authorization checks
+ * Payments are read through {@link RequestPaymentLookup}, so the endpoint reuses the payment loaded for the check
  */
 @Service("paymentSecurityService")
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentSecurityService {
 
-    private final PaymentRepository paymentRepository;
+    private final RequestPaymentLookup paymentLookup;
 
     public boolean isPaymentOwner(Long orderId, Object userId) {
         if (userId == null) {
@@ -24,9 +25,9 @@ public class PaymentSecurityService {
         try {
             Long userIdLong = userId instanceof Long ? (Long) userId : Long.parseLong(userId.toString());
 
-            return paymentRepository.findByOrderId(orderId)
+            return paymentLookup.find(orderId)
                     .map(payment -> {
-                        boolean isOwner = payment.getUserId().equals(userIdLong);
+                        boolean isOwner = payment.userId().equals(userIdLong);
                         log.debug("Payment ownership check: orderId={}, userId={}, isOwner={}",
                                 orderId, userIdLong, isOwner);
                         return isOwner;
@@ -0,0 +1,165 @@
+package com.innowise.paymentservice.service;
+
+import com.innowise.paymentservice.dto.DltReplayResponse;
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.exception.PaymentAlreadyExistsException;
+import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays ORDER_CREATED events from the DLT through {@link PaymentService#createPayment}
+ * Uses its own consumer group, so every event is replayed once regardless of the DLT handler
+ * Replays events present when it starts, later ones are left for the next replay
+ * Stops on the first event that fails again, so it can be replayed after the cause is fixed
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderEventDltReplayService {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+    private static final int MAX_IDLE_POLLS = 5;
+
+    private final ConsumerFactory<String, OrderCreatedEvent> consumerFactory;
+    private final PaymentService paymentService;
+    private final PaymentEventProducer producer;
+
+    @Value("${kafka.topics.order-events-retry}-dlt")
+    private String orderEventsDltTopic;
+
+    @Value("${spring.kafka.consumer.group-id}-dlt-replay")
+    private String replayGroupId;
+
+    public synchronized DltReplayResponse replay(int maxRecords) {
+        log.info("Replaying up to {} ORDER_CREATED events from {}", maxRecords, orderEventsDltTopic);
+
+        int replayed = 0;
+        int duplicates = 0;
+        int skipped = 0;
+
+        try (Consumer<String, OrderCreatedEvent> consumer = consumerFactory.createConsumer(replayGroupId, null)) {
+            Map<TopicPartition, Long> endOffsets = assignFromCommitted(consumer);
+            int idlePolls = 0;
+
+            while (!endOffsets.isEmpty() && idlePolls < MAX_IDLE_POLLS) {
+                ConsumerRecords<String, OrderCreatedEvent> records = consumer.poll(POLL_TIMEOUT);
+                idlePolls = records.isEmpty() ? idlePolls + 1 : 0;
+
+                for (ConsumerRecord<String, OrderCreatedEvent> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() >= endOffsets.getOrDefault(partition, 0L)) {
+                        // written after the replay started, left for the next one
+                        continue;
+                    }
+                    if (replayed + duplicates + skipped >= maxRecords) {
+                        return result(replayed, duplicates, skipped, null);
+                    }
+
+                    if (record.value() == null) {
+                        log.warn("Skipping unreadable DLT record: partition={}, offset={}",
+                                record.partition(), record.offset());
+                        skipped++;
+                    } else {
+                        try {
+                            if (createOrRepublish(record.value())) {
+                                replayed++;
+                            } else {
+                                duplicates++;
+                            }
+                        } catch (Exception e) {
+                            log.error("Replay failed for orderId={}: {}", record.value().orderId(), e.getMessage());
+                            return result(replayed, duplicates, skipped, e.getMessage());
+                        }
+                    }
+
+                    consumer.commitSync(Map.of(partition, new OffsetAndMetadata(record.offset() + 1)));
+                }
+
+                endOffsets.entrySet().removeIf(end -> consumer.position(end.getKey()) >= end.getValue());
+            }
+        }
+
+        return result(replayed, duplicates, skipped, null);
+    }
+
+    /**
+     * The offset is committed only once the broker confirmed the payment event, a stored payment whose event
+     * may never have been delivered is published again, consumers of payment events see it at least once
+     * @return true if the payment was created, false if it already existed
+     */
+    private boolean createOrRepublish(OrderCreatedEvent event) {
+        PaymentResponse response;
+        boolean created;
+        try {
+            response = paymentService.createPayment(event.toCreatePaymentRequest());
+            created = true;
+        } catch (PaymentAlreadyExistsException e) {
+            log.warn("Payment already exists for orderId={}, publishing its event again: {}",
+                    event.orderId(), e.getMessage());
+            response = paymentService.getPaymentByOrderId(event.orderId());
+            created = false;
+        }
+        producer.sendPaymentEventAsync(PaymentEvent.fromPaymentResponse(response)).join();
+        return created;
+    }
+
+    /**
+     * Assign every DLT partition directly, a subscription of a new group gets no partitions for seconds
+     * Each partition starts after the last committed replay and is read up to its end offset at this moment
+     * @return end offsets of partitions with events left to replay
+     */
+    private Map<TopicPartition, Long> assignFromCommitted(Consumer<String, OrderCreatedEvent> consumer) {
+        List<PartitionInfo> partitionInfos = consumer.partitionsFor(orderEventsDltTopic);
+        if (partitionInfos == null || partitionInfos.isEmpty()) {
+            return new HashMap<>();
+        }
+        List<TopicPartition> partitions = partitionInfos.stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+        consumer.assign(partitions);
+
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+        Map<TopicPartition, Long> endOffsets = new HashMap<>(consumer.endOffsets(partitions));
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            if (offset != null) {
+                consumer.seek(partition, offset);
+            } else {
+                consumer.seekToBeginning(List.of(partition));
+            }
+        }
+        endOffsets.entrySet().removeIf(end -> consumer.position(end.getKey()) >= end.getValue());
+        return endOffsets;
+    }
+
+    private DltReplayResponse result(int replayed, int duplicates, int skipped, String error) {
+        log.info("DLT replay finished: replayed={}, duplicates={}, skipped={}, failed={}",
+                replayed, duplicates, skipped, error != null);
+
+        return DltReplayResponse.builder()
+                .replayed(replayed)
+                .duplicates(duplicates)
+                .skipped(skipped)
+                .failed(error != null ? 1 : 0)
+                .error(error)
+                .build();
+    }
+}
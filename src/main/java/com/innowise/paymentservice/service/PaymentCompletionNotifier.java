@@ -0,0 +1,44 @@
+package com.innowise.paymentservice.service;
+
+import com.innowise.paymentservice.dto.PaymentResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Hands the final payment status to clients waiting on an order (long-poll and SSE)
+ * Publishing an order notifies and drops all of its listeners
+ */
+@Component
+public class PaymentCompletionNotifier {
+
+    private final Map<Long, Set<Consumer<PaymentResponse>>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Register listener for order
+     * @param orderId order id
+     * @param listener called with the resolved payment
+     * @return handle that removes the listener
+     */
+    public Runnable subscribe(Long orderId, Consumer<PaymentResponse> listener) {
+        listeners.compute(orderId, (id, current) -> {
+            Set<Consumer<PaymentResponse>> orderListeners = current != null ? current : ConcurrentHashMap.newKeySet();
+            orderListeners.add(listener);
+            return orderListeners;
+        });
+        return () -> listeners.computeIfPresent(orderId, (id, current) -> {
+            current.remove(listener);
+            return current.isEmpty() ? null : current;
+        });
+    }
+
+    public void publish(PaymentResponse payment) {
+        Set<Consumer<PaymentResponse>> orderListeners = listeners.remove(payment.orderId());
+        if (orderListeners != null) {
+            orderListeners.forEach(listener -> listener.accept(payment));
+        }
+    }
+}
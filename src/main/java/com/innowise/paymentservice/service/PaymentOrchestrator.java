@@ -1,13 +1,17 @@
 package com.innowise.paymentservice.service;
 
+import com.innowise.paymentservice.dto.BatchPaymentItemResult;
 import com.innowise.paymentservice.dto.CreatePaymentRequest;
 import com.innowise.paymentservice.dto.PaymentEvent;
 import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.BatchItemStatus;
 import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Coordinates payment creation and event sending
  * Used for testing and direct calls, not via Kafka
@@ -34,4 +38,24 @@ public class PaymentOrchestrator {
 
         return response;
     }
+
+    /**
+     * Create payments in bulk and send events for the created ones as one producer batch
+     * @param requests payments data
+     * @return per item results in request order
+     */
+    public List<BatchPaymentItemResult> createPaymentsAndSendEvents(List<CreatePaymentRequest> requests) {
+        log.info("Orchestrating bulk payment creation, size={}", requests.size());
+
+        List<BatchPaymentItemResult> results = paymentService.createPayments(requests);
+
+        List<PaymentEvent> events = results.stream()
+                .filter(result -> result.result() == BatchItemStatus.CREATED)
+                .map(result -> PaymentEvent.fromPaymentResponse(result.payment()))
+                .toList();
+        producer.sendPaymentEvents(events);
+
+        log.info("Bulk payment orchestration completed: requested={}, created={}", requests.size(), events.size());
+        return results;
+    }
 }
@@ -0,0 +1,83 @@
+package com.innowise.paymentservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves PROCESSING payments on virtual threads
+ * At most max-in-flight resolutions run at once, extra tasks are rejected instead of queued
+ */
+@Slf4j
+@Component
+public class PaymentResolutionExecutor {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final long shutdownTimeoutMillis;
+    private final Counter rejected;
+
+    public PaymentResolutionExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${payment.async.max-in-flight:256}") int maxInFlight,
+            @Value("${payment.async.shutdown-timeout-ms:10000}") long shutdownTimeoutMillis
+    ) {
+        this.permits = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.rejected = meterRegistry.counter("payment.async.rejected");
+        // the gauge holds the semaphore, not this, which is not fully constructed yet
+        Gauge.builder("payment.async.in-flight", permits, available -> maxInFlight - available.availablePermits())
+                .description("Payments being resolved in the background")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run task in the background if there is a free slot
+     * @param task resolution task
+     * @return false when all slots are taken, the task is not run
+     */
+    public boolean trySubmit(Runnable task) {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            log.warn("Payment resolution did not finish in {} ms, {} payments stay PROCESSING",
+                    shutdownTimeoutMillis, inFlight());
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.innowise.paymentservice.service;
+
+import com.innowise.paymentservice.dto.RollupRebuildResponse;
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.exception.PaymentProcessingException;
+import com.innowise.paymentservice.repository.PaymentDailyRollupRepository;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Regenerates daily rollups from the payments collection
+ * History is split into chunks of whole days, each chunk is aggregated and merged on the server in parallel
+ * Payment writes landing while a chunk is rebuilt may be lost from its rollups, so run it while writes are paused
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentRollupRebuildService {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentDailyRollupRepository rollupRepository;
+
+    @Value("${payment.rollup.rebuild.chunk-days:7}")
+    private int chunkDays;
+
+    public synchronized RollupRebuildResponse rebuild() {
+        rollupRepository.deleteAll();
+
+        Optional<Payment> earliest = paymentRepository.findFirstByOrderByTimestampAsc();
+        Optional<Payment> latest = paymentRepository.findFirstByOrderByTimestampDesc();
+        if (earliest.isEmpty() || latest.isEmpty()) {
+            log.info("No payments to roll up");
+            return RollupRebuildResponse.builder().chunks(0).rollups(0).build();
+        }
+
+        LocalDate firstDay = earliest.get().getTimestamp().toLocalDate();
+        LocalDate endDay = latest.get().getTimestamp().toLocalDate().plusDays(1);
+        String timezone = TimeZone.getDefault().getID();
+        log.info("Rebuilding payment rollups from {} to {} in chunks of {} days", firstDay, endDay, chunkDays);
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (LocalDate from = firstDay; from.isBefore(endDay); from = from.plusDays(chunkDays)) {
+                LocalDate to = from.plusDays(chunkDays);
+                Date chunkFrom = startOf(from);
+                Date chunkTo = startOf(to.isBefore(endDay) ? to : endDay);
+                chunks.add(CompletableFuture.runAsync(
+                        () -> paymentRepository.rollUpDaily(chunkFrom, chunkTo, timezone), executor));
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException ex) {
+            throw new PaymentProcessingException("Payment rollup rebuild failed", ex.getCause());
+        }
+
+        long rollups = rollupRepository.count();
+        log.info("Payment rollups rebuilt: chunks={}, rollups={}", chunks.size(), rollups);
+        return RollupRebuildResponse.builder()
+                .chunks(chunks.size())
+                .rollups(rollups)
+                .build();
+    }
+
+    private static Date startOf(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
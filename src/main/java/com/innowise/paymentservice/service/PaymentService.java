@@ -1,7 +1,9 @@
 package com.innowise.paymentservice.service;
 
+import com.innowise.paymentservice.dto.BatchPaymentItemResult;
 import com.innowise.paymentservice.dto.CreatePaymentRequest;
 import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.dto.PaymentSliceResponse;
 import com.innowise.paymentservice.dto.PaymentSummaryResponse;
 import com.innowise.paymentservice.enums.PaymentStatus;
 import org.springframework.data.domain.Page;
@@ -9,21 +11,75 @@ import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface PaymentService {
 
     PaymentResponse createPayment(CreatePaymentRequest createPaymentRequest);
 
+    /**
+     * Store payment as PROCESSING and resolve its status in the background
+     * Falls back to synchronous resolution when too many payments are already being resolved
+     * @param createPaymentRequest payment data
+     * @return PROCESSING payment, or the resolved one after the fallback
+     */
+    PaymentResponse createPaymentAsync(CreatePaymentRequest createPaymentRequest);
+
+    /**
+     * Call listener once the payment for order is resolved, immediately if it already is
+     * @param orderId order id
+     * @param listener called at most once
+     * @return handle that stops waiting
+     */
+    Runnable onPaymentResolved(Long orderId, Consumer<PaymentResponse> listener);
+
+    /**
+     * Decide status of a payment left in PROCESSING, e.g. when the decision failed after it was stored
+     * @param orderId order id
+     * @return resolved payment, empty if there is no payment in PROCESSING for the order
+     */
+    Optional<PaymentResponse> resumePayment(Long orderId);
+
+    List<BatchPaymentItemResult> createPayments(List<CreatePaymentRequest> createPaymentRequests);
+
     PaymentResponse getPaymentByOrderId(Long orderId);
 
     List<PaymentResponse> getPaymentsByUserId(Long userId);
 
     Page<PaymentResponse> getPaymentsByUserId(Long userId, Pageable pageable);
 
+    /**
+     * Get next slice of user payments in (timestamp, id) order, without counting all of them
+     * @param userId user id
+     * @param pageToken token from the previous slice, null for the first one
+     * @param size max number of payments
+     * @return payments and the token of the next slice
+     */
+    PaymentSliceResponse getPaymentsByUserId(Long userId, String pageToken, int size);
+
     List<PaymentResponse> getPaymentsByStatus(PaymentStatus paymentStatus);
 
     Page<PaymentResponse> getPaymentsByStatus(PaymentStatus paymentStatus, Pageable pageable);
 
+    /**
+     * Get next slice of payments with status in (timestamp, id) order, without counting all of them
+     * @param paymentStatus payment status
+     * @param pageToken token from the previous slice, null for the first one
+     * @param size max number of payments
+     * @return payments and the token of the next slice
+     */
+    PaymentSliceResponse getPaymentsByStatus(PaymentStatus paymentStatus, String pageToken, int size);
+
+    /**
+     * Pass payments to the action one by one while they are read from the database cursor
+     * Memory use does not depend on the number of payments, a slow action slows down the read
+     * @param userId user id, null for any user
+     * @param paymentStatus payment status, null for any status
+     * @param action called for every payment
+     */
+    void forEachPayment(Long userId, PaymentStatus paymentStatus, Consumer<PaymentResponse> action);
+
     PaymentSummaryResponse getTotalAmountByUserAndDateRange(Long userId, LocalDateTime from, LocalDateTime to);
 
     PaymentSummaryResponse getTotalAmountForDateRange(LocalDateTime from, LocalDateTime to);
@@ -0,0 +1,109 @@
+package com.innowise.paymentservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes payments to a response while they are read from the database
+ * Every payment is serialized and dropped before the next one is read, so memory use stays bounded
+ * and a slow client blocks the write, which in turn stops the cursor from fetching more batches
+ */
+@Component
+public class PaymentStreamWriter {
+
+    private static final String CSV_HEADER = "id,order_id,user_id,status,timestamp,total_amount";
+
+    private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter paymentWriter;
+
+    public PaymentStreamWriter(PaymentService paymentService, ObjectMapper objectMapper) {
+        this.paymentService = paymentService;
+        this.objectMapper = objectMapper;
+        this.paymentWriter = objectMapper.writerFor(PaymentResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Write payments as a single JSON array, same body as a serialized list
+     */
+    public void writeJsonArray(OutputStream out, Long userId, PaymentStatus status) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartArray();
+            forEachPayment(userId, status, payment -> paymentWriter.writeValue(generator, payment));
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Write payments as newline delimited JSON, one object per line
+     */
+    public void writeNdjson(OutputStream out, Long userId, PaymentStatus status) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            forEachPayment(userId, status, payment -> {
+                paymentWriter.writeValue(generator, payment);
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    /**
+     * Write payments as CSV with a header line
+     */
+    public void writeCsv(OutputStream out, Long userId, PaymentStatus status) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            forEachPayment(userId, status, payment -> {
+                writer.write(toCsvLine(payment));
+                writer.write('\n');
+            });
+        }
+    }
+
+    private void forEachPayment(Long userId, PaymentStatus status, PaymentWrite write) throws IOException {
+        try {
+            paymentService.forEachPayment(userId, status, payment -> {
+                try {
+                    write.accept(payment);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String toCsvLine(PaymentResponse payment) {
+        return String.join(",",
+                valueOf(payment.id()),
+                valueOf(payment.orderId()),
+                valueOf(payment.userId()),
+                valueOf(payment.status()),
+                valueOf(payment.timestamp()),
+                payment.totalAmount() == null ? "" : payment.totalAmount().toPlainString());
+    }
+
+    private static String valueOf(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    @FunctionalInterface
+    private interface PaymentWrite {
+        void accept(PaymentResponse payment) throws IOException;
+    }
+}
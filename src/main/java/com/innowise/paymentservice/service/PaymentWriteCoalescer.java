@@ -0,0 +1,233 @@
+package com.innowise.paymentservice.service;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.exception.PaymentProcessingException;
+import com.innowise.paymentservice.repository.BulkInsertResult;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for single payment inserts
+ * Concurrent inserts are collected until max-batch-size payments are waiting or linger-micros passed
+ * since the first one, then written with one unordered bulk insert, each caller gets its own outcome
+ * At most max-in-flight-batches bulk inserts run at once, the next batch is collected meanwhile
+ */
+@Slf4j
+@Component
+public class PaymentWriteCoalescer {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final PaymentRepository paymentRepository;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final Semaphore flushPermits;
+    private final BlockingQueue<PendingInsert> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService flushExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+    private volatile boolean running;
+    private Thread collector;
+
+    public PaymentWriteCoalescer(
+            PaymentRepository paymentRepository,
+            MeterRegistry meterRegistry,
+            @Value("${payment.write-coalescing.enabled:false}") boolean enabled,
+            @Value("${payment.write-coalescing.max-batch-size:64}") int maxBatchSize,
+            @Value("${payment.write-coalescing.linger-micros:500}") long lingerMicros,
+            @Value("${payment.write-coalescing.max-in-flight-batches:4}") int maxInFlightBatches
+    ) {
+        this.paymentRepository = paymentRepository;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+        this.flushPermits = new Semaphore(maxInFlightBatches);
+        this.batchSizes = DistributionSummary.builder("payment.write.batch.size")
+                .description("Payments written by one coalesced bulk insert")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("payment.write.flush")
+                .description("Time to write one coalesced bulk insert")
+                .register(meterRegistry);
+        Gauge.builder("payment.write.queued", queue, BlockingQueue::size)
+                .description("Payments waiting for the next coalesced bulk insert")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        collector = Thread.ofPlatform()
+                .name("payment-write-coalescer")
+                .daemon()
+                .start(this::collect);
+        log.info("Payment write coalescing enabled: maxBatchSize={}, lingerMicros={}",
+                maxBatchSize, TimeUnit.NANOSECONDS.toMicros(lingerNanos));
+    }
+
+    /**
+     * True when inserts on the current thread may be coalesced
+     * Inserts inside a transaction must run in its session and always go straight to the repository
+     */
+    public boolean isActive() {
+        return running && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    /**
+     * Insert payment as part of the next bulk insert and wait for its outcome
+     * @param payment payment with its id already assigned
+     * @return inserted payment
+     * @throws DuplicateKeyException when a payment with the same order id exists
+     */
+    public Payment insert(Payment payment) {
+        PendingInsert pending = new PendingInsert(payment, new CompletableFuture<>());
+        queue.add(pending);
+        if (!running && queue.remove(pending)) {
+            // stopped after the check in isActive, nobody is going to flush it
+            return paymentRepository.insert(payment);
+        }
+        try {
+            return pending.result().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private void collect() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingInsert first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flushAsync(List.copyOf(batch));
+                batch.clear();
+            }
+        }
+    }
+
+    private void flushAsync(List<PendingInsert> batch) {
+        flushPermits.acquireUninterruptibly();
+        try {
+            flushExecutor.execute(() -> {
+                try {
+                    flush(batch);
+                } finally {
+                    flushPermits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            flushPermits.release();
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    void flush(List<PendingInsert> batch) {
+        List<Payment> payments = new ArrayList<>(batch.size());
+        List<PendingInsert> written = new ArrayList<>(batch.size());
+        Set<Long> orderIds = new HashSet<>();
+        for (PendingInsert pending : batch) {
+            Long orderId = pending.payment().getOrderId();
+            if (orderIds.add(orderId)) {
+                payments.add(pending.payment());
+                written.add(pending);
+            } else {
+                // same order twice in one batch, the unique index would reject the second one anyway
+                pending.result().completeExceptionally(duplicate(orderId));
+            }
+        }
+
+        batchSizes.record(payments.size());
+        Timer.Sample sample = Timer.start();
+        try {
+            BulkInsertResult result = paymentRepository.insertAllUnordered(payments);
+            for (PendingInsert pending : written) {
+                Long orderId = pending.payment().getOrderId();
+                if (result.duplicateOrderIds().contains(orderId)) {
+                    pending.result().completeExceptionally(duplicate(orderId));
+                } else if (result.failedOrderIds().containsKey(orderId)) {
+                    pending.result().completeExceptionally(new PaymentProcessingException(
+                            "Failed to store payment for orderId=" + orderId + ": "
+                                    + result.failedOrderIds().get(orderId)));
+                } else {
+                    pending.result().complete(pending.payment());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Coalesced insert of {} payments failed: {}", payments.size(), e.getMessage());
+            written.forEach(pending -> pending.result().completeExceptionally(e));
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    private static DuplicateKeyException duplicate(Long orderId) {
+        return new DuplicateKeyException("Payment already exists for orderId=" + orderId);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        if (collector != null) {
+            collector.join();
+        }
+        List<PendingInsert> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+        flushExecutor.close();
+    }
+
+    record PendingInsert(Payment payment, CompletableFuture<Payment> result) {
+    }
+}
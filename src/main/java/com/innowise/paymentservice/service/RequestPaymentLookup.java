@@ -0,0 +1,40 @@
+package com.innowise.paymentservice.service;
+
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.exception.PaymentNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Loads payments by order once per HTTP request
+ * Lets the ownership check and the endpoint share a single read of the same payment
+ */
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class RequestPaymentLookup {
+
+    private final PaymentService paymentService;
+    private final Map<Long, Optional<PaymentResponse>> loaded = new HashMap<>();
+
+    /**
+     * @param orderId order id
+     * @return payment, empty if there is none for the order
+     */
+    public Optional<PaymentResponse> find(Long orderId) {
+        return loaded.computeIfAbsent(orderId, this::load);
+    }
+
+    private Optional<PaymentResponse> load(Long orderId) {
+        try {
+            return Optional.of(paymentService.getPaymentByOrderId(orderId));
+        } catch (PaymentNotFoundException ex) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.innowise.paymentservice.service;
+
+import com.innowise.paymentservice.dto.PaymentCursor;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finishes payments left in PROCESSING for longer than stuck-after-ms and publishes their final event
+ * Walks stuck payments oldest first over the status/timestamp/_id index, a batch at a time,
+ * resuming at most max-concurrency of them at once
+ * Sweepers of several instances may pick the same payment, only one of them moves it out of PROCESSING
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.recovery.enabled", havingValue = "true", matchIfMissing = true)
+public class StuckPaymentSweeper {
+
+    private final PaymentService paymentService;
+    private final PaymentRepository paymentRepository;
+    private final PaymentEventProducer producer;
+    private final Duration stuckAfter;
+    private final int batchSize;
+    private final int maxConcurrency;
+    private final Timer sweepTimer;
+    private final Counter resumedCounter;
+    private final Counter failedCounter;
+    private final AtomicLong backlog = new AtomicLong();
+
+    public StuckPaymentSweeper(
+            PaymentService paymentService,
+            PaymentRepository paymentRepository,
+            PaymentEventProducer producer,
+            MeterRegistry meterRegistry,
+            @Value("${payment.recovery.stuck-after-ms:300000}") long stuckAfterMillis,
+            @Value("${payment.recovery.batch-size:200}") int batchSize,
+            @Value("${payment.recovery.max-concurrency:16}") int maxConcurrency
+    ) {
+        this.paymentService = paymentService;
+        this.paymentRepository = paymentRepository;
+        this.producer = producer;
+        this.stuckAfter = Duration.ofMillis(stuckAfterMillis);
+        this.batchSize = batchSize;
+        this.maxConcurrency = maxConcurrency;
+        this.sweepTimer = Timer.builder("payment.recovery.sweep")
+                .description("Time to sweep payments stuck in PROCESSING")
+                .register(meterRegistry);
+        this.resumedCounter = meterRegistry.counter("payment.recovery.resumed");
+        this.failedCounter = meterRegistry.counter("payment.recovery.failed");
+        Gauge.builder("payment.recovery.backlog", backlog, AtomicLong::get)
+                .description("Payments stuck in PROCESSING at the end of the last sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${payment.recovery.sweep-interval-ms:60000}",
+            fixedDelayString = "${payment.recovery.sweep-interval-ms:60000}"
+    )
+    public void scheduledSweep() {
+        sweep();
+    }
+
+    /**
+     * Resume every payment that entered PROCESSING before now minus stuck-after-ms
+     * @return number of payments moved out of PROCESSING by this sweep
+     */
+    public int sweep() {
+        Timer.Sample sample = Timer.start();
+        LocalDateTime cutoff = LocalDateTime.now().minus(stuckAfter);
+        try {
+            long stuck = paymentRepository.countByStatusAndTimestampBefore(PaymentStatus.PROCESSING, cutoff);
+            if (stuck == 0) {
+                backlog.set(0);
+                return 0;
+            }
+            log.warn("Found {} payments in PROCESSING for longer than {}", stuck, stuckAfter);
+
+            int resumed = 0;
+            PaymentCursor after = null;
+            List<PaymentResponse> batch;
+            do {
+                batch = paymentRepository.findSliceByStatus(PaymentStatus.PROCESSING, after, batchSize).stream()
+                        .filter(payment -> payment.timestamp().isBefore(cutoff))
+                        .toList();
+                resumed += resumeAll(batch);
+                after = batch.isEmpty() ? null : PaymentCursor.after(batch.getLast());
+            } while (batch.size() == batchSize);
+
+            backlog.set(paymentRepository.countByStatusAndTimestampBefore(PaymentStatus.PROCESSING, cutoff));
+            log.info("Sweep resumed {} of {} stuck payments", resumed, stuck);
+            return resumed;
+        } finally {
+            sample.stop(sweepTimer);
+        }
+    }
+
+    private int resumeAll(List<PaymentResponse> batch) {
+        AtomicInteger resumed = new AtomicInteger();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (PaymentResponse payment : batch) {
+                permits.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        if (resume(payment)) {
+                            resumed.incrementAndGet();
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        return resumed.get();
+    }
+
+    private boolean resume(PaymentResponse payment) {
+        try {
+            Optional<PaymentResponse> resolved = paymentService.resumePayment(payment.orderId());
+            resolved.ifPresent(response -> {
+                producer.sendPaymentEvent(PaymentEvent.fromPaymentResponse(response));
+                resumedCounter.increment();
+            });
+            return resolved.isPresent();
+        } catch (RuntimeException ex) {
+            failedCounter.increment();
+            log.error("Failed to resume payment id={} for orderId={}, it stays PROCESSING: {}",
+                    payment.id(), payment.orderId(), ex.getMessage());
+            return false;
+        }
+    }
+}
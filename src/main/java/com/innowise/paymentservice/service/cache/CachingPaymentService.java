@@ -0,0 +1,109 @@
+package com.innowise.paymentservice.service.cache;
+
+import com.innowise.paymentservice.dto.BatchPaymentItemResult;
+import com.innowise.paymentservice.dto.CreatePaymentRequest;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.dto.PaymentSliceResponse;
+import com.innowise.paymentservice.dto.PaymentSummaryResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.service.PaymentService;
+import com.innowise.paymentservice.service.impl.PaymentServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Serves payment lookups and summaries from {@link PaymentCache}, everything else goes straight to the delegate
+ * Writes are invalidated by {@link PaymentServiceImpl} itself, so background resolutions are covered too
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+public class CachingPaymentService implements PaymentService {
+
+    private final PaymentServiceImpl delegate;
+    private final PaymentCache paymentCache;
+
+    @Override
+    public PaymentResponse createPayment(CreatePaymentRequest createPaymentRequest) {
+        return delegate.createPayment(createPaymentRequest);
+    }
+
+    @Override
+    public PaymentResponse createPaymentAsync(CreatePaymentRequest createPaymentRequest) {
+        return delegate.createPaymentAsync(createPaymentRequest);
+    }
+
+    @Override
+    public Runnable onPaymentResolved(Long orderId, Consumer<PaymentResponse> listener) {
+        return delegate.onPaymentResolved(orderId, listener);
+    }
+
+    @Override
+    public Optional<PaymentResponse> resumePayment(Long orderId) {
+        return delegate.resumePayment(orderId);
+    }
+
+    @Override
+    public List<BatchPaymentItemResult> createPayments(List<CreatePaymentRequest> createPaymentRequests) {
+        return delegate.createPayments(createPaymentRequests);
+    }
+
+    @Override
+    public PaymentResponse getPaymentByOrderId(Long orderId) {
+        return paymentCache.getPayment(orderId, () -> delegate.getPaymentByOrderId(orderId));
+    }
+
+    @Override
+    public List<PaymentResponse> getPaymentsByUserId(Long userId) {
+        return delegate.getPaymentsByUserId(userId);
+    }
+
+    @Override
+    public Page<PaymentResponse> getPaymentsByUserId(Long userId, Pageable pageable) {
+        return delegate.getPaymentsByUserId(userId, pageable);
+    }
+
+    @Override
+    public PaymentSliceResponse getPaymentsByUserId(Long userId, String pageToken, int size) {
+        return delegate.getPaymentsByUserId(userId, pageToken, size);
+    }
+
+    @Override
+    public List<PaymentResponse> getPaymentsByStatus(PaymentStatus paymentStatus) {
+        return delegate.getPaymentsByStatus(paymentStatus);
+    }
+
+    @Override
+    public Page<PaymentResponse> getPaymentsByStatus(PaymentStatus paymentStatus, Pageable pageable) {
+        return delegate.getPaymentsByStatus(paymentStatus, pageable);
+    }
+
+    @Override
+    public PaymentSliceResponse getPaymentsByStatus(PaymentStatus paymentStatus, String pageToken, int size) {
+        return delegate.getPaymentsByStatus(paymentStatus, pageToken, size);
+    }
+
+    @Override
+    public void forEachPayment(Long userId, PaymentStatus paymentStatus, Consumer<PaymentResponse> action) {
+        delegate.forEachPayment(userId, paymentStatus, action);
+    }
+
+    @Override
+    public PaymentSummaryResponse getTotalAmountByUserAndDateRange(Long userId, LocalDateTime from, LocalDateTime to) {
+        return paymentCache.getSummary(userId, from, to,
+                () -> delegate.getTotalAmountByUserAndDateRange(userId, from, to));
+    }
+
+    @Override
+    public PaymentSummaryResponse getTotalAmountForDateRange(LocalDateTime from, LocalDateTime to) {
+        return paymentCache.getSummary(null, from, to, () -> delegate.getTotalAmountForDateRange(from, to));
+    }
+}
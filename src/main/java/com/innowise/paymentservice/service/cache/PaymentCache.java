@@ -0,0 +1,151 @@
+package com.innowise.paymentservice.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.dto.PaymentSummaryResponse;
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caches payments by order and summaries by user and range
+ * Payments still PENDING or PROCESSING are not cached, another instance or the sweeper may resolve them at any time
+ * and invalidation is local to this instance
+ * Every entry keeps the generation of its order or user read before loading, a write bumps the generation after it lands
+ * An entry loaded concurrently with a write is therefore never served, even if it was put after the invalidation
+ */
+@Component
+public class PaymentCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final boolean enabled;
+    private final Cache<Long, Versioned<PaymentResponse>> payments;
+    private final Cache<SummaryKey, Versioned<PaymentSummaryResponse>> summaries;
+    private final AtomicLongArray orderGenerations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLongArray userGenerations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong globalGeneration = new AtomicLong();
+
+    public PaymentCache(
+            MeterRegistry meterRegistry,
+            @Value("${payment.cache.enabled:false}") boolean enabled,
+            @Value("${payment.cache.payments.max-size:10000}") long paymentsMaxSize,
+            @Value("${payment.cache.payments.ttl-ms:600000}") long paymentsTtlMillis,
+            @Value("${payment.cache.summaries.max-size:1000}") long summariesMaxSize,
+            @Value("${payment.cache.summaries.ttl-ms:60000}") long summariesTtlMillis
+    ) {
+        this.enabled = enabled;
+        this.payments = build(paymentsMaxSize, paymentsTtlMillis);
+        this.summaries = build(summariesMaxSize, summariesTtlMillis);
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, payments, "payments");
+            CaffeineCacheMetrics.monitor(meterRegistry, summaries, "payment-summaries");
+        }
+    }
+
+    public PaymentResponse getPayment(Long orderId, Supplier<PaymentResponse> loader) {
+        return get(payments, orderId, () -> orderGenerations.get(stripe(orderId)), loader, PaymentCache::isFinal);
+    }
+
+    /**
+     * @param userId user id, null for the summary of all users
+     */
+    public PaymentSummaryResponse getSummary(Long userId, LocalDateTime from, LocalDateTime to,
+                                             Supplier<PaymentSummaryResponse> loader) {
+        LongSupplier generation = userId == null
+                ? globalGeneration::get
+                : () -> userGenerations.get(stripe(userId));
+        return get(summaries, new SummaryKey(userId, from, to), generation, loader, summary -> true);
+    }
+
+    /**
+     * Drop cached data of the orders and users of written payments, must be called after the write is stored
+     * Inside a transaction the write is visible to other readers only once committed, so invalidation waits
+     * for the commit, an earlier one would let a reader cache the pre-commit data under the new generation
+     */
+    public void invalidate(Collection<Payment> written) {
+        if (!enabled || written.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Payment> committed = List.copyOf(written);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpGenerations(committed);
+                }
+            });
+        } else {
+            bumpGenerations(written);
+        }
+    }
+
+    private void bumpGenerations(Collection<Payment> written) {
+        for (Payment payment : written) {
+            orderGenerations.incrementAndGet(stripe(payment.getOrderId()));
+            userGenerations.incrementAndGet(stripe(payment.getUserId()));
+            payments.invalidate(payment.getOrderId());
+        }
+        globalGeneration.incrementAndGet();
+    }
+
+    private <K, V> V get(Cache<K, Versioned<V>> cache, K key, LongSupplier generation, Supplier<V> loader,
+                         Predicate<V> cacheable) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        long current = generation.getAsLong();
+        Versioned<V> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (cached.generation() == current) {
+                return cached.value();
+            }
+            cache.asMap().remove(key, cached);
+        }
+
+        V value = loader.get();
+        if (cacheable.test(value)) {
+            cache.put(key, new Versioned<>(value, current));
+        }
+        return value;
+    }
+
+    private static boolean isFinal(PaymentResponse payment) {
+        return payment.status() != PaymentStatus.PENDING && payment.status() != PaymentStatus.PROCESSING;
+    }
+
+    private static <K, V> Cache<K, V> build(long maxSize, long ttlMillis) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+    }
+
+    private static int stripe(Long id) {
+        return Math.floorMod(Long.hashCode(id), GENERATION_STRIPES);
+    }
+
+    private record Versioned<V>(V value, long generation) {
+    }
+
+    private record SummaryKey(Long userId, LocalDateTime from, LocalDateTime to) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.innowise.paymentservice.service.decision;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.exception.ExternalServiceException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Asks the remote strategy first and degrades to the local one
+ * when Random.org fails or does not answer within the latency budget
+ */
+@Slf4j
+@Component
+public class FallbackPaymentDecisionStrategy implements PaymentDecisionStrategy {
+
+    public static final String NAME = "fallback";
+
+    private final RemotePaymentDecisionStrategy remote;
+    private final LocalRandomPaymentDecisionStrategy local;
+    private final MeterRegistry meterRegistry;
+    private final long latencyBudgetMillis;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public FallbackPaymentDecisionStrategy(
+            RemotePaymentDecisionStrategy remote,
+            LocalRandomPaymentDecisionStrategy local,
+            MeterRegistry meterRegistry,
+            @Value("${payment.decision.fallback.latency-budget-ms:200}") long latencyBudgetMillis
+    ) {
+        this.remote = remote;
+        this.local = local;
+        this.meterRegistry = meterRegistry;
+        this.latencyBudgetMillis = latencyBudgetMillis;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public PaymentStatus decide(Payment payment) {
+        CompletableFuture<PaymentStatus> remoteDecision =
+                CompletableFuture.supplyAsync(() -> remote.decide(payment), executor);
+        try {
+            return remoteDecision.get(latencyBudgetMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            remoteDecision.cancel(true);
+            log.warn("Remote decision exceeded {} ms for orderId={}, using local strategy",
+                    latencyBudgetMillis, payment.getOrderId());
+            return degrade(payment, "timeout");
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof ExternalServiceException)) {
+                throw new IllegalStateException("Remote decision failed", e.getCause());
+            }
+            log.warn("Remote decision failed for orderId={}, using local strategy: {}",
+                    payment.getOrderId(), e.getCause().getMessage());
+            return degrade(payment, "error");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalServiceException("Interrupted while waiting for payment decision", e);
+        }
+    }
+
+    private PaymentStatus degrade(Payment payment, String reason) {
+        meterRegistry.counter("payment.decision.fallbacks", "reason", reason).increment();
+        return local.decide(payment);
+    }
+}
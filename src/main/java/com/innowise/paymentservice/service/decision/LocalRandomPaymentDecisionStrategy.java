@@ -0,0 +1,45 @@
+package com.innowise.paymentservice.service.decision;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * Same even/odd rule as the remote strategy, numbers are generated in process
+ * Uses ThreadLocalRandom, which keeps its state in the thread itself and costs nothing per virtual thread,
+ * or a shared SecureRandom when secure mode is on
+ */
+@Component
+public class LocalRandomPaymentDecisionStrategy implements PaymentDecisionStrategy {
+
+    public static final String NAME = "local";
+
+    private static final int MIN = 1;
+    private static final int MAX = 100;
+
+    private final IntSupplier numbers;
+
+    public LocalRandomPaymentDecisionStrategy(@Value("${payment.decision.local.secure:false}") boolean secure) {
+        if (secure) {
+            SecureRandom secureRandom = new SecureRandom();
+            this.numbers = () -> secureRandom.nextInt(MIN, MAX + 1);
+        } else {
+            this.numbers = () -> ThreadLocalRandom.current().nextInt(MIN, MAX + 1);
+        }
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public PaymentStatus decide(Payment payment) {
+        return numbers.getAsInt() % 2 == 0 ? PaymentStatus.SUCCESS : PaymentStatus.FAILED;
+    }
+}
@@ -0,0 +1,75 @@
+package com.innowise.paymentservice.service.decision;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the active payment decision strategy
+ * Initial one comes from payment.decision.strategy, admins can switch it at runtime
+ */
+@Slf4j
+@Component
+public class PaymentDecisionSelector {
+
+    private final Map<String, PaymentDecisionStrategy> strategies;
+    private final AtomicReference<PaymentDecisionStrategy> current;
+
+    public PaymentDecisionSelector(
+            List<PaymentDecisionStrategy> strategies,
+            @Value("${payment.decision.strategy:remote}") String initialStrategy
+    ) {
+        this.strategies = strategies.stream()
+                .collect(Collectors.toUnmodifiableMap(PaymentDecisionStrategy::name, Function.identity()));
+        PaymentDecisionStrategy initial = this.strategies.get(initialStrategy);
+        if (initial == null) {
+            throw new IllegalStateException("Unknown payment decision strategy: " + initialStrategy
+                    + ", available: " + sortedNames(this.strategies));
+        }
+        this.current = new AtomicReference<>(initial);
+        log.info("Payment decision strategy set to {}", initialStrategy);
+    }
+
+    /**
+     * Decide payment status with the active strategy
+     * @param payment payment being created
+     */
+    public PaymentStatus decide(Payment payment) {
+        return current.get().decide(payment);
+    }
+
+    public String currentStrategy() {
+        return current.get().name();
+    }
+
+    public List<String> availableStrategies() {
+        return sortedNames(strategies);
+    }
+
+    /**
+     * Make another strategy active
+     * @param name strategy name
+     * @return false if there is no strategy with such name
+     */
+    public boolean switchTo(String name) {
+        PaymentDecisionStrategy strategy = strategies.get(name);
+        if (strategy == null) {
+            return false;
+        }
+        PaymentDecisionStrategy previous = current.getAndSet(strategy);
+        log.info("Payment decision strategy set to {} (was {})", name, previous.name());
+        return true;
+    }
+
+    private static List<String> sortedNames(Map<String, PaymentDecisionStrategy> strategies) {
+        return strategies.keySet().stream().sorted().toList();
+    }
+}
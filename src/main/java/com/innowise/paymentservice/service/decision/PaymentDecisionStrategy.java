@@ -0,0 +1,22 @@
+package com.innowise.paymentservice.service.decision;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+
+/**
+ * Decides the final status of a new payment
+ */
+public interface PaymentDecisionStrategy {
+
+    /**
+     * Name used to select the strategy in configuration
+     */
+    String name();
+
+    /**
+     * Get final status for payment
+     * @param payment payment being created
+     * @return SUCCESS or FAILED
+     */
+    PaymentStatus decide(Payment payment);
+}
@@ -0,0 +1,46 @@
+package com.innowise.paymentservice.service.decision;
+
+import com.innowise.paymentservice.client.RandomNumberPool;
+import com.innowise.paymentservice.client.RandomOrgClient;
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.exception.ExternalServiceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Even number from Random.org means SUCCESS
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RemotePaymentDecisionStrategy implements PaymentDecisionStrategy {
+
+    public static final String NAME = "remote";
+
+    private final RandomOrgClient randomOrgClient;
+    private final RandomNumberPool randomNumberPool;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public PaymentStatus decide(Payment payment) {
+        try {
+            Integer randomNumber = randomNumberPool.next();
+            boolean isEven = randomOrgClient.isEven(randomNumber);
+
+            PaymentStatus status = isEven ? PaymentStatus.SUCCESS : PaymentStatus.FAILED;
+            log.info("Random number: {}, status: {}", randomNumber, status);
+
+            return status;
+        } catch (RestClientException ex) {
+            log.error("Failed to call Random.org API, setting payment status to FAILED: {}", ex.getMessage());
+            throw new ExternalServiceException("Failed to process payment: external service unavailable", ex);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.innowise.paymentservice.service.decision;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Deterministic decision based on payment data, no randomness involved
+ * Fails payments with non positive amount, amount above the limit or from a blocked user
+ */
+@Component
+public class RulesPaymentDecisionStrategy implements PaymentDecisionStrategy {
+
+    public static final String NAME = "rules";
+
+    private final BigDecimal maxAmount;
+    private final Set<Long> blockedUserIds;
+
+    public RulesPaymentDecisionStrategy(
+            @Value("${payment.decision.rules.max-amount:10000}") BigDecimal maxAmount,
+            @Value("${payment.decision.rules.blocked-user-ids:}") Set<Long> blockedUserIds
+    ) {
+        this.maxAmount = maxAmount;
+        this.blockedUserIds = Set.copyOf(blockedUserIds);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public PaymentStatus decide(Payment payment) {
+        BigDecimal amount = payment.getPaymentAmount();
+        if (amount == null || amount.signum() <= 0 || amount.compareTo(maxAmount) > 0) {
+            return PaymentStatus.FAILED;
+        }
+        if (payment.getUserId() != null && blockedUserIds.contains(payment.getUserId())) {
+            return PaymentStatus.FAILED;
+        }
+        return PaymentStatus.SUCCESS;
+    }
+}
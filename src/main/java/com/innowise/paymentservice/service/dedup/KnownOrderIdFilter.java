@@ -0,0 +1,128 @@
+package com.innowise.paymentservice.service.dedup;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * In-memory Bloom filter of order ids that have a payment, answers "definitely new" without reading Mongo
+ * Filled from the order_id index once the application is ready and from every insert of this instance
+ * Payments inserted by other instances are not seen, the unique order_id index stays the final arbiter
+ * Until the warm-up finishes every order id is reported as possibly known
+ */
+@Slf4j
+@Component
+public class KnownOrderIdFilter {
+
+    private final PaymentRepository paymentRepository;
+    private final boolean enabled;
+    private final ScalableBloomFilter filter;
+    private final Timer warmUpTimer;
+    private final Counter definitelyNew;
+    private final Counter falsePositives;
+    private volatile boolean ready;
+
+    public KnownOrderIdFilter(
+            PaymentRepository paymentRepository,
+            MeterRegistry meterRegistry,
+            @Value("${payment.order-id-filter.enabled:false}") boolean enabled,
+            @Value("${payment.order-id-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${payment.order-id-filter.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this.paymentRepository = paymentRepository;
+        this.enabled = enabled;
+        this.filter = new ScalableBloomFilter(enabled ? expectedInsertions : 1, falsePositiveRate);
+        this.warmUpTimer = Timer.builder("payment.order-id-filter.warm-up")
+                .description("Time to load all order ids into the filter")
+                .register(meterRegistry);
+        this.definitelyNew = Counter.builder("payment.order-id-filter.lookups")
+                .description("Duplicate checks answered by the filter alone or disproved by Mongo")
+                .tag("result", "definitely-new")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("payment.order-id-filter.lookups")
+                .description("Duplicate checks answered by the filter alone or disproved by Mongo")
+                .tag("result", "false-positive")
+                .register(meterRegistry);
+        Gauge.builder("payment.order-id-filter.memory", filter, ScalableBloomFilter::memoryBytes)
+                .description("Memory held by the filter bit arrays")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("payment.order-id-filter.entries", filter, ScalableBloomFilter::size)
+                .description("Order ids added to the filter")
+                .register(meterRegistry);
+        Gauge.builder("payment.order-id-filter.stages", filter, ScalableBloomFilter::stageCount)
+                .description("Bloom filter stages, a new one is added each time the last one is full")
+                .register(meterRegistry);
+        Gauge.builder("payment.order-id-filter.false-positive-rate", filter,
+                        ScalableBloomFilter::estimatedFalsePositiveRate)
+                .description("False positive rate expected from the bits set so far")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread.ofVirtual().name("order-id-filter-warm-up").start(this::warmUp);
+    }
+
+    /**
+     * Load every stored order id, inserts made meanwhile are added by record and are not lost
+     */
+    void warmUp() {
+        Timer.Sample sample = Timer.start();
+        try {
+            long loaded = paymentRepository.forEachOrderId(filter::put);
+            ready = true;
+            Duration took = Duration.ofNanos(sample.stop(warmUpTimer));
+            log.info("Order id filter warmed up with {} order ids in {} ms, {} bytes, expected false positive rate {}",
+                    loaded, took.toMillis(), filter.memoryBytes(), filter.estimatedFalsePositiveRate());
+        } catch (RuntimeException e) {
+            log.error("Failed to warm up order id filter, duplicate checks keep reading Mongo: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return true only when no payment was ever stored for the order id, false means it may exist
+     */
+    public boolean isDefinitelyNew(long orderId) {
+        if (!ready || filter.mightContain(orderId)) {
+            return false;
+        }
+        definitelyNew.increment();
+        return true;
+    }
+
+    /**
+     * Add order ids of inserted payments
+     */
+    public void record(Collection<Payment> payments) {
+        if (!enabled) {
+            return;
+        }
+        for (Payment payment : payments) {
+            filter.put(payment.getOrderId());
+        }
+    }
+
+    /**
+     * Count order ids the filter reported as possibly known that turned out to have no payment
+     */
+    public void recordFalsePositives(int count) {
+        if (ready && count > 0) {
+            falsePositives.increment(count);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.innowise.paymentservice.service.dedup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter of longs that adds a twice as large stage whenever the current one reaches its capacity
+ * Every new stage gets half the false positive rate of the previous one, so the compound rate stays
+ * below twice the initial one however many values are added
+ * Thread safe, bits are set with CAS and never cleared
+ */
+class ScalableBloomFilter {
+
+    private static final int GROWTH_FACTOR = 2;
+    private static final double TIGHTENING_RATIO = 0.5;
+    private static final double LN2 = Math.log(2);
+    private static final long SECOND_HASH_SEED = 0x9e3779b97f4a7c15L;
+
+    private volatile List<Stage> stages;
+
+    ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        this.stages = List.of(new Stage(initialCapacity, falsePositiveRate));
+    }
+
+    boolean mightContain(long value) {
+        long hash1 = mix(value);
+        long hash2 = mix(value ^ SECOND_HASH_SEED) | 1;
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash1, hash2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void put(long value) {
+        long hash1 = mix(value);
+        long hash2 = mix(value ^ SECOND_HASH_SEED) | 1;
+        List<Stage> current = stages;
+        for (Stage stage : current) {
+            if (stage.mightContain(hash1, hash2)) {
+                return;
+            }
+        }
+        Stage last = current.getLast();
+        if (last.isFull()) {
+            last = grow(last);
+        }
+        last.put(hash1, hash2);
+    }
+
+    private synchronized Stage grow(Stage full) {
+        Stage last = stages.getLast();
+        if (last != full) {
+            return last;
+        }
+        List<Stage> grown = new ArrayList<>(stages);
+        grown.add(new Stage(full.capacity * GROWTH_FACTOR, full.falsePositiveRate * TIGHTENING_RATIO));
+        stages = List.copyOf(grown);
+        return grown.getLast();
+    }
+
+    long size() {
+        long size = 0;
+        for (Stage stage : stages) {
+            size += stage.count.get();
+        }
+        return size;
+    }
+
+    long memoryBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += (long) stage.bits.length() * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    int stageCount() {
+        return stages.size();
+    }
+
+    /**
+     * False positive rate expected from the bits set so far, 1 - product of (1 - fill ^ hashes) over stages
+     */
+    double estimatedFalsePositiveRate() {
+        double allNegative = 1;
+        for (Stage stage : stages) {
+            double fill = (double) stage.bitsSet.sum() / stage.bitSize;
+            allNegative *= 1 - Math.pow(fill, stage.hashes);
+        }
+        return 1 - allNegative;
+    }
+
+    /**
+     * Murmur3 64 bit finalizer, order ids are sequential and need spreading over the bit array
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bitSize;
+        private final int hashes;
+        private final AtomicLongArray bits;
+        private final AtomicLong count = new AtomicLong();
+        private final LongAdder bitsSet = new LongAdder();
+
+        private Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+            int words = Math.toIntExact(Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE));
+            this.bits = new AtomicLongArray(words);
+            this.bitSize = (long) words * Long.SIZE;
+            this.hashes = Math.max(1, (int) Math.round((double) bitSize / capacity * LN2));
+        }
+
+        private boolean isFull() {
+            return count.get() >= capacity;
+        }
+
+        private boolean mightContain(long hash1, long hash2) {
+            for (int i = 0; i < hashes; i++) {
+                long index = Math.floorMod(hash1 + i * hash2, bitSize);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long hash1, long hash2) {
+            for (int i = 0; i < hashes; i++) {
+                long index = Math.floorMod(hash1 + i * hash2, bitSize);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current = bits.get(word);
+                while ((current & mask) == 0) {
+                    if (bits.compareAndSet(word, current, current | mask)) {
+                        bitsSet.increment();
+                        break;
+                    }
+                    current = bits.get(word);
+                }
+            }
+            count.incrementAndGet();
+        }
+    }
+}
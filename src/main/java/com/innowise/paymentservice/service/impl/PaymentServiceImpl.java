@@ -1,31 +1,68 @@
 package com.innowise.paymentservice.service.impl;
 
-import com.innowise.paymentservice.client.RandomOrgClient;
+import com.innowise.paymentservice.dto.BatchPaymentItemResult;
 import com.innowise.paymentservice.dto.CreatePaymentRequest;
+import com.innowise.paymentservice.dto.PaymentCursor;
+import com.innowise.paymentservice.dto.PaymentEvent;
 import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.dto.PaymentSliceResponse;
+import com.innowise.paymentservice.dto.PaymentSummaryAggregationResult;
 import com.innowise.paymentservice.dto.PaymentSummaryResponse;
-import com.innowise.paymentservice.dto.TotalAmountAggregationResult;
+import com.innowise.paymentservice.entity.OutboxEvent;
 import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.BatchItemStatus;
 import com.innowise.paymentservice.enums.PaymentStatus;
 import com.innowise.paymentservice.exception.ExternalServiceException;
 import com.innowise.paymentservice.exception.PaymentAlreadyExistsException;
 import com.innowise.paymentservice.exception.PaymentNotFoundException;
+import com.innowise.paymentservice.exception.PaymentProcessingException;
 import com.innowise.paymentservice.mapper.PaymentMapper;
+import com.innowise.paymentservice.repository.BulkInsertResult;
+import com.innowise.paymentservice.repository.OutboxEventRepository;
+import com.innowise.paymentservice.repository.PaymentDailyRollupRepository;
 import com.innowise.paymentservice.repository.PaymentRepository;
+import com.innowise.paymentservice.service.PaymentCompletionNotifier;
+import com.innowise.paymentservice.service.PaymentResolutionExecutor;
 import com.innowise.paymentservice.service.PaymentService;
+import com.innowise.paymentservice.service.PaymentWriteCoalescer;
+import com.innowise.paymentservice.service.cache.PaymentCache;
+import com.innowise.paymentservice.service.dedup.KnownOrderIdFilter;
+import com.innowise.paymentservice.service.decision.PaymentDecisionSelector;
+import com.innowise.paymentservice.service.statistics.PaymentWindowStatistics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestClientException;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -34,7 +71,28 @@ public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final PaymentMapper paymentMapper;
-    private final RandomOrgClient randomOrgClient;
+    private final PaymentDecisionSelector paymentDecisionSelector;
+    private final OutboxEventRepository outboxEventRepository;
+    private final PaymentResolutionExecutor paymentResolutionExecutor;
+    private final PaymentCompletionNotifier paymentCompletionNotifier;
+    private final PaymentDailyRollupRepository paymentDailyRollupRepository;
+    private final PaymentWindowStatistics paymentWindowStatistics;
+    private final PaymentCache paymentCache;
+    private final PaymentWriteCoalescer paymentWriteCoalescer;
+    private final KnownOrderIdFilter knownOrderIdFilter;
+    private final TransactionOperations paymentTransactionOperations;
+
+    @Value("${payment.outbox.enabled:false}")
+    private boolean outboxEnabled;
+
+    @Value("${payment.create.keep-processing-state:false}")
+    private boolean keepProcessingState;
+
+    @Value("${payment.create.decision-concurrency:16}")
+    private int decisionConcurrency;
+
+    @Value("${payment.rollup.enabled:false}")
+    private boolean rollupEnabled;
 
     @Override
     @Transactional
@@ -42,26 +100,169 @@ public class PaymentServiceImpl implements PaymentService {
         log.info("Creating payment for orderId={}, userId={}, amount={}",
                 request.orderId(), request.userId(), request.paymentAmount());
 
-        if (paymentRepository.existsByOrderId(request.orderId())) {
-            log.warn("Payment already exists for orderId={}", request.orderId());
-            throw new PaymentAlreadyExistsException("Payment already exists for orderId=" + request.orderId());
+        Payment payment = paymentMapper.toEntity(request);
+        payment.setId(new ObjectId().toHexString());
+        payment.setTimestamp(LocalDateTime.now());
+
+        Payment finalPayment;
+        try {
+            finalPayment = keepProcessingState
+                    ? insertProcessingAndDecide(payment)
+                    : decideAndInsert(payment);
+        } catch (PaymentAlreadyExistsException ex) {
+            // redelivered order whose first attempt failed after storing PROCESSING, finish it instead of skipping
+            return resumePayment(request.orderId()).orElseThrow(() -> ex);
         }
+        log.info("Payment created successfully: id={}, status={}",
+                finalPayment.getId(), finalPayment.getStatus());
+
+        PaymentResponse response = paymentMapper.toDto(finalPayment);
+        appendToOutbox(List.of(response));
+        paymentCompletionNotifier.publish(response);
+        return response;
+    }
+
+    @Override
+    public PaymentResponse createPaymentAsync(CreatePaymentRequest request) {
+        log.info("Creating payment asynchronously for orderId={}, userId={}, amount={}",
+                request.orderId(), request.userId(), request.paymentAmount());
 
         Payment payment = paymentMapper.toEntity(request);
+        payment.setId(new ObjectId().toHexString());
         payment.setTimestamp(LocalDateTime.now());
-        payment.setStatus(PaymentStatus.PROCESSING);
+        insertProcessing(payment);
 
-        Payment savedPayment = paymentRepository.save(payment);
-        log.debug("Payment saved, id={}", savedPayment.getId());
+        if (paymentResolutionExecutor.trySubmit(() -> resolveInBackground(payment))) {
+            return paymentMapper.toDto(payment);
+        }
+        log.warn("Too many payments in progress, resolving orderId={} synchronously", payment.getOrderId());
+        return resolve(payment);
+    }
 
-        PaymentStatus finalStatus = determinePaymentStatus();
-        savedPayment.setStatus(finalStatus);
+    @Override
+    public Runnable onPaymentResolved(Long orderId, Consumer<PaymentResponse> listener) {
+        PaymentResponse current = getPaymentByOrderId(orderId);
+        if (isResolved(current)) {
+            listener.accept(current);
+            return () -> { };
+        }
 
-        Payment finalPayment = paymentRepository.save(savedPayment);
-        log.info("Payment created successfully: id={}, status={}",
-                finalPayment.getId(), finalPayment.getStatus());
+        AtomicBoolean notified = new AtomicBoolean();
+        Consumer<PaymentResponse> once = payment -> {
+            if (notified.compareAndSet(false, true)) {
+                listener.accept(payment);
+            }
+        };
+        Runnable unsubscribe = paymentCompletionNotifier.subscribe(orderId, once);
+
+        // payment may have been resolved between the first read and subscribing
+        PaymentResponse latest = getPaymentByOrderId(orderId);
+        if (isResolved(latest)) {
+            unsubscribe.run();
+            once.accept(latest);
+        }
+        return unsubscribe;
+    }
+
+    /**
+     * Status change and outbox entry are written in one transaction, same as for a new payment
+     */
+    @Override
+    @Transactional
+    public Optional<PaymentResponse> resumePayment(Long orderId) {
+        Optional<Payment> completed = paymentRepository.findByOrderId(orderId)
+                .filter(payment -> payment.getStatus() == PaymentStatus.PROCESSING)
+                .flatMap(payment -> {
+                    log.info("Resuming PROCESSING payment id={} for orderId={}", payment.getId(), orderId);
+                    return tryCompleteProcessing(payment, paymentDecisionSelector.decide(payment));
+                });
+        if (completed.isEmpty()) {
+            return Optional.empty();
+        }
 
-        return paymentMapper.toDto(finalPayment);
+        PaymentResponse response = paymentMapper.toDto(completed.get());
+        appendToOutbox(List.of(response));
+        paymentCompletionNotifier.publish(response);
+        log.info("Payment resumed: id={}, status={}", response.id(), response.status());
+        return Optional.of(response);
+    }
+
+    @Override
+    @Transactional
+    public List<BatchPaymentItemResult> createPayments(List<CreatePaymentRequest> requests) {
+        log.info("Creating payments in bulk, size={}", requests.size());
+
+        BatchPaymentItemResult[] results = new BatchPaymentItemResult[requests.size()];
+        List<Payment> candidates = new ArrayList<>();
+        List<Integer> candidateIndexes = new ArrayList<>();
+        List<Payment> toInsert = new ArrayList<>();
+        List<Integer> insertIndexes = new ArrayList<>();
+        Set<Long> knownOrderIds = findExistingOrderIds(requests);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < requests.size(); i++) {
+            CreatePaymentRequest request = requests.get(i);
+
+            if (!knownOrderIds.add(request.orderId())) {
+                log.warn("Payment already exists for orderId={}", request.orderId());
+                results[i] = BatchPaymentItemResult.duplicate(request.orderId());
+                continue;
+            }
+
+            Payment payment = paymentMapper.toEntity(request);
+            payment.setId(new ObjectId().toHexString());
+            payment.setTimestamp(now);
+            candidates.add(payment);
+            candidateIndexes.add(i);
+        }
+
+        List<CompletableFuture<PaymentStatus>> decisions = decideInParallel(candidates);
+        for (int i = 0; i < candidates.size(); i++) {
+            Payment payment = candidates.get(i);
+            try {
+                payment.setStatus(decisions.get(i).join());
+                toInsert.add(payment);
+                insertIndexes.add(candidateIndexes.get(i));
+            } catch (CompletionException ex) {
+                if (!(ex.getCause() instanceof ExternalServiceException cause)) {
+                    throw ex;
+                }
+                results[candidateIndexes.get(i)] = BatchPaymentItemResult.failed(payment.getOrderId(), cause.getMessage());
+            }
+        }
+
+        BulkInsertResult insertResult = paymentRepository.insertAllUnordered(toInsert);
+        List<Payment> inserted = new ArrayList<>();
+
+        for (int i = 0; i < toInsert.size(); i++) {
+            Payment payment = toInsert.get(i);
+            Long orderId = payment.getOrderId();
+
+            if (insertResult.duplicateOrderIds().contains(orderId)) {
+                log.warn("Payment already exists for orderId={}", orderId);
+                results[insertIndexes.get(i)] = BatchPaymentItemResult.duplicate(orderId);
+            } else if (insertResult.failedOrderIds().containsKey(orderId)) {
+                results[insertIndexes.get(i)] =
+                        BatchPaymentItemResult.failed(orderId, insertResult.failedOrderIds().get(orderId));
+            } else {
+                results[insertIndexes.get(i)] = BatchPaymentItemResult.created(paymentMapper.toDto(payment));
+                inserted.add(payment);
+            }
+        }
+        addToRollups(inserted);
+        paymentWindowStatistics.record(inserted);
+        paymentCache.invalidate(inserted);
+        knownOrderIdFilter.record(inserted);
+
+        List<BatchPaymentItemResult> batchResults = Arrays.asList(results);
+        List<PaymentResponse> created = batchResults.stream()
+                .filter(result -> result.result() == BatchItemStatus.CREATED)
+                .map(BatchPaymentItemResult::payment)
+                .toList();
+        appendToOutbox(created);
+
+        log.info("Bulk payment creation finished: requested={}, inserted={}", requests.size(), created.size());
+        return batchResults;
     }
 
     @Override
@@ -78,8 +279,7 @@ public class PaymentServiceImpl implements PaymentService {
     @Transactional(readOnly = true)
     public List<PaymentResponse> getPaymentsByUserId(Long userId) {
         log.debug("Getting payment for userId={}", userId);
-        List<Payment> payments = paymentRepository.findByUserId(userId);
-        return paymentMapper.toDtoList(payments);
+        return paymentRepository.findResponsesByUserId(userId);
     }
 
     @Override
@@ -90,12 +290,19 @@ public class PaymentServiceImpl implements PaymentService {
         return payments.map(paymentMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PaymentSliceResponse getPaymentsByUserId(Long userId, String pageToken, int size) {
+        log.debug("Getting payment slice for userId={}, size={}", userId, size);
+        List<PaymentResponse> payments = paymentRepository.findSliceByUserId(userId, PaymentCursor.decode(pageToken), size + 1);
+        return toSlice(payments, size);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<PaymentResponse> getPaymentsByStatus(PaymentStatus status) {
         log.debug("Getting payments with status={}", status);
-        List<Payment> payments = paymentRepository.findByStatus(status);
-        return paymentMapper.toDtoList(payments);
+        return paymentRepository.findResponsesByStatus(status);
     }
 
     @Override
@@ -107,68 +314,286 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    public PaymentSliceResponse getPaymentsByStatus(PaymentStatus status, String pageToken, int size) {
+        log.debug("Getting payment slice for status={}, size={}", status, size);
+        List<PaymentResponse> payments = paymentRepository.findSliceByStatus(status, PaymentCursor.decode(pageToken), size + 1);
+        return toSlice(payments, size);
+    }
+
+    /**
+     * Not transactional on purpose, a cursor read can outlive the transaction lifetime limit of the server
+     */
+    @Override
+    public void forEachPayment(Long userId, PaymentStatus status, Consumer<PaymentResponse> action) {
+        log.debug("Streaming payments for userId={}, status={}", userId, status);
+        try (Stream<PaymentResponse> payments = paymentRepository.streamResponses(userId, status)) {
+            payments.forEach(action);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public PaymentSummaryResponse getTotalAmountByUserAndDateRange(Long userId, LocalDateTime from, LocalDateTime to) {
         log.debug("Calculating total amount for userId={} from {} to {}", userId, from, to);
+        return toSummary(summarize(userId, from, to), userId, from, to);
+    }
 
-        Date fromDate = Date.from(from.atZone(ZoneId.systemDefault()).toInstant());
-        Date toDate = Date.from(to.atZone(ZoneId.systemDefault()).toInstant());
+    @Override
+    @Transactional(readOnly = true)
+    public PaymentSummaryResponse getTotalAmountForDateRange(LocalDateTime from, LocalDateTime to) {
+        log.debug("Calculating total amount for all users from {} to {}", from, to);
+        return toSummary(summarize(null, from, to), null, from, to);
+    }
 
-        BigDecimal totalAmount = paymentRepository.getTotalAmountByUserIdAndDateRange(userId, fromDate, toDate)
-                .map(TotalAmountAggregationResult::totalAmount)
-                .orElse(BigDecimal.ZERO);
+    /**
+     * Full days inside the range come from daily rollups, only the partial days at its edges are aggregated from payments
+     */
+    private Optional<PaymentSummaryAggregationResult> summarize(Long userId, LocalDateTime from, LocalDateTime to) {
+        LocalDate firstFullDay = from.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? from.toLocalDate()
+                : from.toLocalDate().plusDays(1);
+        LocalDate endOfFullDays = to.toLocalDate();
+        if (!rollupEnabled || !firstFullDay.isBefore(endOfFullDays)) {
+            return summarizePayments(userId, from, to);
+        }
+
+        LocalDateTime fullDaysFrom = firstFullDay.atStartOfDay();
+        LocalDateTime fullDaysTo = endOfFullDays.atStartOfDay();
+        Optional<PaymentSummaryAggregationResult> fullDays = userId == null
+                ? paymentDailyRollupRepository.summarizeForDays(toDate(fullDaysFrom), toDate(fullDaysTo))
+                : paymentDailyRollupRepository.summarizeByUserIdAndDays(userId, toDate(fullDaysFrom), toDate(fullDaysTo));
+        // Mongo dates have millisecond precision, so this makes the inclusive head range end right before the first full day
+        Optional<PaymentSummaryAggregationResult> head = from.isBefore(fullDaysFrom)
+                ? summarizePayments(userId, from, fullDaysFrom.minus(1, ChronoUnit.MILLIS))
+                : Optional.empty();
+        Optional<PaymentSummaryAggregationResult> tail = summarizePayments(userId, fullDaysTo, to);
 
-        List<Payment> payments = paymentRepository.findByUserId(userId);
-        long count = payments.stream()
-                .filter(p -> p.getTimestamp().isAfter(from) && p.getTimestamp().isBefore(to))
-                .count();
+        PaymentSummaryAggregationResult result = Stream.of(head, fullDays, tail)
+                .flatMap(Optional::stream)
+                .reduce(PaymentSummaryAggregationResult.EMPTY, PaymentSummaryAggregationResult::combine);
+        return result.paymentsCount() == 0 ? Optional.empty() : Optional.of(result);
+    }
 
+    private Optional<PaymentSummaryAggregationResult> summarizePayments(Long userId, LocalDateTime from, LocalDateTime to) {
+        return userId == null
+                ? paymentRepository.summarizeForDateRange(toDate(from), toDate(to))
+                : paymentRepository.summarizeByUserIdAndDateRange(userId, toDate(from), toDate(to));
+    }
+
+    /**
+     * One payment over the slice size is fetched to know whether there is a next slice
+     */
+    private PaymentSliceResponse toSlice(List<PaymentResponse> payments, int size) {
+        boolean hasNext = payments.size() > size;
+        List<PaymentResponse> content = hasNext ? List.copyOf(payments.subList(0, size)) : payments;
+        return PaymentSliceResponse.builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextToken(hasNext ? PaymentCursor.after(content.getLast()).encode() : null)
+                .build();
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Both ends of the range are inclusive, an empty range gives zero total and count with no min, max and average
+     */
+    private static PaymentSummaryResponse toSummary(Optional<PaymentSummaryAggregationResult> result,
+                                                    Long userId, LocalDateTime from, LocalDateTime to) {
         return PaymentSummaryResponse.builder()
-                .totalAmount(totalAmount)
+                .totalAmount(result.map(PaymentSummaryAggregationResult::totalAmount).orElse(BigDecimal.ZERO))
                 .fromDate(from)
                 .toDate(to)
                 .userId(userId)
-                .paymentsCount(count)
+                .paymentsCount(result.map(PaymentSummaryAggregationResult::paymentsCount).orElse(0L))
+                .minAmount(result.map(PaymentSummaryAggregationResult::minAmount).orElse(null))
+                .maxAmount(result.map(PaymentSummaryAggregationResult::maxAmount).orElse(null))
+                .averageAmount(result.map(PaymentSummaryAggregationResult::averageAmount).orElse(null))
                 .build();
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public PaymentSummaryResponse getTotalAmountForDateRange(LocalDateTime from, LocalDateTime to) {
-        log.debug("Calculating total amount for all users from {} to {}", from, to);
+    private void appendToOutbox(List<PaymentResponse> payments) {
+        if (!outboxEnabled || payments.isEmpty()) {
+            return;
+        }
 
-        Date fromDate = Date.from(from.atZone(ZoneId.systemDefault()).toInstant());
-        Date toDate = Date.from(to.atZone(ZoneId.systemDefault()).toInstant());
+        List<OutboxEvent> entries = payments.stream()
+                .map(PaymentEvent::fromPaymentResponse)
+                .map(OutboxEvent::of)
+                .toList();
+        outboxEventRepository.insert(entries);
+        log.debug("Payment events appended to outbox, size={}", entries.size());
+    }
 
-        BigDecimal totalAmount = paymentRepository.getTotalAmountForDateRange(fromDate, toDate)
-                .map(TotalAmountAggregationResult::totalAmount)
-                .orElse(BigDecimal.ZERO);
+    /**
+     * Decide status first, then write the payment with one insert guarded by the unique order id index
+     * Outside a transaction the insert may be coalesced with concurrent ones into a single bulk insert
+     * Inside one a duplicate-key error would abort the transaction, so an existing order is detected with an upsert
+     */
+    private Payment decideAndInsert(Payment payment) {
+        payment.setStatus(paymentDecisionSelector.decide(payment));
+        Payment inserted;
+        try {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                if (paymentRepository.insertIfAbsent(payment).isPresent()) {
+                    throw alreadyExists(payment.getOrderId());
+                }
+                inserted = payment;
+            } else {
+                inserted = paymentWriteCoalescer.isActive()
+                        ? paymentWriteCoalescer.insert(payment)
+                        : paymentRepository.insert(payment);
+            }
+        } catch (DuplicateKeyException ex) {
+            throw alreadyExists(payment.getOrderId());
+        }
+        addToRollups(List.of(inserted));
+        paymentWindowStatistics.record(List.of(inserted));
+        paymentCache.invalidate(List.of(inserted));
+        knownOrderIdFilter.record(List.of(inserted));
+        return inserted;
+    }
 
-        long count = paymentRepository.findAll().stream()
-                .filter(p -> p.getTimestamp().isAfter(from) && p.getTimestamp().isBefore(to))
-                .count();
+    /**
+     * Store payment as PROCESSING first, then set the decided status with a single findAndModify
+     */
+    private Payment insertProcessingAndDecide(Payment payment) {
+        insertProcessing(payment);
+        return completeProcessing(payment, paymentDecisionSelector.decide(payment));
+    }
 
-        return PaymentSummaryResponse.builder()
-                .totalAmount(totalAmount)
-                .fromDate(from)
-                .toDate(to)
-                .userId(null)
-                .paymentsCount(count)
-                .build();
+    private void insertProcessing(Payment payment) {
+        payment.setStatus(PaymentStatus.PROCESSING);
+        try {
+            if (paymentRepository.insertIfAbsent(payment).isPresent()) {
+                throw alreadyExists(payment.getOrderId());
+            }
+        } catch (DuplicateKeyException ex) {
+            throw alreadyExists(payment.getOrderId());
+        }
+        addToRollups(List.of(payment));
+        paymentCache.invalidate(List.of(payment));
+        knownOrderIdFilter.record(List.of(payment));
+        log.debug("Payment saved, id={}", payment.getId());
+    }
+
+    private Payment completeProcessing(Payment payment, PaymentStatus finalStatus) {
+        return tryCompleteProcessing(payment, finalStatus)
+                .orElseThrow(() -> new PaymentProcessingException(
+                        "Payment " + payment.getId() + " left PROCESSING state concurrently"));
+    }
+
+    /**
+     * Move payment out of PROCESSING unless someone else already did
+     * @return completed payment, empty if it was no longer PROCESSING
+     */
+    private Optional<Payment> tryCompleteProcessing(Payment payment, PaymentStatus finalStatus) {
+        Optional<Payment> completed =
+                paymentRepository.updateStatus(payment.getId(), PaymentStatus.PROCESSING, finalStatus);
+        completed.ifPresent(updated -> {
+            if (rollupEnabled) {
+                paymentDailyRollupRepository.moveStatus(updated, PaymentStatus.PROCESSING);
+            }
+            paymentWindowStatistics.record(List.of(updated));
+            paymentCache.invalidate(List.of(updated));
+        });
+        return completed;
+    }
+
+    private void addToRollups(List<Payment> payments) {
+        if (rollupEnabled) {
+            paymentDailyRollupRepository.addAll(payments);
+        }
+    }
+
+    /**
+     * Decide status of a PROCESSING payment, a failed decision marks the payment FAILED
+     * so that waiting clients always get an answer
+     * Runs on a background thread, so status change and outbox entry are written in a programmatic transaction,
+     * the decision is taken before it to keep the transaction short
+     */
+    private PaymentResponse resolve(Payment payment) {
+        PaymentStatus finalStatus;
+        try {
+            finalStatus = paymentDecisionSelector.decide(payment);
+        } catch (ExternalServiceException ex) {
+            log.error("Failed to decide payment status for orderId={}: {}", payment.getOrderId(), ex.getMessage());
+            finalStatus = PaymentStatus.FAILED;
+        }
+
+        PaymentStatus decidedStatus = finalStatus;
+        PaymentResponse response = paymentTransactionOperations.execute(transaction -> {
+            PaymentResponse completed = paymentMapper.toDto(completeProcessing(payment, decidedStatus));
+            appendToOutbox(List.of(completed));
+            return completed;
+        });
+        paymentCompletionNotifier.publish(response);
+        log.info("Payment resolved: id={}, status={}", response.id(), response.status());
+        return response;
     }
 
-    private PaymentStatus determinePaymentStatus() {
+    private void resolveInBackground(Payment payment) {
         try {
-            Integer randomNumber = randomOrgClient.generateRandomNumber();
-            boolean isEven = randomOrgClient.isEven(randomNumber);
+            resolve(payment);
+        } catch (RuntimeException ex) {
+            log.error("Failed to resolve payment id={}, it stays PROCESSING", payment.getId(), ex);
+        }
+    }
+
+    private static boolean isResolved(PaymentResponse payment) {
+        return payment.status() != PaymentStatus.PROCESSING && payment.status() != PaymentStatus.PENDING;
+    }
+
+    private PaymentAlreadyExistsException alreadyExists(Long orderId) {
+        log.warn("Payment already exists for orderId={}", orderId);
+        return new PaymentAlreadyExistsException("Payment already exists for orderId=" + orderId);
+    }
 
-            PaymentStatus status = isEven ? PaymentStatus.SUCCESS : PaymentStatus.FAILED;
-            log.info("Random number: {}, status: {}", randomNumber, status);
+    /**
+     * Decide statuses concurrently so remote calls overlap, at most decision-concurrency of them at once
+     */
+    private List<CompletableFuture<PaymentStatus>> decideInParallel(List<Payment> payments) {
+        Semaphore permits = new Semaphore(decisionConcurrency);
+        List<CompletableFuture<PaymentStatus>> decisions = new ArrayList<>(payments.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Payment payment : payments) {
+                permits.acquireUninterruptibly();
+                decisions.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return paymentDecisionSelector.decide(payment);
+                    } finally {
+                        permits.release();
+                    }
+                }, executor));
+            }
+        }
+        return decisions;
+    }
+
+    /**
+     * Read only order ids the filter cannot rule out, a stale filter costs a duplicate-key rejection on insert
+     * Inside a transaction that rejection aborts the whole batch, so every order id is read there
+     */
+    private Set<Long> findExistingOrderIds(List<CreatePaymentRequest> requests) {
+        boolean filtered = !TransactionSynchronizationManager.isActualTransactionActive();
+        Set<Long> orderIds = requests.stream()
+                .map(CreatePaymentRequest::orderId)
+                .filter(orderId -> !filtered || !knownOrderIdFilter.isDefinitelyNew(orderId))
+                .collect(Collectors.toSet());
+        if (orderIds.isEmpty()) {
+            return new HashSet<>();
+        }
 
-            return status;
-        } catch (RestClientException ex) {
-            log.error("Failed to call Random.org API, setting payment status to FAILED: {}", ex.getMessage());
-            throw new ExternalServiceException("Failed to process payment: external service unavailable", ex);
+        Set<Long> existing = paymentRepository.findOrderIdsByOrderIdIn(orderIds).stream()
+                .map(Payment::getOrderId)
+                .collect(Collectors.toCollection(HashSet::new));
+        if (filtered) {
+            knownOrderIdFilter.recordFalsePositives(orderIds.size() - existing.size());
         }
+        return existing;
     }
 }
@@ -0,0 +1,82 @@
+package com.innowise.paymentservice.service.statistics;
+
+import com.innowise.paymentservice.dto.PaymentWindowStatisticsResponse;
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Counts finalized payments and their amounts over the last minutes, kept in memory for dashboards
+ * Amounts are stored in minor units, window reads walk the buckets and allocate nothing
+ */
+@Component
+public class PaymentWindowStatistics {
+
+    private static final int AMOUNT_SCALE = 2;
+    private static final double MINOR_UNITS = Math.pow(10, AMOUNT_SCALE);
+    private static final List<PaymentStatus> REPORTED_STATUSES = List.of(PaymentStatus.SUCCESS, PaymentStatus.FAILED);
+
+    private final SecondBuckets buckets;
+
+    public PaymentWindowStatistics(
+            MeterRegistry meterRegistry,
+            @Value("${payment.statistics.window-minutes:5,15,60}") List<Integer> windowMinutes
+    ) {
+        int maxMinutes = windowMinutes.stream().mapToInt(Integer::intValue).max().orElse(60);
+        this.buckets = new SecondBuckets(maxMinutes * 60, Clock.systemUTC());
+
+        for (int minutes : windowMinutes) {
+            int seconds = minutes * 60;
+            for (PaymentStatus status : REPORTED_STATUSES) {
+                Gauge.builder("payment.window.count", buckets, b -> b.count(status, seconds))
+                        .description("Payments finalized within the window")
+                        .tag("window", minutes + "m")
+                        .tag("status", status.name())
+                        .register(meterRegistry);
+                Gauge.builder("payment.window.amount", buckets, b -> b.amount(status, seconds) / MINOR_UNITS)
+                        .description("Amount of payments finalized within the window")
+                        .tag("window", minutes + "m")
+                        .tag("status", status.name())
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    public void record(Collection<Payment> payments) {
+        for (Payment payment : payments) {
+            buckets.add(payment.getStatus(), toMinorUnits(payment.getPaymentAmount()));
+        }
+    }
+
+    public boolean supportsWindow(int minutes) {
+        return minutes > 0 && minutes * 60 <= buckets.size();
+    }
+
+    public PaymentWindowStatisticsResponse getStatistics(int minutes) {
+        int seconds = minutes * 60;
+        return PaymentWindowStatisticsResponse.builder()
+                .windowMinutes(minutes)
+                .succeededCount(buckets.count(PaymentStatus.SUCCESS, seconds))
+                .succeededAmount(toAmount(buckets.amount(PaymentStatus.SUCCESS, seconds)))
+                .failedCount(buckets.count(PaymentStatus.FAILED, seconds))
+                .failedAmount(toAmount(buckets.amount(PaymentStatus.FAILED, seconds)))
+                .build();
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal toAmount(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, AMOUNT_SCALE);
+    }
+}
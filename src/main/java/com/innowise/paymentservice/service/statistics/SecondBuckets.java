@@ -0,0 +1,93 @@
+package com.innowise.paymentservice.service.statistics;
+
+import com.innowise.paymentservice.enums.PaymentStatus;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ring of per-second buckets with a count and an amount per payment status
+ * A bucket is reset when a later second reuses it, reads skip buckets of seconds outside the window
+ */
+class SecondBuckets {
+
+    private static final int STATUSES = PaymentStatus.values().length;
+
+    private final Clock clock;
+    private final int size;
+    private final AtomicLongArray bucketSeconds;
+    private final LongAdder[] counts;
+    private final LongAdder[] amounts;
+
+    SecondBuckets(int size, Clock clock) {
+        this.clock = clock;
+        this.size = size;
+        this.bucketSeconds = new AtomicLongArray(size);
+        this.counts = new LongAdder[size * STATUSES];
+        this.amounts = new LongAdder[size * STATUSES];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+            amounts[i] = new LongAdder();
+        }
+        for (int i = 0; i < size; i++) {
+            bucketSeconds.set(i, -1);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(PaymentStatus status, long amount) {
+        long second = currentSecond();
+        int bucket = (int) (second % size);
+        if (bucketSeconds.get(bucket) != second) {
+            reset(bucket, second);
+        }
+
+        int slot = bucket * STATUSES + status.ordinal();
+        counts[slot].increment();
+        amounts[slot].add(amount);
+    }
+
+    long count(PaymentStatus status, int seconds) {
+        return sum(counts, status, seconds);
+    }
+
+    long amount(PaymentStatus status, int seconds) {
+        return sum(amounts, status, seconds);
+    }
+
+    private long sum(LongAdder[] adders, PaymentStatus status, int seconds) {
+        long now = currentSecond();
+        long total = 0;
+        for (long second = now - Math.min(seconds, size) + 1; second <= now; second++) {
+            int bucket = (int) (second % size);
+            if (bucketSeconds.get(bucket) == second) {
+                total += adders[bucket * STATUSES + status.ordinal()].sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Counters are cleared before the bucket is claimed, so writers of the new second never add to stale values
+     */
+    private void reset(int bucket, long second) {
+        synchronized (counts[bucket * STATUSES]) {
+            if (bucketSeconds.get(bucket) == second) {
+                return;
+            }
+            for (int slot = bucket * STATUSES; slot < (bucket + 1) * STATUSES; slot++) {
+                counts[slot].reset();
+                amounts[slot].reset();
+            }
+            bucketSeconds.set(bucket, second);
+        }
+    }
+
+    private long currentSecond() {
+        return clock.millis() / 1000;
+    }
+}
@@ -0,0 +1,35 @@
+package com.innowise.paymentservice.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs JMH benchmarks of this package with the gc profiler
+ * Run with -Dbenchmarks=true, benchmarks are selected with -Dbenchmark.include (regexp, all by default)
+ */
+@DisplayName("JMH benchmarks")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class BenchmarkRunnerTest {
+
+    @Test
+    @DisplayName("should run benchmarks")
+    void shouldRunBenchmarks() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(System.getProperty("benchmark.include", BenchmarkRunnerTest.class.getPackageName()))
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+
+        assertThat(results).isNotEmpty();
+    }
+}
@@ -0,0 +1,133 @@
+package com.innowise.paymentservice.benchmark;
+
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.kafka.serialization.CompactEventDeserializer;
+import com.innowise.paymentservice.kafka.serialization.CompactEventSerializer;
+import com.innowise.paymentservice.kafka.serialization.OrderCreatedEventCodec;
+import com.innowise.paymentservice.kafka.serialization.PaymentEventCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads the same order and payment events in two ways
+ * json: JsonSerializer and JsonDeserializer as KafkaConfig configured them
+ * compact: the versioned binary format of CompactEventSerializer and CompactEventDeserializer
+ * Message sizes are printed on setup
+ * Run with -Dbenchmarks=true, see BenchmarkRunnerTest, the gc profiler reports allocation per operation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    private static final String TOPIC = "events";
+
+    private final JsonSerializer<OrderCreatedEvent> orderJsonSerializer = new JsonSerializer<>();
+    private final JsonDeserializer<OrderCreatedEvent> orderJsonDeserializer =
+            new JsonDeserializer<>(OrderCreatedEvent.class, false);
+    private final CompactEventSerializer<OrderCreatedEvent> orderCompactSerializer =
+            new CompactEventSerializer<>(new OrderCreatedEventCodec(), orderJsonSerializer, Set.of(TOPIC));
+    private final CompactEventDeserializer<OrderCreatedEvent> orderCompactDeserializer =
+            new CompactEventDeserializer<>(new OrderCreatedEventCodec(), orderJsonDeserializer);
+
+    private final JsonSerializer<PaymentEvent> paymentJsonSerializer = new JsonSerializer<>();
+    private final JsonDeserializer<PaymentEvent> paymentJsonDeserializer =
+            new JsonDeserializer<>(PaymentEvent.class, false);
+    private final CompactEventSerializer<PaymentEvent> paymentCompactSerializer =
+            new CompactEventSerializer<>(new PaymentEventCodec(), paymentJsonSerializer, Set.of(TOPIC));
+    private final CompactEventDeserializer<PaymentEvent> paymentCompactDeserializer =
+            new CompactEventDeserializer<>(new PaymentEventCodec(), paymentJsonDeserializer);
+
+    private OrderCreatedEvent orderEvent;
+    private PaymentEvent paymentEvent;
+    private byte[] orderJson;
+    private byte[] orderCompact;
+    private byte[] paymentJson;
+    private byte[] paymentCompact;
+
+    @Setup
+    public void setUp() {
+        orderEvent = OrderCreatedEvent.builder()
+                .orderId(1_234_567L)
+                .userId(42_317L)
+                .totalAmount(new BigDecimal("1999.90"))
+                .event("ORDER_CREATED")
+                .build();
+        paymentEvent = PaymentEvent.builder()
+                .paymentId(new ObjectId().toHexString())
+                .orderId(1_234_567L)
+                .userId(42_317L)
+                .status(PaymentStatus.SUCCESS)
+                .paymentAmount(new BigDecimal("1999.90"))
+                .timestamp(LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000))
+                .eventType("CREATE_PAYMENT")
+                .build();
+        orderJson = orderJsonSerializer.serialize(TOPIC, orderEvent);
+        orderCompact = orderCompactSerializer.serialize(TOPIC, orderEvent);
+        paymentJson = paymentJsonSerializer.serialize(TOPIC, paymentEvent);
+        paymentCompact = paymentCompactSerializer.serialize(TOPIC, paymentEvent);
+        System.out.printf("OrderCreatedEvent: json %d bytes, compact %d bytes%n", orderJson.length, orderCompact.length);
+        System.out.printf("PaymentEvent: json %d bytes, compact %d bytes%n", paymentJson.length, paymentCompact.length);
+    }
+
+    @Benchmark
+    public byte[] orderEventJsonWrite() {
+        return orderJsonSerializer.serialize(TOPIC, orderEvent);
+    }
+
+    @Benchmark
+    public byte[] orderEventCompactWrite() {
+        return orderCompactSerializer.serialize(TOPIC, orderEvent);
+    }
+
+    @Benchmark
+    public OrderCreatedEvent orderEventJsonRead() {
+        return orderJsonDeserializer.deserialize(TOPIC, orderJson);
+    }
+
+    @Benchmark
+    public OrderCreatedEvent orderEventCompactRead() {
+        return orderCompactDeserializer.deserialize(TOPIC, orderCompact);
+    }
+
+    @Benchmark
+    public byte[] paymentEventJsonWrite() {
+        return paymentJsonSerializer.serialize(TOPIC, paymentEvent);
+    }
+
+    @Benchmark
+    public byte[] paymentEventCompactWrite() {
+        return paymentCompactSerializer.serialize(TOPIC, paymentEvent);
+    }
+
+    @Benchmark
+    public PaymentEvent paymentEventJsonRead() {
+        return paymentJsonDeserializer.deserialize(TOPIC, paymentJson);
+    }
+
+    @Benchmark
+    public PaymentEvent paymentEventCompactRead() {
+        return paymentCompactDeserializer.deserialize(TOPIC, paymentCompact);
+    }
+}
@@ -0,0 +1,121 @@
+package com.innowise.paymentservice.benchmark;
+
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.mapper.PaymentMapper;
+import com.innowise.paymentservice.mapper.PaymentMapperImpl;
+import com.innowise.paymentservice.repository.PaymentResponseCodec;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes the same stored payment documents into responses in two ways
+ * mappingConverter: Document, then Payment through MappingMongoConverter, then PaymentMapper, as the repository did
+ * responseCodec: PaymentResponseCodec reading the BSON stream straight into the record
+ * Run with -Dbenchmarks=true, see BenchmarkRunnerTest, the gc profiler reports allocation per operation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentReadPathBenchmark {
+
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    @Param({"1000"})
+    private int rows;
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final PaymentResponseCodec responseCodec = new PaymentResponseCodec();
+    private final PaymentMapper paymentMapper = new PaymentMapperImpl();
+    private MappingMongoConverter converter;
+    private List<byte[]> documents;
+
+    @Setup
+    public void setUp() {
+        converter = buildConverter();
+        documents = new ArrayList<>(rows);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < rows; i++) {
+            Payment payment = Payment.builder()
+                    .id(new ObjectId().toHexString())
+                    .orderId((long) i)
+                    .userId((long) i % 100)
+                    .status(i % 2 == 0 ? PaymentStatus.SUCCESS : PaymentStatus.FAILED)
+                    .timestamp(start.plusSeconds(i))
+                    .paymentAmount(BigDecimal.valueOf(i % 500 + 1, 2))
+                    .build();
+            Document document = new Document();
+            converter.write(payment, document);
+            documents.add(toBytes(document));
+        }
+    }
+
+    @Benchmark
+    public List<PaymentResponse> mappingConverter() {
+        List<PaymentResponse> responses = new ArrayList<>(documents.size());
+        for (byte[] bytes : documents) {
+            Document document = documentCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), DECODER_CONTEXT);
+            responses.add(paymentMapper.toDto(converter.read(Payment.class, document)));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public List<PaymentResponse> responseCodec() {
+        List<PaymentResponse> responses = new ArrayList<>(documents.size());
+        for (byte[] bytes : documents) {
+            responses.add(responseCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), DECODER_CONTEXT));
+        }
+        return responses;
+    }
+
+    private static MappingMongoConverter buildConverter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    private byte[] toBytes(Document document) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        documentCodec.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+}
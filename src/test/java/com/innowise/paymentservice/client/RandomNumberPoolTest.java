@@ -0,0 +1,127 @@
+package com.innowise.paymentservice.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RandomNumberPool Unit Tests")
+class RandomNumberPoolTest {
+
+    @Mock
+    private RandomOrgClient randomOrgClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RandomNumberPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("should serve numbers from the pool after bulk refill")
+    void shouldServeNumbers_FromPool() {
+        when(randomOrgClient.generateRandomNumbers(8)).thenReturn(List.of(1, 2, 3, 4, 5, 6, 7, 8));
+        pool = new RandomNumberPool(randomOrgClient, meterRegistry, true, 8, 2, 5000);
+
+        pool.init();
+        await().atMost(Duration.ofSeconds(5)).until(() -> meterRegistry
+                .find("randomorg.pool.refill").tag("outcome", "success").timer() != null);
+
+        assertThat(pool.next()).isEqualTo(1);
+        assertThat(pool.next()).isEqualTo(2);
+        verify(randomOrgClient, never()).generateRandomNumber();
+        assertThat(meterRegistry.get("randomorg.pool.size").gauge().value()).isEqualTo(6.0);
+        assertThat(meterRegistry.get("randomorg.pool.refill").tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should call Random.org directly when pool is empty")
+    void shouldFallBackToSingleCall_WhenPoolIsEmpty() {
+        when(randomOrgClient.generateRandomNumbers(anyInt())).thenThrow(new RestClientException("down"));
+        when(randomOrgClient.generateRandomNumber()).thenReturn(42);
+        pool = new RandomNumberPool(randomOrgClient, meterRegistry, true, 8, 2, 5000);
+
+        pool.init();
+
+        assertThat(pool.next()).isEqualTo(42);
+        await().atMost(Duration.ofSeconds(5)).until(() -> meterRegistry
+                .find("randomorg.pool.refill").tag("outcome", "failure").timer() != null);
+        assertThat(meterRegistry.get("randomorg.pool.misses").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("should delegate every call to Random.org when disabled")
+    void shouldDelegateToClient_WhenDisabled() {
+        when(randomOrgClient.generateRandomNumber()).thenReturn(7);
+        pool = new RandomNumberPool(randomOrgClient, meterRegistry, false, 8, 2, 5000);
+
+        pool.init();
+
+        assertThat(pool.next()).isEqualTo(7);
+        verify(randomOrgClient, never()).generateRandomNumbers(anyInt());
+    }
+
+    @Test
+    @DisplayName("ring buffer should hand out every value exactly once under concurrent access")
+    void ringBuffer_ShouldHandOutEveryValueOnce() throws Exception {
+        IntRingBuffer buffer = new IntRingBuffer(64);
+        int total = 20_000;
+        Set<Integer> taken = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(4);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(6)) {
+            executor.execute(() -> IntStream.range(0, total / 2).forEach(i -> offerSpinning(buffer, i)));
+            executor.execute(() -> IntStream.range(total / 2, total).forEach(i -> offerSpinning(buffer, i)));
+            for (int c = 0; c < 4; c++) {
+                executor.execute(() -> {
+                    while (taken.size() < total) {
+                        Integer value = buffer.poll();
+                        if (value != null) {
+                            assertThat(taken.add(value)).isTrue();
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(taken).hasSize(total);
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.capacity()).isEqualTo(64);
+    }
+
+    private static void offerSpinning(IntRingBuffer buffer, int value) {
+        while (!buffer.offer(value)) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -1,63 +1,82 @@
 package com.innowise.paymentservice.client;
 
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.Mockito.verify;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
-@ExtendWith(MockitoExtension.class)
 @DisplayName("RandomOrgClient Unit Tests")
 class RandomOrgClientTest {
 
-    @Mock
-    private RestTemplate restTemplate;
+    private static WireMockServer wireMockServer;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
     private RandomOrgClient randomOrgClient;
 
-    private static final String apiUrl = "https://www.random.org/integers/?num=1&min=1&max=100&col=1&base=10&format=plain";
+    @BeforeAll
+    static void startWireMock() {
+        wireMockServer = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+        wireMockServer.start();
+    }
+
+    @AfterAll
+    static void stopWireMock() {
+        wireMockServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer.resetAll();
+        randomOrgClient = client(true, 5);
+    }
 
     @Test
     @DisplayName("should generate random number successfully")
     void shouldGenerateRandomNumber_Successfully() {
-        ReflectionTestUtils.setField(randomOrgClient, "randomOrgUrl", apiUrl);
-
-        when(restTemplate.getForObject(apiUrl, String.class)).thenReturn("42");
+        stubRandom("42");
 
         Integer result = randomOrgClient.generateRandomNumber();
 
         assertThat(result).isEqualTo(42);
-        verify(restTemplate).getForObject(apiUrl, String.class);
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo("/random")));
+        assertThat(meterRegistry.get("randomorg.http.requests")
+                .tag("attempt", "primary").tag("outcome", "success").timer().count()).isEqualTo(1);
     }
 
     @Test
     @DisplayName("should handle response with whitespace")
     void shouldHandleResponse_WithWhitespace() {
-        ReflectionTestUtils.setField(randomOrgClient, "randomOrgUrl", apiUrl);
-
-        when(restTemplate.getForObject(apiUrl, String.class)).thenReturn("  25  \n");
+        stubRandom("  25  \n");
 
-        Integer result = randomOrgClient.generateRandomNumber();
-
-        assertThat(result).isEqualTo(25);
+        assertThat(randomOrgClient.generateRandomNumber()).isEqualTo(25);
     }
 
     @Test
     @DisplayName("should throw RestClientException when API returns empty response")
     void shouldThrowException_WhenEmptyResponse() {
-        ReflectionTestUtils.setField(randomOrgClient, "randomOrgUrl", apiUrl);
-
-        when(restTemplate.getForObject(apiUrl, String.class)).thenReturn("");
+        stubRandom("");
 
         assertThatThrownBy(() -> randomOrgClient.generateRandomNumber())
                 .isInstanceOf(RestClientException.class)
@@ -65,40 +84,119 @@ class RandomOrgClientTest {
     }
 
     @Test
-    @DisplayName("should throw RestClientException when API returns null")
-    void shouldThrowException_WhenNullResponse() {
-        ReflectionTestUtils.setField(randomOrgClient, "randomOrgUrl", apiUrl);
+    @DisplayName("should throw RestClientException when response is not a number")
+    void shouldThrowException_WhenInvalidNumberFormat() {
+        stubRandom("not-a-number");
 
-        when(restTemplate.getForObject(apiUrl, String.class)).thenReturn(null);
+        assertThatThrownBy(() -> randomOrgClient.generateRandomNumber())
+                .isInstanceOf(RestClientException.class)
+                .hasMessageContaining("Invalid response format");
+    }
+
+    @Test
+    @DisplayName("should throw RestClientException when API call fails")
+    void shouldThrowException_WhenApiCallFails() {
+        wireMockServer.stubFor(get(urlEqualTo("/random")).willReturn(aResponse().withStatus(503)));
 
         assertThatThrownBy(() -> randomOrgClient.generateRandomNumber())
                 .isInstanceOf(RestClientException.class)
-                .hasMessageContaining("empty response");
+                .hasMessageContaining("503");
+        assertThat(meterRegistry.get("randomorg.http.requests")
+                .tag("outcome", "failure").timer().count()).isEqualTo(1);
     }
 
     @Test
-    @DisplayName("should throw RestClientException when response is not a number")
-    void shouldThrowException_WhenInvalidNumberFormat() {
-        ReflectionTestUtils.setField(randomOrgClient, "randomOrgUrl", apiUrl);
+    @DisplayName("should parse numbers from bulk response")
+    void shouldGenerateRandomNumbers_FromBulkResponse() {
+        wireMockServer.stubFor(get(urlEqualTo("/bulk?num=3")).willReturn(aResponse()
+                .withStatus(200)
+                .withBody("4\n17\n\n88\n")));
+
+        List<Integer> result = randomOrgClient.generateRandomNumbers(3);
 
-        when(restTemplate.getForObject(apiUrl, String.class)).thenReturn("not-a-number");
+        assertThat(result).containsExactly(4, 17, 88);
+    }
 
+    @Test
+    @DisplayName("should send hedged request when primary is slower than hedge delay")
+    void shouldSendHedgedRequest_WhenPrimaryIsSlow() {
+        wireMockServer.stubFor(get(urlEqualTo("/random")).willReturn(aResponse()
+                .withStatus(200)
+                .withBody("8")
+                .withFixedDelay(400)));
+
+        assertThat(randomOrgClient.generateRandomNumber()).isEqualTo(8);
+
+        assertThat(meterRegistry.get("randomorg.http.hedged").counter().count()).isEqualTo(1.0);
+        wireMockServer.verify(2, getRequestedFor(urlEqualTo("/random")));
+    }
+
+    @Test
+    @DisplayName("should coalesce concurrent calls and hand out distinct numbers")
+    void shouldCoalesceConcurrentCalls() {
+        randomOrgClient = client(false, 5);
+        wireMockServer.stubFor(get(urlEqualTo("/random")).willReturn(aResponse()
+                .withStatus(200)
+                .withBody("1")
+                .withFixedDelay(200)));
+        wireMockServer.stubFor(get(urlPathEqualTo("/bulk")).willReturn(aResponse()
+                .withStatus(200)
+                .withBody("2\n3\n4\n5\n6\n7\n8\n9\n10\n11")));
+
+        List<CompletableFuture<Integer>> futures = IntStream.range(0, 10)
+                .mapToObj(i -> randomOrgClient.generateRandomNumberAsync())
+                .toList();
+
+        List<Integer> numbers = futures.stream().map(CompletableFuture::join).toList();
+
+        assertThat(numbers).containsExactlyInAnyOrder(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo("/random")));
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo("/bulk?num=9")));
+    }
+
+    @Test
+    @DisplayName("should open circuit breaker after consecutive failures")
+    void shouldOpenCircuitBreaker_AfterFailures() {
+        randomOrgClient = client(false, 2);
+        wireMockServer.stubFor(get(urlEqualTo("/random")).willReturn(aResponse().withStatus(500)));
+
+        assertThatThrownBy(() -> randomOrgClient.generateRandomNumber()).isInstanceOf(RestClientException.class);
+        assertThatThrownBy(() -> randomOrgClient.generateRandomNumber()).isInstanceOf(RestClientException.class);
         assertThatThrownBy(() -> randomOrgClient.generateRandomNumber())
                 .isInstanceOf(RestClientException.class)
-                .hasMessageContaining("Invalid response format");
+                .hasMessageContaining("circuit breaker is open");
+
+        wireMockServer.verify(2, getRequestedFor(urlEqualTo("/random")));
+        assertThat(meterRegistry.get("randomorg.http.rejected").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("randomorg.http.circuit.open").gauge().value()).isEqualTo(1.0);
     }
 
     @Test
-    @DisplayName("should throw RestClientException when API call fails")
-    void shouldThrowException_WhenApiCallFails() {
-        ReflectionTestUtils.setField(randomOrgClient, "randomOrgUrl", apiUrl);
+    @DisplayName("should fail waiting callers and accept new ones when the request cannot be sent")
+    void shouldFailWaitingCallers_WhenRequestThrows() {
+        HttpClient httpClient = mock(HttpClient.class);
+        when(httpClient.sendAsync(any(), any())).thenThrow(new IllegalArgumentException("invalid request"));
+        randomOrgClient = client(httpClient, false, 5, 5_000);
+
+        assertThat(randomOrgClient.generateRandomNumberAsync()).failsWithin(Duration.ofSeconds(1));
+        assertThat(randomOrgClient.generateRandomNumberAsync()).failsWithin(Duration.ofSeconds(1));
+        assertThatThrownBy(() -> randomOrgClient.generateRandomNumber())
+                .isInstanceOf(RestClientException.class)
+                .hasMessageContaining("invalid request");
+    }
 
-        when(restTemplate.getForObject(apiUrl, String.class))
-                .thenThrow(new RestClientException("Connection timeout"));
+    @Test
+    @DisplayName("should stop waiting for Random.org after the await timeout")
+    void shouldThrowException_WhenAwaitTimesOut() {
+        randomOrgClient = client(HttpClient.newHttpClient(), false, 5, 200);
+        wireMockServer.stubFor(get(urlEqualTo("/random")).willReturn(aResponse()
+                .withStatus(200)
+                .withBody("1")
+                .withFixedDelay(1_500)));
 
         assertThatThrownBy(() -> randomOrgClient.generateRandomNumber())
                 .isInstanceOf(RestClientException.class)
-                .hasMessageContaining("Connection timeout");
+                .hasMessageContaining("Timed out");
     }
 
     @Test
@@ -119,4 +217,33 @@ class RandomOrgClientTest {
         assertThat(randomOrgClient.isEven(99)).isFalse();
         assertThat(randomOrgClient.isEven(-1)).isFalse();
     }
-}
\ No newline at end of file
+
+    private RandomOrgClient client(boolean hedging, int failureThreshold) {
+        return client(HttpClient.newHttpClient(), hedging, failureThreshold, 5_000);
+    }
+
+    private RandomOrgClient client(HttpClient httpClient, boolean hedging, int failureThreshold, long awaitTimeoutMillis) {
+        String baseUrl = "http://localhost:" + wireMockServer.port();
+        meterRegistry = new SimpleMeterRegistry();
+        return new RandomOrgClient(
+                httpClient,
+                meterRegistry,
+                baseUrl + "/random",
+                baseUrl + "/bulk?num={num}",
+                2000,
+                awaitTimeoutMillis,
+                hedging,
+                100,
+                20,
+                failureThreshold,
+                60_000
+        );
+    }
+
+    private void stubRandom(String body) {
+        wireMockServer.stubFor(get(urlEqualTo("/random")).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "text/plain")
+                .withBody(body)));
+    }
+}
@@ -0,0 +1,55 @@
+package com.innowise.paymentservice.controller;
+
+import com.innowise.paymentservice.dto.DltReplayResponse;
+import com.innowise.paymentservice.service.OrderEventDltReplayService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DeadLetterController Unit Tests")
+class DeadLetterControllerTest {
+
+    @Mock
+    private OrderEventDltReplayService replayService;
+
+    @InjectMocks
+    private DeadLetterController controller;
+
+    @Test
+    @DisplayName("should return the replay result for the requested number of events")
+    void shouldReturnReplayResult() {
+        DltReplayResponse result = DltReplayResponse.builder()
+                .replayed(3)
+                .duplicates(1)
+                .build();
+        when(replayService.replay(50)).thenReturn(result);
+
+        ResponseEntity<DltReplayResponse> response = controller.replayOrderEvents(50);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(result);
+        verify(replayService).replay(50);
+    }
+
+    @Test
+    @DisplayName("should allow replay for admins only")
+    void shouldRequireAdminRole() throws NoSuchMethodException {
+        PreAuthorize preAuthorize = DeadLetterController.class
+                .getMethod("replayOrderEvents", int.class)
+                .getAnnotation(PreAuthorize.class);
+
+        assertThat(preAuthorize).isNotNull();
+        assertThat(preAuthorize.value()).isEqualTo("hasRole('ADMIN')");
+    }
+}
@@ -0,0 +1,95 @@
+package com.innowise.paymentservice.controller;
+
+import com.innowise.paymentservice.enums.PaymentExportFormat;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.service.PaymentStreamWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentController Unit Tests")
+class PaymentControllerTest {
+
+    private static final long STREAMING_TIMEOUT_MILLIS = 1_800_000;
+
+    @Mock
+    private PaymentStreamWriter paymentStreamWriter;
+
+    @InjectMocks
+    private PaymentController controller;
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "streamingTimeoutMillis", STREAMING_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    @DisplayName("should stream the users payments with the streaming timeout once the task runs")
+    void shouldStreamUserPayments_WithStreamingTimeout() throws Exception {
+        doAnswer(invocation -> write(invocation.getArgument(0), "[]"))
+                .when(paymentStreamWriter).writeJsonArray(any(OutputStream.class), eq(1L), isNull());
+
+        WebAsyncTask<Void> task = controller.getPaymentsByUserId(1L, response);
+
+        assertThat(task.getTimeout()).isEqualTo(STREAMING_TIMEOUT_MILLIS);
+        verifyNoInteractions(paymentStreamWriter);
+        task.getCallable().call();
+        assertThat(response.getContentType()).isEqualTo("application/json");
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    @Test
+    @DisplayName("should stream the payments by status with the streaming timeout")
+    void shouldStreamPaymentsByStatus_WithStreamingTimeout() throws Exception {
+        doAnswer(invocation -> write(invocation.getArgument(0), "[]"))
+                .when(paymentStreamWriter).writeJsonArray(any(OutputStream.class), isNull(), eq(PaymentStatus.FAILED));
+
+        WebAsyncTask<Void> task = controller.getPaymentsByStatus(PaymentStatus.FAILED, response);
+        task.getCallable().call();
+
+        assertThat(task.getTimeout()).isEqualTo(STREAMING_TIMEOUT_MILLIS);
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    @Test
+    @DisplayName("should export payments as a CSV attachment with the streaming timeout")
+    void shouldExportCsvAttachment_WithStreamingTimeout() throws Exception {
+        doAnswer(invocation -> write(invocation.getArgument(0), "id,orderId\n"))
+                .when(paymentStreamWriter).writeCsv(any(OutputStream.class), eq(1L), isNull());
+
+        WebAsyncTask<Void> task = controller.exportPayments(1L, null, PaymentExportFormat.CSV, response);
+        task.getCallable().call();
+
+        assertThat(task.getTimeout()).isEqualTo(STREAMING_TIMEOUT_MILLIS);
+        assertThat(response.getContentType()).startsWith("text/csv");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION))
+                .isEqualTo("attachment; filename=\"payments.csv\"");
+        assertThat(response.getContentAsString()).isEqualTo("id,orderId\n");
+    }
+
+    private static Void write(OutputStream out, String content) throws Exception {
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+        return null;
+    }
+}
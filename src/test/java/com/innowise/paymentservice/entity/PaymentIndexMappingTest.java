@@ -0,0 +1,44 @@
+package com.innowise.paymentservice.entity;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Auto index creation fails startup with IndexOptionsConflict when a mapped index has the keys
+ * of a changelog index under another name, mapped indexes must use the changelog names
+ */
+@DisplayName("Payment index mapping Unit Tests")
+class PaymentIndexMappingTest {
+
+    @Test
+    @DisplayName("should map every payments index with the name and keys the changelogs create")
+    void shouldMatchChangelogIndexes() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        mappingContext.setAutoIndexCreation(true);
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+
+        Map<String, Document> indexes = StreamSupport.stream(resolver.resolveIndexFor(Payment.class).spliterator(), false)
+                .collect(Collectors.toMap(index -> index.getIndexOptions().getString("name"), IndexDefinition::getIndexKeys));
+
+        assertThat(indexes).containsOnly(
+                Map.entry("order_id", new Document("order_id", 1)),
+                Map.entry("idx_status", new Document("status", 1)),
+                Map.entry("idx_timestamp_desc", new Document("timestamp", -1)),
+                Map.entry("user_id_timestamp_id", new Document("user_id", 1).append("timestamp", 1).append("_id", 1)),
+                Map.entry("status_timestamp_id", new Document("status", 1).append("timestamp", 1).append("_id", 1))
+        );
+    }
+}
@@ -45,9 +45,11 @@ public abstract class BaseIntegrationTest {
 
         registry.add("randomorg.api.url",
                 () -> "http://localhost:" + wireMockServer.port() + "/random");
+        registry.add("randomorg.pool.enabled", () -> "false");
 
         registry.add("kafka.topics.order-events", () -> "test-order-events");
         registry.add("kafka.topics.payment-events", () -> "test-payment-events");
+        registry.add("kafka.topics.order-events-retry", () -> "test-order-events-retry");
 
         registry.add("spring.kafka.consumer.group-id", () -> "test-payment-service-group");
     }
@@ -0,0 +1,129 @@
+package com.innowise.paymentservice.integration;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Kafka transactional mode Integration Tests")
+@TestPropertySource(properties = "kafka.consumer.transactional.enabled=true")
+class KafkaTransactionalIT extends BaseIntegrationTest {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Value("${kafka.topics.order-events}")
+    private String orderEventsTopic;
+
+    @Value("${kafka.topics.order-events-retry}")
+    private String orderEventsRetryTopic;
+
+    private Producer<String, OrderCreatedEvent> orderProducer;
+    private Consumer<String, OrderCreatedEvent> retryConsumer;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+        resetWireMock();
+
+        Map<String, Object> producerProps = new HashMap<>();
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers());
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+
+        orderProducer = new DefaultKafkaProducerFactory<String, OrderCreatedEvent>(producerProps)
+                .createProducer();
+
+        Map<String, Object> consumerProps = new HashMap<>();
+        consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers());
+        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, "test-retry-consumer-" + UUID.randomUUID());
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        consumerProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, OrderCreatedEvent.class.getName());
+
+        retryConsumer = new DefaultKafkaConsumerFactory<String, OrderCreatedEvent>(consumerProps)
+                .createConsumer();
+        retryConsumer.subscribe(Collections.singletonList(orderEventsRetryTopic));
+        retryConsumer.poll(Duration.ofMillis(100));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (orderProducer != null) {
+            orderProducer.close();
+        }
+        if (retryConsumer != null) {
+            retryConsumer.close();
+        }
+    }
+
+    @Test
+    @DisplayName("should move an order whose listener transaction rolled back to the retry topic")
+    void shouldMoveFailedOrderEvent_ToRetryTopic() {
+        wireMockServer.stubFor(WireMock.get(urlEqualTo("/random"))
+                .willReturn(aResponse()
+                        .withStatus(500)
+                        .withBody("Internal Server Error")));
+
+        OrderCreatedEvent orderEvent = OrderCreatedEvent.builder()
+                .orderId(101L)
+                .userId(1L)
+                .totalAmount(new BigDecimal("100.00"))
+                .event("ORDER_CREATED")
+                .build();
+
+        orderProducer.send(new ProducerRecord<>(orderEventsTopic, "101", orderEvent));
+        orderProducer.flush();
+
+        OrderCreatedEvent retried = pollForOrderEvent(101L, Duration.ofSeconds(20));
+
+        assertThat(retried).isNotNull();
+        assertThat(retried.userId()).isEqualTo(1L);
+        assertThat(retried.totalAmount()).isEqualByComparingTo(new BigDecimal("100.00"));
+    }
+
+    private OrderCreatedEvent pollForOrderEvent(Long orderId, Duration timeout) {
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            for (ConsumerRecord<String, OrderCreatedEvent> record : retryConsumer.poll(Duration.ofMillis(500))) {
+                if (record.value() != null && orderId.equals(record.value().orderId())) {
+                    return record.value();
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,171 @@
+package com.innowise.paymentservice.integration;
+
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.DefaultTransactionIdSuffixStrategy;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the manual ack path with the transactional consume-transform-produce path
+ * Both pipelines run the same transform on their own topics, Mongo and Random.org are left out
+ */
+@DisplayName("Order event transaction benchmark")
+class OrderEventTransactionBenchmarkIT extends BaseIntegrationTest {
+
+    private static final int EVENTS = 2_000;
+
+    @Test
+    @DisplayName("should publish every payment event exactly once in both ack modes and report throughput")
+    void shouldPublishEveryEventOnce_AndReportThroughput() throws Exception {
+        long manualAckMillis = runPipeline(false);
+        long transactionalMillis = runPipeline(true);
+
+        System.out.printf("manual ack: %d events in %d ms (%.0f events/s)%n",
+                EVENTS, manualAckMillis, EVENTS * 1000.0 / manualAckMillis);
+        System.out.printf("transactional: %d events in %d ms (%.0f events/s)%n",
+                EVENTS, transactionalMillis, EVENTS * 1000.0 / transactionalMillis);
+    }
+
+    private long runPipeline(boolean transactional) throws Exception {
+        String suffix = (transactional ? "tx-" : "manual-") + UUID.randomUUID();
+        String inputTopic = "bench-order-events-" + suffix;
+        String outputTopic = "bench-payment-events-" + suffix;
+
+        produceOrderEvents(inputTopic);
+
+        DefaultKafkaProducerFactory<String, PaymentEvent> producerFactory = paymentProducerFactory(transactional);
+        KafkaTemplate<String, PaymentEvent> template = new KafkaTemplate<>(producerFactory);
+
+        ContainerProperties containerProperties = new ContainerProperties(inputTopic);
+        if (transactional) {
+            containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+            containerProperties.setKafkaAwareTransactionManager(new KafkaTransactionManager<>(producerFactory));
+        } else {
+            containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        }
+        containerProperties.setMessageListener((AcknowledgingMessageListener<String, OrderCreatedEvent>) (record, ack) -> {
+            OrderCreatedEvent event = record.value();
+            template.send(outputTopic, record.key(), PaymentEvent.builder()
+                    .paymentId(UUID.randomUUID().toString())
+                    .orderId(event.orderId())
+                    .userId(event.userId())
+                    .status(PaymentStatus.SUCCESS)
+                    .paymentAmount(event.totalAmount())
+                    .timestamp(LocalDateTime.now())
+                    .eventType("CREATE_PAYMENT")
+                    .build());
+            ack.acknowledge();
+        });
+
+        KafkaMessageListenerContainer<String, OrderCreatedEvent> container =
+                new KafkaMessageListenerContainer<>(orderConsumerFactory("bench-" + suffix), containerProperties);
+
+        long start = System.nanoTime();
+        container.start();
+        try (Consumer<String, PaymentEvent> consumer = paymentConsumer(outputTopic)) {
+            Set<Long> orderIds = new HashSet<>();
+            int received = 0;
+            long deadline = System.currentTimeMillis() + Duration.ofSeconds(60).toMillis();
+            while (received < EVENTS && System.currentTimeMillis() < deadline) {
+                for (var record : consumer.poll(Duration.ofMillis(200))) {
+                    orderIds.add(record.value().orderId());
+                    received++;
+                }
+            }
+            long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            assertThat(received).isEqualTo(EVENTS);
+            assertThat(orderIds).hasSize(EVENTS);
+            return Math.max(elapsedMillis, 1);
+        } finally {
+            container.stop();
+            producerFactory.destroy();
+        }
+    }
+
+    private void produceOrderEvents(String topic) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+
+        try (Producer<String, OrderCreatedEvent> producer =
+                     new DefaultKafkaProducerFactory<String, OrderCreatedEvent>(props).createProducer()) {
+            for (long orderId = 1; orderId <= EVENTS; orderId++) {
+                producer.send(new ProducerRecord<>(topic, String.valueOf(orderId), OrderCreatedEvent.builder()
+                        .orderId(orderId)
+                        .userId(orderId % 100)
+                        .totalAmount(new BigDecimal("10.00"))
+                        .event("ORDER_CREATED")
+                        .build()));
+            }
+            producer.flush();
+        }
+    }
+
+    private DefaultKafkaProducerFactory<String, PaymentEvent> paymentProducerFactory(boolean transactional) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+
+        DefaultKafkaProducerFactory<String, PaymentEvent> factory = new DefaultKafkaProducerFactory<>(props);
+        if (transactional) {
+            factory.setTransactionIdPrefix("bench-tx-" + UUID.randomUUID() + "-");
+            factory.setTransactionIdSuffixStrategy(new DefaultTransactionIdSuffixStrategy(8));
+        }
+        return factory;
+    }
+
+    private DefaultKafkaConsumerFactory<String, OrderCreatedEvent> orderConsumerFactory(String groupId) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new JsonDeserializer<>(OrderCreatedEvent.class, false));
+    }
+
+    private Consumer<String, PaymentEvent> paymentConsumer(String topic) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "bench-reader-" + UUID.randomUUID());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+
+        Consumer<String, PaymentEvent> consumer = new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new JsonDeserializer<>(PaymentEvent.class, false)).createConsumer();
+        consumer.subscribe(List.of(topic));
+        return consumer;
+    }
+}
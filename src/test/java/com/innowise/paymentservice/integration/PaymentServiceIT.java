@@ -215,6 +215,9 @@ class PaymentServiceIT extends BaseIntegrationTest {
         assertThat(summary.totalAmount()).isGreaterThanOrEqualTo(new BigDecimal("300.00"));
         assertThat(summary.userId()).isEqualTo(userId);
         assertThat(summary.paymentsCount()).isEqualTo(2L);
+        assertThat(summary.minAmount()).isEqualByComparingTo("100.00");
+        assertThat(summary.maxAmount()).isEqualByComparingTo("200.00");
+        assertThat(summary.averageAmount()).isEqualByComparingTo("150.00");
     }
 
     @Test
@@ -0,0 +1,148 @@
+package com.innowise.paymentservice.integration;
+
+import com.innowise.paymentservice.dto.PaymentSummaryResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import com.innowise.paymentservice.service.PaymentService;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that summaries keep heap usage flat as the payments collection grows
+ * Run with -Dbenchmarks=true, collection size is set with -Dbenchmark.summary.documents
+ */
+@DisplayName("Payment summary benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class PaymentSummaryBenchmarkIT extends BaseIntegrationTest {
+
+    private static final long DOCUMENTS = Long.getLong("benchmark.summary.documents", 10_000_000L);
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final long USERS = 1_000;
+    private static final long MAX_HEAP_GROWTH_BYTES = 64L * 1024 * 1024;
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("should summarize without heap growth proportional to the collection size")
+    void shouldKeepHeapFlat_WhenCollectionGrows() {
+        long smallSize = DOCUMENTS / 10;
+        insertPayments(0, smallSize);
+        long smallGrowth = measureGlobalSummary(smallSize);
+
+        insertPayments(smallSize, DOCUMENTS);
+        long fullGrowth = measureGlobalSummary(DOCUMENTS);
+        long userGrowth = measureUserSummary();
+
+        System.out.printf("global summary heap growth: %d documents %d KB, %d documents %d KB%n",
+                smallSize, smallGrowth / 1024, DOCUMENTS, fullGrowth / 1024);
+        System.out.printf("user summary heap growth: %d KB%n", userGrowth / 1024);
+
+        assertThat(smallGrowth).isLessThan(MAX_HEAP_GROWTH_BYTES);
+        assertThat(fullGrowth).isLessThan(MAX_HEAP_GROWTH_BYTES);
+        assertThat(userGrowth).isLessThan(MAX_HEAP_GROWTH_BYTES);
+    }
+
+    private long measureGlobalSummary(long expectedCount) {
+        long baseline = resetHeapPeak();
+        long start = System.nanoTime();
+        PaymentSummaryResponse summary = paymentService.getTotalAmountForDateRange(START, START.plusYears(10));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long growth = heapPeak() - baseline;
+
+        System.out.printf("global summary over %d documents took %d ms%n", expectedCount, elapsedMillis);
+        assertThat(summary.paymentsCount()).isEqualTo(expectedCount);
+        return growth;
+    }
+
+    private long measureUserSummary() {
+        long baseline = resetHeapPeak();
+        PaymentSummaryResponse summary =
+                paymentService.getTotalAmountByUserAndDateRange(1L, START, START.plusYears(10));
+        long growth = heapPeak() - baseline;
+
+        assertThat(summary.paymentsCount()).isEqualTo(DOCUMENTS / USERS);
+        return growth;
+    }
+
+    private void insertPayments(long fromOrderId, long toOrderId) {
+        List<Document> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (long orderId = fromOrderId; orderId < toOrderId; orderId++) {
+            batch.add(new Document("_id", new ObjectId())
+                    .append("order_id", orderId)
+                    .append("user_id", orderId % USERS)
+                    .append("status", PaymentStatus.SUCCESS.name())
+                    .append("timestamp", Date.from(START.plusSeconds(orderId).atZone(ZoneId.systemDefault()).toInstant()))
+                    .append("payment_amount", new Decimal128(BigDecimal.valueOf(orderId % 500 + 1))));
+
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                mongoTemplate.getCollection("payments").insertMany(batch, new InsertManyOptions().ordered(false));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.getCollection("payments").insertMany(batch, new InsertManyOptions().ordered(false));
+        }
+    }
+
+    private static long resetHeapPeak() {
+        System.gc();
+        long used = 0;
+        for (MemoryPoolMXBean pool : heapPools()) {
+            pool.resetPeakUsage();
+            used += pool.getUsage().getUsed();
+        }
+        return used;
+    }
+
+    private static long heapPeak() {
+        return heapPools().stream()
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+}
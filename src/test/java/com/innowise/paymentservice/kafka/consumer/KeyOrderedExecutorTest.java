@@ -0,0 +1,86 @@
+package com.innowise.paymentservice.kafka.consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("KeyOrderedExecutor Unit Tests")
+class KeyOrderedExecutorTest {
+
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor(64);
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("should run tasks with the same key in submission order")
+    void shouldRunTasks_InOrderPerKey() throws Exception {
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> last = null;
+
+        for (int i = 0; i < 50; i++) {
+            int value = i;
+            last = executor.submit("order-1", () -> {
+                sleepQuietly(value % 3);
+                executed.add(value);
+            });
+        }
+
+        last.get(5, TimeUnit.SECONDS);
+        assertThat(executed).isSorted().hasSize(50);
+    }
+
+    @Test
+    @DisplayName("should run tasks with different keys concurrently")
+    void shouldRunTasks_ConcurrentlyAcrossKeys() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        CompletableFuture<Void> first = executor.submit("order-1", () -> awaitQuietly(bothStarted));
+        CompletableFuture<Void> second = executor.submit("order-2", () -> awaitQuietly(bothStarted));
+
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        assertThat(bothStarted.getCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("should keep running later tasks of a key after a failure")
+    void shouldContinue_AfterFailedTask() throws Exception {
+        List<String> executed = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Void> failed = executor.submit("order-1", () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<Void> next = executor.submit("order-1", () -> executed.add("next"));
+
+        next.get(5, TimeUnit.SECONDS);
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(executed).containsExactly("next");
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.innowise.paymentservice.kafka.consumer;
+
+import com.innowise.paymentservice.dto.BatchPaymentItemResult;
+import com.innowise.paymentservice.dto.CreatePaymentRequest;
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
+import com.innowise.paymentservice.service.PaymentService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderEventBatchConsumer Unit Tests")
+class OrderEventBatchConsumerTest {
+
+    private static final String TOPIC = "order-events";
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentEventProducer producer;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    @InjectMocks
+    private OrderEventBatchConsumer consumer;
+
+    @Test
+    @DisplayName("should create the whole batch, publish its events and acknowledge it")
+    void shouldCreateBatch_AndAcknowledge() {
+        when(paymentService.createPayments(anyList())).thenReturn(List.of(
+                BatchPaymentItemResult.created(paymentResponse(1L)),
+                BatchPaymentItemResult.created(paymentResponse(2L))));
+
+        consumer.handleOrderCreatedEvents(List.of(record(0, 1L), record(1, 2L)), acknowledgment);
+
+        verify(producer).sendPaymentEvents(List.of(
+                PaymentEvent.fromPaymentResponse(paymentResponse(1L)),
+                PaymentEvent.fromPaymentResponse(paymentResponse(2L))));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    @DisplayName("should skip a duplicate without publishing an event for it")
+    void shouldSkipDuplicate_AndAcknowledge() {
+        when(paymentService.createPayments(anyList())).thenReturn(List.of(
+                BatchPaymentItemResult.duplicate(1L),
+                BatchPaymentItemResult.created(paymentResponse(2L))));
+
+        consumer.handleOrderCreatedEvents(List.of(record(0, 1L), record(1, 2L)), acknowledgment);
+
+        verify(producer).sendPaymentEvents(List.of(PaymentEvent.fromPaymentResponse(paymentResponse(2L))));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    @DisplayName("should point the error handler at the first failed record after publishing the created ones")
+    void shouldFailAtFirstFailedRecord_WhenFailureMidBatch() {
+        when(paymentService.createPayments(anyList())).thenReturn(List.of(
+                BatchPaymentItemResult.created(paymentResponse(1L)),
+                BatchPaymentItemResult.failed(2L, "external service unavailable"),
+                BatchPaymentItemResult.failed(3L, "external service unavailable"),
+                BatchPaymentItemResult.created(paymentResponse(4L))));
+        List<ConsumerRecord<String, OrderCreatedEvent>> records =
+                List.of(record(0, 1L), record(1, 2L), record(2, 3L), record(3, 4L));
+
+        assertThatThrownBy(() -> consumer.handleOrderCreatedEvents(records, acknowledgment))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        ex -> assertThat(ex.getIndex()).isEqualTo(1));
+
+        verify(producer).sendPaymentEvents(List.of(
+                PaymentEvent.fromPaymentResponse(paymentResponse(1L)),
+                PaymentEvent.fromPaymentResponse(paymentResponse(4L))));
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    @DisplayName("should process only the records before an unreadable one and point the error handler at it")
+    void shouldStopAtUnreadableRecord() {
+        when(paymentService.createPayments(anyList())).thenReturn(List.of(
+                BatchPaymentItemResult.created(paymentResponse(1L))));
+        List<ConsumerRecord<String, OrderCreatedEvent>> records =
+                List.of(record(0, 1L), record(1, null), record(2, 3L));
+
+        assertThatThrownBy(() -> consumer.handleOrderCreatedEvents(records, acknowledgment))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        ex -> assertThat(ex.getIndex()).isEqualTo(1));
+
+        ArgumentCaptor<List<CreatePaymentRequest>> requests = ArgumentCaptor.captor();
+        verify(paymentService).createPayments(requests.capture());
+        assertThat(requests.getValue()).extracting(CreatePaymentRequest::orderId).containsExactly(1L);
+        verify(producer).sendPaymentEvents(List.of(PaymentEvent.fromPaymentResponse(paymentResponse(1L))));
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    @DisplayName("should point the error handler at a failed record that comes before an unreadable one")
+    void shouldFailAtFailedRecord_WhenItPrecedesUnreadableRecord() {
+        when(paymentService.createPayments(anyList())).thenReturn(List.of(
+                BatchPaymentItemResult.failed(1L, "external service unavailable"),
+                BatchPaymentItemResult.created(paymentResponse(2L))));
+        List<ConsumerRecord<String, OrderCreatedEvent>> records =
+                List.of(record(0, 1L), record(1, 2L), record(2, null));
+
+        assertThatThrownBy(() -> consumer.handleOrderCreatedEvents(records, acknowledgment))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        ex -> assertThat(ex.getIndex()).isZero());
+
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    private static ConsumerRecord<String, OrderCreatedEvent> record(long offset, Long orderId) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, orderId == null ? null : String.valueOf(orderId),
+                orderId == null ? null : orderEvent(orderId));
+    }
+
+    private static OrderCreatedEvent orderEvent(Long orderId) {
+        return OrderCreatedEvent.builder()
+                .orderId(orderId)
+                .userId(1L)
+                .totalAmount(new BigDecimal("100.00"))
+                .event("ORDER_CREATED")
+                .build();
+    }
+
+    private static PaymentResponse paymentResponse(Long orderId) {
+        return PaymentResponse.builder()
+                .id("payment-" + orderId)
+                .orderId(orderId)
+                .userId(1L)
+                .status(PaymentStatus.SUCCESS)
+                .timestamp(LocalDateTime.of(2025, 3, 14, 15, 9))
+                .totalAmount(new BigDecimal("100.00"))
+                .build();
+    }
+}
@@ -0,0 +1,204 @@
+package com.innowise.paymentservice.kafka.consumer;
+
+import com.innowise.paymentservice.dto.CreatePaymentRequest;
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.exception.PaymentAlreadyExistsException;
+import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
+import com.innowise.paymentservice.service.PaymentService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderEventConsumer Unit Tests")
+class OrderEventConsumerTest {
+
+    private static final String TOPIC = "order-events";
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentEventProducer producer;
+
+    @Mock
+    private DeadLetterPublishingRecoverer orderEventRecoverer;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private final PartitionAckWindow ackWindow = new PartitionAckWindow(8);
+
+    private OrderEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new OrderEventConsumer(paymentService, producer, ackWindow, orderEventRecoverer);
+        ReflectionTestUtils.setField(consumer, "ackAfterDelivery", true);
+        ReflectionTestUtils.setField(consumer, "recoveryInitialIntervalMs", 10L);
+        ReflectionTestUtils.setField(consumer, "recoveryMaxIntervalMs", 20L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumer.shutdown();
+    }
+
+    @Test
+    @DisplayName("should acknowledge the record only once its payment event is delivered")
+    void shouldAcknowledge_AfterPaymentEventDelivered() throws Exception {
+        CompletableFuture<Void> delivery = new CompletableFuture<>();
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenReturn(paymentResponse(1L));
+        when(producer.sendPaymentEventAsync(any(PaymentEvent.class))).thenReturn(delivery);
+
+        consumer.handleOrderCreatedEvent(record(0, 1L), acknowledgment);
+
+        verify(acknowledgment, never()).acknowledge();
+        assertThat(ackWindow.inFlight()).isEqualTo(1);
+
+        delivery.complete(null);
+
+        verify(acknowledgment).acknowledge();
+        assertThat(ackWindow.inFlight()).isZero();
+        verifyNoInteractions(orderEventRecoverer);
+    }
+
+    @Test
+    @DisplayName("should publish the event of an already stored payment again for a redelivered order")
+    void shouldRepublishExistingPayment_WhenOrderRedelivered() throws Exception {
+        when(paymentService.createPayment(any(CreatePaymentRequest.class)))
+                .thenThrow(new PaymentAlreadyExistsException("Payment already exists for orderId=1"));
+        when(paymentService.getPaymentByOrderId(1L)).thenReturn(paymentResponse(1L));
+        when(producer.sendPaymentEventAsync(any(PaymentEvent.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        consumer.handleOrderCreatedEvent(record(0, 1L), acknowledgment);
+
+        ArgumentCaptor<PaymentEvent> event = ArgumentCaptor.forClass(PaymentEvent.class);
+        verify(producer).sendPaymentEventAsync(event.capture());
+        assertThat(event.getValue().paymentId()).isEqualTo("payment-1");
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    @DisplayName("should move the record to the retry lane when its payment could not be created")
+    void shouldMoveToRetryLane_WhenPaymentCreationFails() throws Exception {
+        RuntimeException failure = new RuntimeException("Random.org unavailable");
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenThrow(failure);
+        ConsumerRecord<String, OrderCreatedEvent> record = record(0, 1L);
+
+        consumer.handleOrderCreatedEvent(record, acknowledgment);
+
+        verify(orderEventRecoverer).accept(record, failure);
+        verify(acknowledgment).acknowledge();
+        verify(producer, never()).sendPaymentEventAsync(any());
+    }
+
+    @Test
+    @DisplayName("should move the record to the retry lane when its payment event could not be delivered")
+    void shouldMoveToRetryLane_WhenDeliveryFails() throws Exception {
+        KafkaException failure = new KafkaException("broker unavailable");
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenReturn(paymentResponse(1L));
+        when(producer.sendPaymentEventAsync(any(PaymentEvent.class))).thenReturn(CompletableFuture.failedFuture(failure));
+        ConsumerRecord<String, OrderCreatedEvent> record = record(0, 1L);
+
+        consumer.handleOrderCreatedEvent(record, acknowledgment);
+
+        verify(orderEventRecoverer, timeout(2_000)).accept(record, failure);
+        verify(acknowledgment, timeout(2_000)).acknowledge();
+    }
+
+    @Test
+    @DisplayName("should retry moving the record to the retry lane and hold back its ack meanwhile")
+    void shouldRetryRecovery_UntilRetryLaneAcceptsRecord() throws Exception {
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenThrow(new RuntimeException("failed"));
+        doThrow(new KafkaException("retry topic unavailable"))
+                .doThrow(new KafkaException("retry topic unavailable"))
+                .doNothing()
+                .when(orderEventRecoverer).accept(any(), any());
+
+        consumer.handleOrderCreatedEvent(record(0, 1L), acknowledgment);
+
+        verify(acknowledgment, timeout(2_000)).acknowledge();
+        verify(orderEventRecoverer, times(3)).accept(any(), any());
+        assertThat(ackWindow.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("should stop retrying the retry lane once the partition is revoked")
+    void shouldStopRecovery_WhenPartitionRevoked() throws Exception {
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenThrow(new RuntimeException("failed"));
+        doThrow(new KafkaException("retry topic unavailable")).when(orderEventRecoverer).accept(any(), any());
+
+        consumer.handleOrderCreatedEvent(record(0, 1L), acknowledgment);
+        verify(orderEventRecoverer, timeout(2_000).atLeast(2)).accept(any(), any());
+
+        ackWindow.onPartitionsRevoked(List.of(new TopicPartition(TOPIC, 0)));
+        assertThat(ackWindow.inFlight()).isZero();
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        clearInvocations(orderEventRecoverer);
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        verify(orderEventRecoverer, never()).accept(any(), any());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    @DisplayName("should acknowledge synchronously in transactional mode")
+    void shouldAcknowledgeSynchronously_WhenTransactional() throws Exception {
+        ReflectionTestUtils.setField(consumer, "transactional", true);
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenReturn(paymentResponse(1L));
+
+        consumer.handleOrderCreatedEvent(record(0, 1L), acknowledgment);
+
+        verify(producer).sendPaymentEvent(any(PaymentEvent.class));
+        verify(acknowledgment).acknowledge();
+        verify(producer, never()).sendPaymentEventAsync(any());
+        assertThat(ackWindow.inFlight()).isZero();
+    }
+
+    private static ConsumerRecord<String, OrderCreatedEvent> record(long offset, Long orderId) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, String.valueOf(orderId), OrderCreatedEvent.builder()
+                .orderId(orderId)
+                .userId(1L)
+                .totalAmount(new BigDecimal("100.00"))
+                .event("ORDER_CREATED")
+                .build());
+    }
+
+    private static PaymentResponse paymentResponse(Long orderId) {
+        return PaymentResponse.builder()
+                .id("payment-" + orderId)
+                .orderId(orderId)
+                .userId(1L)
+                .status(PaymentStatus.SUCCESS)
+                .timestamp(LocalDateTime.now())
+                .totalAmount(new BigDecimal("100.00"))
+                .build();
+    }
+}
@@ -0,0 +1,181 @@
+package com.innowise.paymentservice.kafka.consumer;
+
+import com.innowise.paymentservice.dto.CreatePaymentRequest;
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.exception.PaymentAlreadyExistsException;
+import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
+import com.innowise.paymentservice.service.PaymentService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderEventParallelConsumer Unit Tests")
+class OrderEventParallelConsumerTest {
+
+    private static final String TOPIC = "order-events";
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentEventProducer producer;
+
+    @Mock
+    private DeadLetterPublishingRecoverer orderEventRecoverer;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor(8);
+
+    private OrderEventParallelConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new OrderEventParallelConsumer(paymentService, producer, executor, orderEventRecoverer);
+        ReflectionTestUtils.setField(consumer, "orderingKey", "order");
+        ReflectionTestUtils.setField(consumer, "recoveryInitialIntervalMs", 10L);
+        ReflectionTestUtils.setField(consumer, "recoveryMaxIntervalMs", 20L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        consumer.shutdown();
+    }
+
+    @Test
+    @DisplayName("should acknowledge the record once its payment event is delivered")
+    void shouldAcknowledge_AfterPaymentEventDelivered() throws Exception {
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenReturn(paymentResponse(1L));
+        when(producer.sendPaymentEventAsync(any(PaymentEvent.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        consumer.handleOrderCreatedEvent(record(0, orderEvent(1L)), acknowledgment);
+
+        verify(acknowledgment, timeout(2_000)).acknowledge();
+        verify(producer).sendPaymentEventAsync(PaymentEvent.fromPaymentResponse(paymentResponse(1L)));
+        verifyNoInteractions(orderEventRecoverer);
+    }
+
+    @Test
+    @DisplayName("should publish the event of an already stored payment again for a redelivered order")
+    void shouldRepublishExistingPayment_WhenOrderRedelivered() throws Exception {
+        when(paymentService.createPayment(any(CreatePaymentRequest.class)))
+                .thenThrow(new PaymentAlreadyExistsException("Payment already exists for orderId=1"));
+        when(paymentService.getPaymentByOrderId(1L)).thenReturn(paymentResponse(1L));
+        when(producer.sendPaymentEventAsync(any(PaymentEvent.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        consumer.handleOrderCreatedEvent(record(0, orderEvent(1L)), acknowledgment);
+
+        verify(acknowledgment, timeout(2_000)).acknowledge();
+        verify(producer).sendPaymentEventAsync(PaymentEvent.fromPaymentResponse(paymentResponse(1L)));
+        verifyNoInteractions(orderEventRecoverer);
+    }
+
+    @Test
+    @DisplayName("should move the record to the retry lane when its payment event could not be delivered")
+    void shouldMoveToRetryLane_WhenDeliveryFails() throws Exception {
+        KafkaException failure = new KafkaException("broker unavailable");
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenReturn(paymentResponse(1L));
+        when(producer.sendPaymentEventAsync(any(PaymentEvent.class))).thenReturn(CompletableFuture.failedFuture(failure));
+        ConsumerRecord<String, OrderCreatedEvent> record = record(0, orderEvent(1L));
+
+        consumer.handleOrderCreatedEvent(record, acknowledgment);
+
+        verify(acknowledgment, timeout(2_000)).acknowledge();
+        verify(orderEventRecoverer).accept(record, failure);
+    }
+
+    @Test
+    @DisplayName("should send a record that failed deserialization to the recoverer without processing it")
+    void shouldRecoverUnreadableRecord() throws Exception {
+        ConsumerRecord<String, OrderCreatedEvent> record = record(0, null);
+
+        consumer.handleOrderCreatedEvent(record, acknowledgment);
+
+        ArgumentCaptor<Exception> failure = ArgumentCaptor.forClass(Exception.class);
+        verify(orderEventRecoverer).accept(eq(record), failure.capture());
+        assertThat(failure.getValue()).isInstanceOf(IllegalStateException.class);
+        verify(acknowledgment).acknowledge();
+        verifyNoInteractions(paymentService, producer);
+    }
+
+    @Test
+    @DisplayName("should retry moving the record to the retry lane and hold back its ack meanwhile")
+    void shouldRetryRecovery_UntilRetryLaneAcceptsRecord() throws Exception {
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenThrow(new RuntimeException("failed"));
+        doThrow(new KafkaException("retry topic unavailable"))
+                .doThrow(new KafkaException("retry topic unavailable"))
+                .doNothing()
+                .when(orderEventRecoverer).accept(any(), any());
+
+        consumer.handleOrderCreatedEvent(record(0, orderEvent(1L)), acknowledgment);
+
+        verify(acknowledgment, timeout(2_000)).acknowledge();
+        verify(orderEventRecoverer, times(3)).accept(any(), any());
+    }
+
+    @Test
+    @DisplayName("should keep processing the same key while a failed record waits for the retry lane")
+    void shouldNotBlockKey_WhileRecoveryRetries() throws Exception {
+        Acknowledgment nextAcknowledgment = mock(Acknowledgment.class);
+        when(paymentService.createPayment(any(CreatePaymentRequest.class)))
+                .thenThrow(new RuntimeException("failed"))
+                .thenReturn(paymentResponse(1L));
+        when(producer.sendPaymentEventAsync(any(PaymentEvent.class))).thenReturn(CompletableFuture.completedFuture(null));
+        doThrow(new KafkaException("retry topic unavailable")).when(orderEventRecoverer).accept(any(), any());
+
+        consumer.handleOrderCreatedEvent(record(0, orderEvent(1L)), acknowledgment);
+        consumer.handleOrderCreatedEvent(record(1, orderEvent(1L)), nextAcknowledgment);
+
+        verify(nextAcknowledgment, timeout(2_000)).acknowledge();
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    private static ConsumerRecord<String, OrderCreatedEvent> record(long offset, OrderCreatedEvent event) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, event == null ? null : String.valueOf(event.orderId()), event);
+    }
+
+    private static OrderCreatedEvent orderEvent(Long orderId) {
+        return OrderCreatedEvent.builder()
+                .orderId(orderId)
+                .userId(1L)
+                .totalAmount(new BigDecimal("100.00"))
+                .event("ORDER_CREATED")
+                .build();
+    }
+
+    private static PaymentResponse paymentResponse(Long orderId) {
+        return PaymentResponse.builder()
+                .id("payment-" + orderId)
+                .orderId(orderId)
+                .userId(1L)
+                .status(PaymentStatus.SUCCESS)
+                .timestamp(LocalDateTime.of(2025, 3, 14, 15, 9))
+                .totalAmount(new BigDecimal("100.00"))
+                .build();
+    }
+}
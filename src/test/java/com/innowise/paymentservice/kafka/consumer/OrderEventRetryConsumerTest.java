@@ -0,0 +1,117 @@
+package com.innowise.paymentservice.kafka.consumer;
+
+import com.innowise.paymentservice.dto.CreatePaymentRequest;
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.exception.ExternalServiceException;
+import com.innowise.paymentservice.exception.PaymentAlreadyExistsException;
+import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
+import com.innowise.paymentservice.service.PaymentService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderEventRetryConsumer Unit Tests")
+class OrderEventRetryConsumerTest {
+
+    private static final String TOPIC = "order-events-retry-backoff-0";
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentEventProducer producer;
+
+    @InjectMocks
+    private OrderEventRetryConsumer retryConsumer;
+
+    @Test
+    @DisplayName("should create the payment and wait for its event to be delivered")
+    void shouldCreatePayment_AndPublishEvent() {
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenReturn(paymentResponse(1L));
+        when(producer.sendPaymentEventAsync(any(PaymentEvent.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        retryConsumer.handleOrderCreatedEventRetry(orderEvent(1L), TOPIC);
+
+        ArgumentCaptor<CreatePaymentRequest> request = ArgumentCaptor.forClass(CreatePaymentRequest.class);
+        verify(paymentService).createPayment(request.capture());
+        assertThat(request.getValue().orderId()).isEqualTo(1L);
+        assertThat(request.getValue().paymentAmount()).isEqualByComparingTo("100.00");
+        verify(producer).sendPaymentEventAsync(PaymentEvent.fromPaymentResponse(paymentResponse(1L)));
+    }
+
+    @Test
+    @DisplayName("should publish the event of an already stored payment again")
+    void shouldRepublishExistingPayment_WhenAlreadyExists() {
+        when(paymentService.createPayment(any(CreatePaymentRequest.class)))
+                .thenThrow(new PaymentAlreadyExistsException("Payment already exists for orderId=1"));
+        when(paymentService.getPaymentByOrderId(1L)).thenReturn(paymentResponse(1L));
+        when(producer.sendPaymentEventAsync(any(PaymentEvent.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        retryConsumer.handleOrderCreatedEventRetry(orderEvent(1L), TOPIC);
+
+        verify(producer).sendPaymentEventAsync(PaymentEvent.fromPaymentResponse(paymentResponse(1L)));
+    }
+
+    @Test
+    @DisplayName("should fail the attempt when the payment could not be created")
+    void shouldFailAttempt_WhenCreationFails() {
+        when(paymentService.createPayment(any(CreatePaymentRequest.class)))
+                .thenThrow(new ExternalServiceException("Failed to process payment: external service unavailable"));
+
+        assertThatThrownBy(() -> retryConsumer.handleOrderCreatedEventRetry(orderEvent(1L), TOPIC))
+                .isInstanceOf(ExternalServiceException.class);
+
+        verify(producer, never()).sendPaymentEventAsync(any());
+    }
+
+    @Test
+    @DisplayName("should fail the attempt when the payment event could not be delivered")
+    void shouldFailAttempt_WhenDeliveryFails() {
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenReturn(paymentResponse(1L));
+        when(producer.sendPaymentEventAsync(any(PaymentEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("broker unavailable")));
+
+        assertThatThrownBy(() -> retryConsumer.handleOrderCreatedEventRetry(orderEvent(1L), TOPIC))
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(KafkaException.class);
+    }
+
+    private static OrderCreatedEvent orderEvent(Long orderId) {
+        return OrderCreatedEvent.builder()
+                .orderId(orderId)
+                .userId(1L)
+                .totalAmount(new BigDecimal("100.00"))
+                .event("ORDER_CREATED")
+                .build();
+    }
+
+    private static PaymentResponse paymentResponse(Long orderId) {
+        return PaymentResponse.builder()
+                .id("payment-" + orderId)
+                .orderId(orderId)
+                .userId(1L)
+                .status(PaymentStatus.SUCCESS)
+                .timestamp(LocalDateTime.of(2025, 3, 14, 15, 9))
+                .totalAmount(new BigDecimal("100.00"))
+                .build();
+    }
+}
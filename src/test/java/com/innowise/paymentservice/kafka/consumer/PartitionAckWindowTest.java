@@ -0,0 +1,127 @@
+package com.innowise.paymentservice.kafka.consumer;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("PartitionAckWindow Unit Tests")
+class PartitionAckWindowTest {
+
+    private final PartitionAckWindow window = new PartitionAckWindow(8);
+
+    @Test
+    @DisplayName("should hold back acks of later records until earlier ones complete")
+    void shouldAcknowledgeContiguousPrefixOnly() throws Exception {
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+        Acknowledgment third = mock(Acknowledgment.class);
+        PartitionAckWindow.Pending pendingFirst = window.track("order-events", 0, 10, first);
+        PartitionAckWindow.Pending pendingSecond = window.track("order-events", 0, 11, second);
+        PartitionAckWindow.Pending pendingThird = window.track("order-events", 0, 15, third);
+
+        pendingThird.complete();
+        pendingSecond.complete();
+
+        verify(first, never()).acknowledge();
+        verify(second, never()).acknowledge();
+        verify(third, never()).acknowledge();
+        assertThat(window.pending("order-events", 0)).isEqualTo(3);
+
+        pendingFirst.complete();
+
+        verify(third).acknowledge();
+        verify(first, never()).acknowledge();
+        verify(second, never()).acknowledge();
+        assertThat(window.pending("order-events", 0)).isZero();
+        assertThat(window.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("should track partitions independently")
+    void shouldTrackPartitionsIndependently() throws Exception {
+        Acknowledgment blocked = mock(Acknowledgment.class);
+        Acknowledgment other = mock(Acknowledgment.class);
+        window.track("order-events", 0, 1, blocked);
+        PartitionAckWindow.Pending pendingOther = window.track("order-events", 1, 1, other);
+
+        pendingOther.complete();
+
+        verify(other).acknowledge();
+        verify(blocked, never()).acknowledge();
+        assertThat(window.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should acknowledge each record once when completed in order")
+    void shouldAcknowledgeInOrder_WhenCompletedInOrder() throws Exception {
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+        PartitionAckWindow.Pending pendingFirst = window.track("order-events", 0, 1, first);
+        PartitionAckWindow.Pending pendingSecond = window.track("order-events", 0, 2, second);
+
+        pendingFirst.complete();
+        pendingFirst.complete();
+        pendingSecond.complete();
+
+        InOrder acks = inOrder(first, second);
+        acks.verify(first).acknowledge();
+        acks.verify(second).acknowledge();
+    }
+
+    @Test
+    @DisplayName("should block tracking when the window is full until a record is acknowledged")
+    void shouldBlockTracking_WhenFull() throws Exception {
+        PartitionAckWindow small = new PartitionAckWindow(1);
+        PartitionAckWindow.Pending held = small.track("order-events", 0, 1, mock(Acknowledgment.class));
+
+        CompletableFuture<PartitionAckWindow.Pending> next = CompletableFuture.supplyAsync(() -> {
+            try {
+                return small.track("order-events", 0, 2, mock(Acknowledgment.class));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(next).isNotDone();
+
+        held.complete();
+
+        assertThat(next.get(5, TimeUnit.SECONDS).offset()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should drop records of revoked partitions and release their slots")
+    void shouldDropRevokedPartitions() throws Exception {
+        Acknowledgment revoked = mock(Acknowledgment.class);
+        Acknowledgment kept = mock(Acknowledgment.class);
+        PartitionAckWindow.Pending pendingRevoked = window.track("order-events", 0, 1, revoked);
+        PartitionAckWindow.Pending pendingKept = window.track("order-events", 1, 1, kept);
+
+        window.onPartitionsRevoked(List.of(new TopicPartition("order-events", 0)));
+        pendingRevoked.complete();
+
+        assertThat(pendingRevoked.isRevoked()).isTrue();
+        assertThat(pendingKept.isRevoked()).isFalse();
+        assertThat(window.pending("order-events", 0)).isZero();
+        assertThat(window.inFlight()).isEqualTo(1);
+        verify(revoked, never()).acknowledge();
+
+        pendingKept.complete();
+
+        verify(kept).acknowledge();
+        assertThat(window.inFlight()).isZero();
+    }
+}
@@ -18,9 +18,11 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -128,4 +130,49 @@ class PaymentEventProducerTest {
 
         verify(kafkaTemplate).send(eq("payment-events"), eq("123"), eq(event));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should complete the returned future only when the broker confirms the event")
+    void shouldCompleteAsyncSend_WithBrokerResult() {
+        ReflectionTestUtils.setField(paymentEventProducer, "paymentEventsTopic", "payment-events");
+
+        PaymentEvent event = PaymentEvent.builder().orderId(1L).status(PaymentStatus.SUCCESS).build();
+        CompletableFuture<SendResult<String, PaymentEvent>> future = new CompletableFuture<>();
+        when(kafkaTemplate.send("payment-events", "1", event)).thenReturn(future);
+
+        CompletableFuture<Void> delivery = paymentEventProducer.sendPaymentEventAsync(event);
+
+        assertThat(delivery).isNotDone();
+        future.completeExceptionally(new RuntimeException("Kafka broker unavailable"));
+        assertThat(delivery).isCompletedExceptionally();
+    }
+
+    @Test
+    @DisplayName("should return a completed future without sending when the outbox publishes events")
+    void shouldNotSendAsync_WhenOutboxEnabled() {
+        ReflectionTestUtils.setField(paymentEventProducer, "outboxEnabled", true);
+
+        PaymentEvent event = PaymentEvent.builder().orderId(1L).status(PaymentStatus.SUCCESS).build();
+
+        assertThat(paymentEventProducer.sendPaymentEventAsync(event)).isCompleted();
+        verify(kafkaTemplate, never()).send(any(String.class), any(String.class), any(PaymentEvent.class));
+    }
+
+    @Test
+    @DisplayName("should send all events and flush once")
+    void shouldSendAllEvents_AndFlushOnce() {
+        ReflectionTestUtils.setField(paymentEventProducer, "paymentEventsTopic", "payment-events");
+
+        PaymentEvent first = PaymentEvent.builder().orderId(1L).status(PaymentStatus.SUCCESS).build();
+        PaymentEvent second = PaymentEvent.builder().orderId(2L).status(PaymentStatus.FAILED).build();
+
+        when(kafkaTemplate.send(eq("payment-events"), any(String.class), any(PaymentEvent.class)))
+                .thenReturn(new CompletableFuture<>());
+
+        paymentEventProducer.sendPaymentEvents(List.of(first, second));
+
+        verify(kafkaTemplate).send("payment-events", "1", first);
+        verify(kafkaTemplate).send("payment-events", "2", second);
+        verify(kafkaTemplate, times(1)).flush();
+    }
+}
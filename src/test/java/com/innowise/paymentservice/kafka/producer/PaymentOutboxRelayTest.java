@@ -0,0 +1,103 @@
+package com.innowise.paymentservice.kafka.producer;
+
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.entity.OutboxEvent;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentOutboxRelay Unit Tests")
+class PaymentOutboxRelayTest {
+
+    private static final String TOPIC = "payment-events";
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, PaymentEvent> outboxKafkaTemplate;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private PaymentOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(relay, "paymentEventsTopic", TOPIC);
+        ReflectionTestUtils.setField(relay, "batchSize", 500);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 100L);
+        ReflectionTestUtils.setField(relay, "leaseMs", 300L);
+    }
+
+    @Test
+    @DisplayName("should reject a lease that does not outlast the send timeout")
+    void shouldRejectLease_NotLongerThanSendTimeout() {
+        ReflectionTestUtils.setField(relay, "leaseMs", 100L);
+
+        assertThatThrownBy(() -> relay.checkLease())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("lease-ms");
+    }
+
+    @Test
+    @DisplayName("should wait for the whole batch at most the send timeout and delete only delivered entries")
+    void shouldBoundBatchWait_BySendTimeout() {
+        List<OutboxEvent> batch = List.of(entry("1", 1L), entry("2", 2L), entry("3", 3L));
+        when(outboxEventRepository.findByOrderByIdAsc(any(Pageable.class))).thenReturn(batch);
+        when(outboxKafkaTemplate.send(eq(TOPIC), eq("1"), any())).thenReturn(delivered());
+        when(outboxKafkaTemplate.send(eq(TOPIC), eq("2"), any())).thenReturn(new CompletableFuture<>());
+        when(outboxKafkaTemplate.send(eq(TOPIC), eq("3"), any())).thenReturn(new CompletableFuture<>());
+
+        long started = System.nanoTime();
+        relay.relay();
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(200);
+        verify(outboxEventRepository).deleteAllById(List.of("1"));
+        verify(outboxKafkaTemplate, never()).flush();
+    }
+
+    private static CompletableFuture<SendResult<String, PaymentEvent>> delivered() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static OutboxEvent entry(String id, Long orderId) {
+        OutboxEvent entry = OutboxEvent.of(PaymentEvent.builder()
+                .paymentId("payment-" + orderId)
+                .orderId(orderId)
+                .userId(1L)
+                .status(PaymentStatus.SUCCESS)
+                .paymentAmount(new BigDecimal("100.00"))
+                .timestamp(LocalDateTime.now())
+                .eventType("CREATE_PAYMENT")
+                .build());
+        entry.setId(id);
+        entry.setKey(id);
+        return entry;
+    }
+}
@@ -0,0 +1,119 @@
+package com.innowise.paymentservice.kafka.serialization;
+
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Compact event serializer and deserializer Unit Tests")
+class CompactEventSerializerTest {
+
+    private static final String COMPACT_TOPIC = "payment-events";
+    private static final String JSON_TOPIC = "payment-events-legacy";
+
+    private final CompactEventSerializer<PaymentEvent> paymentSerializer = new CompactEventSerializer<>(
+            new PaymentEventCodec(), new JsonSerializer<>(), Set.of(COMPACT_TOPIC));
+    private final CompactEventDeserializer<PaymentEvent> paymentDeserializer = new CompactEventDeserializer<>(
+            new PaymentEventCodec(), new JsonDeserializer<>(PaymentEvent.class, false));
+    private final CompactEventSerializer<OrderCreatedEvent> orderSerializer = new CompactEventSerializer<>(
+            new OrderCreatedEventCodec(), new JsonSerializer<>(), Set.of("order-events"));
+    private final CompactEventDeserializer<OrderCreatedEvent> orderDeserializer = new CompactEventDeserializer<>(
+            new OrderCreatedEventCodec(), new JsonDeserializer<>(OrderCreatedEvent.class, false));
+
+    @Test
+    @DisplayName("should round trip a payment event through the compact format in a fraction of the JSON size")
+    void shouldRoundTripPaymentEvent() {
+        PaymentEvent event = paymentEvent("65a1f0c2e4b0a1b2c3d4e5f6");
+
+        byte[] compact = paymentSerializer.serialize(COMPACT_TOPIC, new RecordHeaders(), event);
+        byte[] json = paymentSerializer.serialize(JSON_TOPIC, new RecordHeaders(), event);
+
+        assertThat(compact[0]).isEqualTo((byte) 1);
+        assertThat(json[0]).isEqualTo((byte) '{');
+        assertThat(compact.length).isLessThan(json.length / 3);
+        assertThat(paymentDeserializer.deserialize(COMPACT_TOPIC, new RecordHeaders(), compact)).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("should keep payment ids that are not ObjectIds and skip absent fields")
+    void shouldRoundTripPaymentEvent_WithStringIdAndNulls() {
+        PaymentEvent upperCaseId = paymentEvent("65A1F0C2E4B0A1B2C3D4E5F6");
+        PaymentEvent sparse = PaymentEvent.builder().orderId(-5L).status(PaymentStatus.CANCELLED).build();
+
+        assertThat(paymentDeserializer.decode(paymentSerializer.encode(upperCaseId))).isEqualTo(upperCaseId);
+        assertThat(paymentDeserializer.decode(paymentSerializer.encode(sparse))).isEqualTo(sparse);
+    }
+
+    @Test
+    @DisplayName("should read an order event written in either format")
+    void shouldReadOrderEvent_InBothFormats() {
+        OrderCreatedEvent event = OrderCreatedEvent.builder()
+                .orderId(1_234_567L)
+                .userId(42L)
+                .totalAmount(new BigDecimal("1999.90"))
+                .event("ORDER_CREATED")
+                .build();
+
+        byte[] compact = orderSerializer.serialize("order-events", event);
+        byte[] json = new JsonSerializer<OrderCreatedEvent>().serialize("order-events", event);
+
+        assertThat(orderDeserializer.deserialize("order-events", compact)).isEqualTo(event);
+        assertThat(orderDeserializer.deserialize("order-events", json)).isEqualTo(event);
+        assertThat(orderDeserializer.deserialize("order-events", compact).totalAmount().scale()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should reject unknown schema versions and truncated messages")
+    void shouldRejectUnknownVersion_AndTruncatedMessage() {
+        byte[] compact = orderSerializer.encode(OrderCreatedEvent.builder().orderId(1L).event("ORDER_CREATED").build());
+        byte[] newerVersion = compact.clone();
+        newerVersion[0] = 2;
+        byte[] truncated = Arrays.copyOf(compact, compact.length - 3);
+
+        assertThatThrownBy(() -> orderDeserializer.deserialize("order-events", newerVersion))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("version 2");
+        assertThatThrownBy(() -> orderDeserializer.deserialize("order-events", truncated))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    @DisplayName("should write ids of any size as zigzag varints")
+    void shouldRoundTripVarints() {
+        CompactOutput out = new CompactOutput(1);
+        long[] values = {0, 1, -1, 63, -64, 64, 300, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            out.writeVarLong(value);
+        }
+
+        CompactInput in = new CompactInput(out.toByteArray(), 0);
+        for (long value : values) {
+            assertThat(in.readVarLong()).isEqualTo(value);
+        }
+    }
+
+    private static PaymentEvent paymentEvent(String paymentId) {
+        return PaymentEvent.builder()
+                .paymentId(paymentId)
+                .orderId(1_234_567L)
+                .userId(42L)
+                .status(PaymentStatus.SUCCESS)
+                .paymentAmount(new BigDecimal("1999.90"))
+                .timestamp(LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000))
+                .eventType("CREATE_PAYMENT")
+                .build();
+    }
+}
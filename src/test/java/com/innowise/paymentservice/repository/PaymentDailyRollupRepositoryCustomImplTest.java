@@ -0,0 +1,61 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.entity.PaymentDailyRollup;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("PaymentDailyRollupRepositoryCustomImpl Unit Tests")
+class PaymentDailyRollupRepositoryCustomImplTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class, RETURNS_SELF);
+    private final PaymentDailyRollupRepositoryCustomImpl repository =
+            new PaymentDailyRollupRepositoryCustomImpl(mongoTemplate);
+
+    @Test
+    @DisplayName("should decrement the source rollup without upsert and upsert only the target")
+    void shouldUpsertOnlyTarget_WhenMovingStatus() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PaymentDailyRollup.class)).thenReturn(bulk);
+        Payment payment = Payment.builder()
+                .userId(1L)
+                .status(PaymentStatus.SUCCESS)
+                .paymentAmount(new BigDecimal("100.00"))
+                .timestamp(LocalDateTime.of(2025, 3, 14, 15, 9))
+                .build();
+
+        repository.moveStatus(payment, PaymentStatus.PROCESSING);
+
+        verify(bulk).updateOne(argThat(hasStatus(PaymentStatus.PROCESSING)), any(Update.class));
+        verify(bulk).upsert(argThat(hasStatus(PaymentStatus.SUCCESS)), any(Update.class));
+        verify(bulk, never()).upsert(argThat(hasStatus(PaymentStatus.PROCESSING)), any(Update.class));
+        verify(bulk).execute();
+    }
+
+    @Test
+    @DisplayName("should not write anything when the status did not change")
+    void shouldSkip_WhenStatusUnchanged() {
+        Payment payment = Payment.builder().status(PaymentStatus.SUCCESS).build();
+
+        repository.moveStatus(payment, PaymentStatus.SUCCESS);
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private static ArgumentMatcher<Query> hasStatus(PaymentStatus status) {
+        return query -> query != null && status.equals(query.getQueryObject().get("status"));
+    }
+}
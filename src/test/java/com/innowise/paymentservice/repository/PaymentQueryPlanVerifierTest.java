@@ -0,0 +1,172 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("PaymentQueryPlanVerifier Unit Tests")
+class PaymentQueryPlanVerifierTest {
+
+    private static final MappingMongoConverter CONVERTER = buildConverter();
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final MongoDatabase database = mock(MongoDatabase.class);
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollectionName(Payment.class)).thenReturn("payments");
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(mongoTemplate.getConverter()).thenReturn(CONVERTER);
+        when(database.runCommand(any())).thenReturn(explain(indexScan("order_id")));
+    }
+
+    @Test
+    @DisplayName("should report no collection scans when every shape uses an index")
+    void shouldReportNothing_WhenEveryShapeUsesIndex() {
+        PaymentQueryPlanVerifier verifier = new PaymentQueryPlanVerifier(mongoTemplate, true, true);
+
+        assertThat(verifier.verify()).isEmpty();
+        verify(database, times(PaymentQueryPlanVerifier.REPOSITORY_QUERY_SHAPES.size()
+                + PaymentQueryPlanVerifier.CUSTOM_QUERIES.size())).runCommand(any());
+    }
+
+    @Test
+    @DisplayName("should explain custom queries with stored field names and values")
+    void shouldMapCustomQueries_ToStoredFields() {
+        PaymentQueryPlanVerifier verifier = new PaymentQueryPlanVerifier(mongoTemplate, true, true);
+
+        List<PaymentQueryPlanVerifier.QueryShape> shapes = verifier.queryShapes();
+
+        assertThat(shape(shapes, "insertIfAbsent").filter()).containsOnlyKeys("order_id");
+        assertThat(shape(shapes, "updateStatus").filter().get("_id")).isInstanceOf(ObjectId.class);
+        assertThat(shape(shapes, "updateStatus").filter().get("status")).isEqualTo("PROCESSING");
+        assertThat(shape(shapes, "findSliceByStatus").filter()).containsOnlyKeys("status", "$or");
+        assertThat(shape(shapes, "findSliceByStatus").sort())
+                .isEqualTo(new Document("timestamp", 1).append("_id", 1));
+        assertThat(shape(shapes, "streamResponsesByStatus").filter())
+                .isEqualTo(new Document("status", "SUCCESS"));
+        assertThat(shape(shapes, "streamResponses").scansAll()).isTrue();
+        assertThat(shape(shapes, "findByUserId").sort()).isNull();
+    }
+
+    @Test
+    @DisplayName("should not report the collection scan of the full export")
+    void shouldNotReport_CollectionScanOfFullExport() {
+        when(database.runCommand(argThat(command -> isExplainOf(command, null))))
+                .thenReturn(explain(new Document("stage", "COLLSCAN")));
+
+        PaymentQueryPlanVerifier verifier = new PaymentQueryPlanVerifier(mongoTemplate, true, true);
+
+        assertThat(verifier.verify()).containsExactly(
+                "findFirstByOrderByTimestampAsc", "findFirstByOrderByTimestampDesc");
+    }
+
+    @Test
+    @DisplayName("should find a collection scan nested in a slot based plan")
+    void shouldFindCollectionScan_InSlotBasedPlan() {
+        Document slotBasedPlan = new Document("queryPlan", new Document("stage", "SORT")
+                .append("inputStage", new Document("stage", "COLLSCAN")))
+                .append("slotBasedPlan", new Document("stages", "[1] scan s1"));
+        when(database.runCommand(argThat(command -> isExplainOf(command, "user_id"))))
+                .thenReturn(explain(slotBasedPlan));
+
+        PaymentQueryPlanVerifier verifier = new PaymentQueryPlanVerifier(mongoTemplate, true, false);
+
+        assertThat(verifier.verify()).containsExactly(
+                "findByUserId", "summarizeByUserIdAndDateRange", "findResponsesByUserId", "findSliceByUserId",
+                "streamResponsesByUserId", "streamResponsesByUserIdAndStatus");
+    }
+
+    @Test
+    @DisplayName("should fail startup on a collection scan only when configured to")
+    void shouldFailStartup_OnlyWhenConfigured() {
+        when(database.runCommand(any())).thenReturn(explain(new Document("stage", "COLLSCAN")));
+
+        new PaymentQueryPlanVerifier(mongoTemplate, true, false).verifyOnStartup();
+
+        assertThatThrownBy(() -> new PaymentQueryPlanVerifier(mongoTemplate, true, true).verifyOnStartup())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("findByOrderId");
+    }
+
+    @Test
+    @DisplayName("should log and not fail startup when an explain cannot run")
+    void shouldNotFailStartup_WhenExplainFails() {
+        when(database.runCommand(any())).thenThrow(new MongoTimeoutException("no server available"));
+
+        new PaymentQueryPlanVerifier(mongoTemplate, true, false).verifyOnStartup();
+
+        assertThatThrownBy(() -> new PaymentQueryPlanVerifier(mongoTemplate, true, true).verifyOnStartup())
+                .isInstanceOf(MongoTimeoutException.class);
+    }
+
+    @Test
+    @DisplayName("should not explain anything when disabled")
+    void shouldSkip_WhenDisabled() {
+        new PaymentQueryPlanVerifier(mongoTemplate, false, true).verifyOnStartup();
+
+        verify(database, never()).runCommand(any());
+    }
+
+    /**
+     * @param field top level filter field, null for an empty filter
+     */
+    private static boolean isExplainOf(Object command, String field) {
+        if (!(command instanceof Document document)) {
+            return false;
+        }
+        Document filter = document.get("explain", Document.class).get("filter", Document.class);
+        return field == null ? filter.isEmpty() : filter.containsKey(field);
+    }
+
+    private static PaymentQueryPlanVerifier.QueryShape shape(List<PaymentQueryPlanVerifier.QueryShape> shapes,
+                                                             String name) {
+        return shapes.stream().filter(shape -> shape.name().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static MappingMongoConverter buildConverter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    private static Document explain(Document winningPlan) {
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan));
+    }
+
+    private static Document indexScan(String indexName) {
+        return new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", "IXSCAN")
+                        .append("indexName", indexName)
+                        .append("keyPattern", new Document(indexName, 1)))
+                .append("rejectedPlans", List.of());
+    }
+}
@@ -0,0 +1,103 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.mapper.PaymentMapperImpl;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PaymentResponseCodec Unit Tests")
+class PaymentResponseCodecTest {
+
+    private final PaymentResponseCodec codec = new PaymentResponseCodec();
+
+    @Test
+    @DisplayName("should decode a stored payment into the same response as the converter and the mapper")
+    void shouldDecodeStoredPayment_SameAsConverterAndMapper() {
+        MappingMongoConverter converter = mappingConverter();
+        Payment payment = Payment.builder()
+                .id(new ObjectId().toHexString())
+                .orderId(10L)
+                .userId(7L)
+                .status(PaymentStatus.SUCCESS)
+                .timestamp(LocalDateTime.of(2025, 1, 1, 12, 30, 15, 123_000_000))
+                .paymentAmount(new BigDecimal("150.75"))
+                .build();
+        Document document = new Document();
+        converter.write(payment, document);
+
+        PaymentResponse decoded = decode(document.toBsonDocument());
+
+        assertThat(decoded).isEqualTo(new PaymentMapperImpl().toDto(converter.read(Payment.class, document)));
+    }
+
+    @Test
+    @DisplayName("should read back what it writes")
+    void shouldRoundTrip() {
+        PaymentResponse payment = PaymentResponse.builder()
+                .id(new ObjectId().toHexString())
+                .orderId(1L)
+                .userId(2L)
+                .status(PaymentStatus.FAILED)
+                .timestamp(LocalDateTime.of(2025, 3, 1, 8, 0))
+                .totalAmount(new BigDecimal("99.99"))
+                .build();
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), payment, EncoderContext.builder().build());
+
+        assertThat(decode(document)).isEqualTo(payment);
+    }
+
+    @Test
+    @DisplayName("should skip unknown fields and leave null and missing ones empty")
+    void shouldSkipUnknownFields_AndKeepNulls() {
+        Document document = new Document("_id", "legacy-id")
+                .append("_class", Payment.class.getName())
+                .append("order_id", 5)
+                .append("status", null)
+                .append("payment_amount", "12.50")
+                .append("extra", new Document("nested", List.of(1, 2)));
+
+        PaymentResponse decoded = decode(document.toBsonDocument());
+
+        assertThat(decoded).isEqualTo(PaymentResponse.builder()
+                .id("legacy-id")
+                .orderId(5L)
+                .totalAmount(new BigDecimal("12.50"))
+                .build());
+    }
+
+    private PaymentResponse decode(BsonDocument document) {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+    private static MappingMongoConverter mappingConverter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,136 @@
+package com.innowise.paymentservice.security;
+
+import com.innowise.paymentservice.controller.PaymentController;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.exception.PaymentNotFoundException;
+import com.innowise.paymentservice.exception.handler.GlobalExceptionHandler;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import com.innowise.paymentservice.service.PaymentOrchestrator;
+import com.innowise.paymentservice.service.PaymentService;
+import com.innowise.paymentservice.service.PaymentStreamWriter;
+import com.innowise.paymentservice.service.RequestPaymentLookup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /order/{orderId} through method security, the ownership check and the endpoint share one payment read
+ */
+@SpringJUnitWebConfig(PaymentOwnershipAccessTest.Config.class)
+@DisplayName("Payment ownership access Unit Tests")
+class PaymentOwnershipAccessTest {
+
+    private static final Long OWNER_ID = 10L;
+
+    @MockitoBean
+    private PaymentService paymentService;
+
+    @MockitoBean
+    private PaymentRepository paymentRepository;
+
+    @MockitoBean
+    private PaymentOrchestrator paymentOrchestrator;
+
+    @MockitoBean
+    private PaymentStreamWriter paymentStreamWriter;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("should return the payment to its owner reading it once")
+    void shouldReturnPayment_ToOwner_WithSingleRead() throws Exception {
+        authenticate(OWNER_ID);
+        when(paymentService.getPaymentByOrderId(1L)).thenReturn(payment(1L));
+
+        mockMvc.perform(get("/api/v1/payments/order/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderId").value(1))
+                .andExpect(jsonPath("$.userId").value(OWNER_ID));
+
+        verify(paymentService, times(1)).getPaymentByOrderId(1L);
+    }
+
+    @Test
+    @DisplayName("should forbid the payment of another user")
+    void shouldForbid_WhenUserIsNotOwner() throws Exception {
+        authenticate(20L);
+        when(paymentService.getPaymentByOrderId(1L)).thenReturn(payment(1L));
+
+        mockMvc.perform(get("/api/v1/payments/order/1"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("should forbid a missing order the same way, without revealing that it does not exist")
+    void shouldForbid_WhenOrderIsMissing() throws Exception {
+        authenticate(OWNER_ID);
+        when(paymentService.getPaymentByOrderId(2L))
+                .thenThrow(new PaymentNotFoundException("Payment not found for orderId=2"));
+
+        mockMvc.perform(get("/api/v1/payments/order/2"))
+                .andExpect(status().isForbidden());
+
+        verify(paymentService, times(1)).getPaymentByOrderId(2L);
+    }
+
+    private static void authenticate(Long userId) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                userId, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    private static PaymentResponse payment(Long orderId) {
+        return PaymentResponse.builder()
+                .id("payment-" + orderId)
+                .orderId(orderId)
+                .userId(OWNER_ID)
+                .status(PaymentStatus.SUCCESS)
+                .totalAmount(new BigDecimal("100.00"))
+                .build();
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @EnableMethodSecurity
+    @Import({PaymentController.class, PaymentSecurityService.class, RequestPaymentLookup.class,
+            GlobalExceptionHandler.class})
+    static class Config {
+    }
+}
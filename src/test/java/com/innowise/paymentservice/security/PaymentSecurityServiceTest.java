@@ -0,0 +1,78 @@
+package com.innowise.paymentservice.security;
+
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.service.RequestPaymentLookup;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentSecurityService Unit Tests")
+class PaymentSecurityServiceTest {
+
+    @Mock
+    private RequestPaymentLookup paymentLookup;
+
+    @InjectMocks
+    private PaymentSecurityService securityService;
+
+    @Test
+    @DisplayName("should grant access to the owner of the payment")
+    void shouldGrantAccess_WhenUserOwnsPayment() {
+        when(paymentLookup.find(1L)).thenReturn(Optional.of(payment(1L, 10L)));
+
+        assertThat(securityService.isPaymentOwner(1L, 10L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("should accept the user id as text")
+    void shouldGrantAccess_WhenUserIdIsText() {
+        when(paymentLookup.find(1L)).thenReturn(Optional.of(payment(1L, 10L)));
+
+        assertThat(securityService.isPaymentOwner(1L, "10")).isTrue();
+    }
+
+    @Test
+    @DisplayName("should deny access to another user")
+    void shouldDenyAccess_WhenUserIsNotOwner() {
+        when(paymentLookup.find(1L)).thenReturn(Optional.of(payment(1L, 10L)));
+
+        assertThat(securityService.isPaymentOwner(1L, 20L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("should deny access when there is no payment for the order")
+    void shouldDenyAccess_WhenPaymentIsMissing() {
+        when(paymentLookup.find(1L)).thenReturn(Optional.empty());
+
+        assertThat(securityService.isPaymentOwner(1L, 10L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("should deny access without reading the payment when the user is unknown")
+    void shouldDenyAccess_WhenUserIdIsInvalid() {
+        assertThat(securityService.isPaymentOwner(1L, null)).isFalse();
+        assertThat(securityService.isPaymentOwner(1L, "SERVICE")).isFalse();
+
+        verifyNoInteractions(paymentLookup);
+    }
+
+    private static PaymentResponse payment(Long orderId, Long userId) {
+        return PaymentResponse.builder()
+                .id("payment-" + orderId)
+                .orderId(orderId)
+                .userId(userId)
+                .status(PaymentStatus.SUCCESS)
+                .build();
+    }
+}
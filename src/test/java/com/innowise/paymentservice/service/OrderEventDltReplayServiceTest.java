@@ -0,0 +1,238 @@
+package com.innowise.paymentservice.service;
+
+import com.innowise.paymentservice.dto.CreatePaymentRequest;
+import com.innowise.paymentservice.dto.DltReplayResponse;
+import com.innowise.paymentservice.dto.OrderCreatedEvent;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.exception.ExternalServiceException;
+import com.innowise.paymentservice.exception.PaymentAlreadyExistsException;
+import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderEventDltReplayService Unit Tests")
+class OrderEventDltReplayServiceTest {
+
+    private static final String DLT_TOPIC = "order-events-retry-dlt";
+    private static final String REPLAY_GROUP = "payment-service-dlt-replay";
+    private static final TopicPartition PARTITION_0 = new TopicPartition(DLT_TOPIC, 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition(DLT_TOPIC, 1);
+
+    @Mock
+    private ConsumerFactory<String, OrderCreatedEvent> consumerFactory;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentEventProducer producer;
+
+    @InjectMocks
+    private OrderEventDltReplayService replayService;
+
+    private final MockConsumer<String, OrderCreatedEvent> consumer = spy(new MockConsumer<>(OffsetResetStrategy.LATEST));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(replayService, "orderEventsDltTopic", DLT_TOPIC);
+        ReflectionTestUtils.setField(replayService, "replayGroupId", REPLAY_GROUP);
+        when(consumerFactory.createConsumer(REPLAY_GROUP, null)).thenReturn(consumer);
+        consumer.updatePartitions(DLT_TOPIC, List.of(
+                new PartitionInfo(DLT_TOPIC, 0, null, null, null),
+                new PartitionInfo(DLT_TOPIC, 1, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION_0, 0L, PARTITION_1, 0L));
+        lenient().when(producer.sendPaymentEventAsync(any(PaymentEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    @DisplayName("should replay every event of every partition without waiting for a group assignment")
+    void shouldReplayAllPartitions_WithoutSubscription() {
+        consumer.updateEndOffsets(Map.of(PARTITION_0, 2L, PARTITION_1, 1L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(PARTITION_0, 0, orderEvent(1L)));
+            consumer.addRecord(record(PARTITION_0, 1, null));
+            consumer.addRecord(record(PARTITION_1, 0, orderEvent(2L)));
+        });
+        when(paymentService.createPayment(argThat(request -> request != null && request.orderId() == 1L)))
+                .thenReturn(paymentResponse(1L));
+        when(paymentService.createPayment(argThat(request -> request != null && request.orderId() == 2L)))
+                .thenThrow(new PaymentAlreadyExistsException("Payment already exists for orderId=2"));
+        when(paymentService.getPaymentByOrderId(2L)).thenReturn(paymentResponse(2L));
+
+        DltReplayResponse response = replayService.replay(100);
+
+        assertThat(response.replayed()).isEqualTo(1);
+        assertThat(response.duplicates()).isEqualTo(1);
+        assertThat(response.skipped()).isEqualTo(1);
+        assertThat(response.failed()).isZero();
+        assertThat(response.error()).isNull();
+        assertThat(consumer.subscription()).isEmpty();
+        verify(consumer).commitSync(Map.of(PARTITION_0, new OffsetAndMetadata(2)));
+        verify(consumer).commitSync(Map.of(PARTITION_1, new OffsetAndMetadata(1)));
+        verify(producer).sendPaymentEventAsync(PaymentEvent.fromPaymentResponse(paymentResponse(1L)));
+        verify(producer).sendPaymentEventAsync(PaymentEvent.fromPaymentResponse(paymentResponse(2L)));
+        verify(consumer).close();
+    }
+
+    @Test
+    @DisplayName("should resume after the last committed replay")
+    void shouldResumeAfterCommittedOffset() {
+        consumer.commitSync(Map.of(PARTITION_0, new OffsetAndMetadata(1)));
+        consumer.updateEndOffsets(Map.of(PARTITION_0, 2L, PARTITION_1, 0L));
+        consumer.schedulePollTask(() -> consumer.addRecord(record(PARTITION_0, 1, orderEvent(2L))));
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenReturn(paymentResponse(2L));
+
+        DltReplayResponse response = replayService.replay(100);
+
+        assertThat(response.replayed()).isEqualTo(1);
+        verify(paymentService).createPayment(argThat(request -> request.orderId() == 2L));
+        verify(paymentService, never()).createPayment(argThat(request -> request.orderId() == 1L));
+    }
+
+    @Test
+    @DisplayName("should stop at the end offsets captured when the replay started")
+    void shouldStopAtEndOffsets_CapturedAtStart() {
+        consumer.updateEndOffsets(Map.of(PARTITION_0, 1L, PARTITION_1, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(PARTITION_0, 0, orderEvent(1L)));
+            consumer.addRecord(record(PARTITION_0, 1, orderEvent(2L)));
+        });
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenReturn(paymentResponse(1L));
+
+        DltReplayResponse response = replayService.replay(100);
+
+        assertThat(response.replayed()).isEqualTo(1);
+        verify(paymentService, times(1)).createPayment(any(CreatePaymentRequest.class));
+        verify(consumer).commitSync(Map.of(PARTITION_0, new OffsetAndMetadata(1)));
+        verify(consumer, never()).commitSync(Map.of(PARTITION_0, new OffsetAndMetadata(2)));
+    }
+
+    @Test
+    @DisplayName("should stop on the first event that fails again without committing it")
+    void shouldStopOnFailure_WithoutCommittingFailedEvent() {
+        consumer.updateEndOffsets(Map.of(PARTITION_0, 3L, PARTITION_1, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(PARTITION_0, 0, orderEvent(1L)));
+            consumer.addRecord(record(PARTITION_0, 1, orderEvent(2L)));
+            consumer.addRecord(record(PARTITION_0, 2, orderEvent(3L)));
+        });
+        when(paymentService.createPayment(any(CreatePaymentRequest.class)))
+                .thenReturn(paymentResponse(1L))
+                .thenThrow(new ExternalServiceException("Failed to process payment: external service unavailable"));
+
+        DltReplayResponse response = replayService.replay(100);
+
+        assertThat(response.replayed()).isEqualTo(1);
+        assertThat(response.failed()).isEqualTo(1);
+        assertThat(response.error()).contains("external service unavailable");
+        verify(consumer).commitSync(Map.of(PARTITION_0, new OffsetAndMetadata(1)));
+        verify(consumer, never()).commitSync(Map.of(PARTITION_0, new OffsetAndMetadata(2)));
+        verify(paymentService, times(2)).createPayment(any(CreatePaymentRequest.class));
+    }
+
+    @Test
+    @DisplayName("should not commit an event whose payment event could not be delivered")
+    void shouldStopOnDeliveryFailure_WithoutCommitting() {
+        consumer.updateEndOffsets(Map.of(PARTITION_0, 2L, PARTITION_1, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(PARTITION_0, 0, orderEvent(1L)));
+            consumer.addRecord(record(PARTITION_0, 1, orderEvent(2L)));
+        });
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenReturn(paymentResponse(1L));
+        when(producer.sendPaymentEventAsync(any(PaymentEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("broker unavailable")));
+
+        DltReplayResponse response = replayService.replay(100);
+
+        assertThat(response.replayed()).isZero();
+        assertThat(response.failed()).isEqualTo(1);
+        assertThat(response.error()).contains("broker unavailable");
+        verify(consumer, never()).commitSync(anyMap());
+        verify(paymentService, times(1)).createPayment(any(CreatePaymentRequest.class));
+    }
+
+    @Test
+    @DisplayName("should replay no more than the requested number of events")
+    void shouldStopAtMaxRecords() {
+        consumer.updateEndOffsets(Map.of(PARTITION_0, 3L, PARTITION_1, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(PARTITION_0, 0, orderEvent(1L)));
+            consumer.addRecord(record(PARTITION_0, 1, orderEvent(2L)));
+            consumer.addRecord(record(PARTITION_0, 2, orderEvent(3L)));
+        });
+        when(paymentService.createPayment(any(CreatePaymentRequest.class))).thenReturn(paymentResponse(1L));
+
+        DltReplayResponse response = replayService.replay(2);
+
+        assertThat(response.replayed()).isEqualTo(2);
+        verify(paymentService, times(2)).createPayment(any(CreatePaymentRequest.class));
+        verify(consumer).commitSync(Map.of(PARTITION_0, new OffsetAndMetadata(2)));
+        verify(consumer, never()).commitSync(Map.of(PARTITION_0, new OffsetAndMetadata(3)));
+    }
+
+    @Test
+    @DisplayName("should replay nothing when the DLT is empty")
+    void shouldReplayNothing_WhenDltEmpty() {
+        consumer.updateEndOffsets(Map.of(PARTITION_0, 0L, PARTITION_1, 0L));
+
+        DltReplayResponse response = replayService.replay(100);
+
+        assertThat(response.replayed()).isZero();
+        verifyNoInteractions(paymentService, producer);
+    }
+
+    private static ConsumerRecord<String, OrderCreatedEvent> record(TopicPartition partition, long offset,
+                                                                    OrderCreatedEvent event) {
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset,
+                event == null ? null : String.valueOf(event.orderId()), event);
+    }
+
+    private static OrderCreatedEvent orderEvent(Long orderId) {
+        return OrderCreatedEvent.builder()
+                .orderId(orderId)
+                .userId(1L)
+                .totalAmount(new BigDecimal("100.00"))
+                .event("ORDER_CREATED")
+                .build();
+    }
+
+    private static PaymentResponse paymentResponse(Long orderId) {
+        return PaymentResponse.builder()
+                .id("payment-" + orderId)
+                .orderId(orderId)
+                .userId(1L)
+                .status(PaymentStatus.SUCCESS)
+                .timestamp(LocalDateTime.of(2025, 3, 14, 15, 9))
+                .totalAmount(new BigDecimal("100.00"))
+                .build();
+    }
+}
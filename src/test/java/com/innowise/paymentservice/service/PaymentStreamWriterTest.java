@@ -0,0 +1,123 @@
+package com.innowise.paymentservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("PaymentStreamWriter Unit Tests")
+class PaymentStreamWriterTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final PaymentService paymentService = mock(PaymentService.class);
+    private final PaymentStreamWriter writer = new PaymentStreamWriter(paymentService, objectMapper);
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            Consumer<PaymentResponse> action = invocation.getArgument(2);
+            action.accept(payment("payment-1", 1L, "100.00"));
+            action.accept(payment("payment-2", 2L, "250.50"));
+            return null;
+        }).when(paymentService).forEachPayment(eq(7L), any(), any());
+    }
+
+    @Test
+    @DisplayName("should write the same JSON array as a serialized list")
+    void shouldWriteJsonArray_SameAsList() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.writeJsonArray(out, 7L, null);
+
+        String expected = objectMapper.writeValueAsString(List.of(
+                payment("payment-1", 1L, "100.00"),
+                payment("payment-2", 2L, "250.50")));
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("should write an empty JSON array when there are no payments")
+    void shouldWriteEmptyArray_WhenNoPayments() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.writeJsonArray(out, 8L, PaymentStatus.FAILED);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    @Test
+    @DisplayName("should write one JSON object per line")
+    void shouldWriteNdjson_OneObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.writeNdjson(out, 7L, null);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines.get(1), PaymentResponse.class))
+                .isEqualTo(payment("payment-2", 2L, "250.50"));
+    }
+
+    @Test
+    @DisplayName("should write CSV with a header line")
+    void shouldWriteCsv_WithHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.writeCsv(out, 7L, null);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines().toList()).containsExactly(
+                "id,order_id,user_id,status,timestamp,total_amount",
+                "payment-1,1,7,SUCCESS,2025-01-01T12:00,100.00",
+                "payment-2,2,7,SUCCESS,2025-01-01T12:00,250.50");
+    }
+
+    @Test
+    @DisplayName("should rethrow the IOException of a failed client connection")
+    void shouldRethrowIOException_WhenWriteFails() {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> writer.writeCsv(broken, 7L, null))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+
+    private static PaymentResponse payment(String id, Long orderId, String amount) {
+        return PaymentResponse.builder()
+                .id(id)
+                .orderId(orderId)
+                .userId(7L)
+                .status(PaymentStatus.SUCCESS)
+                .timestamp(TIMESTAMP)
+                .totalAmount(new BigDecimal(amount))
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.innowise.paymentservice.service;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.exception.PaymentProcessingException;
+import com.innowise.paymentservice.repository.BulkInsertResult;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("PaymentWriteCoalescer Unit Tests")
+class PaymentWriteCoalescerTest {
+
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PaymentWriteCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("should write concurrent inserts with one bulk insert and give each caller its own outcome")
+    void shouldCoalesceConcurrentInserts() throws Exception {
+        coalescer = started(3);
+        when(paymentRepository.insertAllUnordered(anyList()))
+                .thenReturn(new BulkInsertResult(Set.of(2L), Map.of(3L, "document failed validation")));
+
+        Future<Payment> first;
+        Future<Payment> second;
+        Future<Payment> third;
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            first = callers.submit(() -> coalescer.insert(payment(1L)));
+            second = callers.submit(() -> coalescer.insert(payment(2L)));
+            third = callers.submit(() -> coalescer.insert(payment(3L)));
+        }
+
+        assertThat(first.get().getOrderId()).isEqualTo(1L);
+        assertThatThrownBy(second::get).hasCauseInstanceOf(DuplicateKeyException.class);
+        assertThatThrownBy(third::get)
+                .hasCauseInstanceOf(PaymentProcessingException.class)
+                .hasMessageContaining("document failed validation");
+        verify(paymentRepository).insertAllUnordered(anyList());
+        assertThat(meterRegistry.get("payment.write.batch.size").summary().totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.get("payment.write.flush").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should reject the second insert of the same order in one batch without writing it")
+    void shouldRejectSameOrderTwiceInOneBatch() {
+        coalescer = new PaymentWriteCoalescer(paymentRepository, meterRegistry, false, 3, 500, 1);
+        when(paymentRepository.insertAllUnordered(anyList())).thenReturn(BulkInsertResult.empty());
+        PaymentWriteCoalescer.PendingInsert original = pending(payment(1L));
+        PaymentWriteCoalescer.PendingInsert repeated = pending(payment(1L));
+
+        coalescer.flush(List.of(original, repeated));
+
+        assertThat(original.result()).isCompletedWithValue(original.payment());
+        assertThat(repeated.result()).isCompletedExceptionally();
+        verify(paymentRepository).insertAllUnordered(List.of(original.payment()));
+    }
+
+    @Test
+    @DisplayName("should fail every caller of a batch when the bulk insert throws")
+    void shouldFailWholeBatch_WhenBulkInsertThrows() {
+        coalescer = new PaymentWriteCoalescer(paymentRepository, meterRegistry, false, 3, 500, 1);
+        when(paymentRepository.insertAllUnordered(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("timed out"));
+        PaymentWriteCoalescer.PendingInsert first = pending(payment(1L));
+        PaymentWriteCoalescer.PendingInsert second = pending(payment(2L));
+
+        coalescer.flush(List.of(first, second));
+
+        assertThat(first.result()).isCompletedExceptionally();
+        assertThat(second.result()).isCompletedExceptionally();
+    }
+
+    @Test
+    @DisplayName("should stay inactive and insert directly when disabled")
+    void shouldInsertDirectly_WhenDisabled() {
+        coalescer = new PaymentWriteCoalescer(paymentRepository, meterRegistry, false, 3, 500, 1);
+        coalescer.start();
+        Payment payment = payment(1L);
+        when(paymentRepository.insert(payment)).thenReturn(payment);
+
+        assertThat(coalescer.isActive()).isFalse();
+        assertThat(coalescer.insert(payment)).isSameAs(payment);
+        verify(paymentRepository, never()).insertAllUnordered(any());
+    }
+
+    private PaymentWriteCoalescer started(int maxBatchSize) {
+        PaymentWriteCoalescer started = new PaymentWriteCoalescer(
+                paymentRepository, meterRegistry, true, maxBatchSize, 5_000_000, 2);
+        started.start();
+        assertThat(started.isActive()).isTrue();
+        return started;
+    }
+
+    private static PaymentWriteCoalescer.PendingInsert pending(Payment payment) {
+        return new PaymentWriteCoalescer.PendingInsert(payment, new CompletableFuture<>());
+    }
+
+    private static Payment payment(Long orderId) {
+        return Payment.builder()
+                .id("65a00000000000000000000" + orderId)
+                .orderId(orderId)
+                .userId(1L)
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.innowise.paymentservice.service;
+
+import com.innowise.paymentservice.dto.PaymentCursor;
+import com.innowise.paymentservice.dto.PaymentEvent;
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.exception.ExternalServiceException;
+import com.innowise.paymentservice.kafka.producer.PaymentEventProducer;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("StuckPaymentSweeper Unit Tests")
+class StuckPaymentSweeperTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    private final PaymentService paymentService = mock(PaymentService.class);
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final PaymentEventProducer producer = mock(PaymentEventProducer.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StuckPaymentSweeper sweeper = new StuckPaymentSweeper(
+            paymentService, paymentRepository, producer, meterRegistry, 60_000, BATCH_SIZE, 4);
+
+    @Test
+    @DisplayName("should resume stuck payments batch by batch and publish their events")
+    void shouldResumeStuckPayments_AndPublishEvents() {
+        LocalDateTime old = LocalDateTime.now().minusHours(1);
+        PaymentResponse first = processing("65a000000000000000000001", 1L, old);
+        PaymentResponse second = processing("65a000000000000000000002", 2L, old.plusSeconds(1));
+        PaymentResponse third = processing("65a000000000000000000003", 3L, old.plusSeconds(2));
+
+        when(paymentRepository.countByStatusAndTimestampBefore(eq(PaymentStatus.PROCESSING), any()))
+                .thenReturn(3L, 0L);
+        when(paymentRepository.findSliceByStatus(PaymentStatus.PROCESSING, null, BATCH_SIZE))
+                .thenReturn(List.of(first, second));
+        when(paymentRepository.findSliceByStatus(PaymentStatus.PROCESSING, PaymentCursor.after(second), BATCH_SIZE))
+                .thenReturn(List.of(third));
+        when(paymentService.resumePayment(any())).thenAnswer(invocation ->
+                Optional.of(resolved(invocation.getArgument(0))));
+
+        int resumed = sweeper.sweep();
+
+        assertThat(resumed).isEqualTo(3);
+        verify(producer).sendPaymentEvent(PaymentEvent.fromPaymentResponse(resolved(3L)));
+        assertThat(meterRegistry.get("payment.recovery.resumed").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("payment.recovery.backlog").gauge().value()).isZero();
+        assertThat(meterRegistry.get("payment.recovery.sweep").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should stop at payments that are not stuck yet and keep failed ones in the backlog")
+    void shouldStopAtRecentPayments_AndCountFailures() {
+        PaymentResponse stuck = processing("65a000000000000000000001", 1L, LocalDateTime.now().minusHours(1));
+        PaymentResponse recent = processing("65a000000000000000000002", 2L, LocalDateTime.now());
+
+        when(paymentRepository.countByStatusAndTimestampBefore(eq(PaymentStatus.PROCESSING), any()))
+                .thenReturn(1L, 1L);
+        when(paymentRepository.findSliceByStatus(eq(PaymentStatus.PROCESSING), isNull(), eq(BATCH_SIZE)))
+                .thenReturn(List.of(stuck, recent));
+        when(paymentService.resumePayment(1L))
+                .thenThrow(new ExternalServiceException("Failed to process payment: external service unavailable"));
+
+        int resumed = sweeper.sweep();
+
+        assertThat(resumed).isZero();
+        verify(paymentService, never()).resumePayment(2L);
+        verify(producer, never()).sendPaymentEvent(any());
+        assertThat(meterRegistry.get("payment.recovery.failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.recovery.backlog").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should not read payments when nothing is stuck")
+    void shouldSkipSweep_WhenNothingIsStuck() {
+        when(paymentRepository.countByStatusAndTimestampBefore(eq(PaymentStatus.PROCESSING), any())).thenReturn(0L);
+
+        assertThat(sweeper.sweep()).isZero();
+
+        verify(paymentRepository, never()).findSliceByStatus(any(), any(), anyInt());
+    }
+
+    private static PaymentResponse processing(String id, Long orderId, LocalDateTime timestamp) {
+        return PaymentResponse.builder()
+                .id(id)
+                .orderId(orderId)
+                .status(PaymentStatus.PROCESSING)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static PaymentResponse resolved(Long orderId) {
+        return PaymentResponse.builder()
+                .orderId(orderId)
+                .status(PaymentStatus.SUCCESS)
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.innowise.paymentservice.service.cache;
+
+import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.dto.PaymentSummaryResponse;
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PaymentCache Unit Tests")
+class PaymentCacheTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PaymentCache cache = new PaymentCache(meterRegistry, true, 100, 60_000, 100, 60_000);
+
+    @Test
+    @DisplayName("should load payment once and serve it from cache until its order is written")
+    void shouldServeFromCache_UntilOrderIsWritten() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getPayment(1L, () -> payment(loads.incrementAndGet()));
+        PaymentResponse cached = cache.getPayment(1L, () -> payment(loads.incrementAndGet()));
+
+        assertThat(loads).hasValue(1);
+        assertThat(cached.orderId()).isEqualTo(1L);
+
+        cache.invalidate(List.of(written(1L, 7L)));
+        cache.getPayment(1L, () -> payment(loads.incrementAndGet()));
+
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "payments").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should not cache payments that are not resolved yet")
+    void shouldNotCachePayment_WhileProcessing() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getPayment(1L, () -> payment(loads.incrementAndGet(), PaymentStatus.PROCESSING));
+        cache.getPayment(1L, () -> payment(loads.incrementAndGet(), PaymentStatus.PENDING));
+        PaymentResponse resolved = cache.getPayment(1L, () -> payment(loads.incrementAndGet(), PaymentStatus.SUCCESS));
+        PaymentResponse cached = cache.getPayment(1L, () -> payment(loads.incrementAndGet(), PaymentStatus.FAILED));
+
+        assertThat(loads).hasValue(3);
+        assertThat(resolved.status()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(cached).isEqualTo(resolved);
+    }
+
+    @Test
+    @DisplayName("should invalidate summaries of the written user and the global summary")
+    void shouldInvalidateSummaries_OfWrittenUser() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getSummary(7L, FROM, TO, () -> summary(loads.incrementAndGet()));
+        cache.getSummary(8L, FROM, TO, () -> summary(loads.incrementAndGet()));
+        cache.getSummary(null, FROM, TO, () -> summary(loads.incrementAndGet()));
+
+        cache.invalidate(List.of(written(1L, 7L)));
+
+        cache.getSummary(7L, FROM, TO, () -> summary(loads.incrementAndGet()));
+        cache.getSummary(8L, FROM, TO, () -> summary(loads.incrementAndGet()));
+        cache.getSummary(null, FROM, TO, () -> summary(loads.incrementAndGet()));
+
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    @DisplayName("should invalidate only once the transaction of the write is committed")
+    void shouldInvalidateAfterCommit_InsideTransaction() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getSummary(7L, FROM, TO, () -> summary(loads.incrementAndGet()));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate(List.of(written(1L, 7L)));
+
+            // a reader before the commit still sees the old data and must not cache it as current
+            cache.getSummary(7L, FROM, TO, () -> summary(loads.incrementAndGet()));
+            assertThat(loads).hasValue(1);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        PaymentSummaryResponse reloaded = cache.getSummary(7L, FROM, TO, () -> summary(loads.incrementAndGet()));
+
+        assertThat(loads).hasValue(2);
+        assertThat(reloaded).isEqualTo(summary(2));
+    }
+
+    @Test
+    @DisplayName("should not serve a summary loaded while the user was written")
+    void shouldNotServeSummary_LoadedDuringWrite() {
+        AtomicInteger loads = new AtomicInteger();
+
+        PaymentSummaryResponse stale = cache.getSummary(7L, FROM, TO, () -> {
+            cache.invalidate(List.of(written(1L, 7L)));
+            return summary(loads.incrementAndGet());
+        });
+        PaymentSummaryResponse fresh = cache.getSummary(7L, FROM, TO, () -> summary(loads.incrementAndGet()));
+
+        assertThat(stale.paymentsCount()).isEqualTo(1L);
+        assertThat(fresh.paymentsCount()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("should always call loader when cache is disabled")
+    void shouldCallLoader_WhenDisabled() {
+        PaymentCache disabled = new PaymentCache(meterRegistry, false, 100, 60_000, 100, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        disabled.getPayment(1L, () -> payment(loads.incrementAndGet()));
+        disabled.getPayment(1L, () -> payment(loads.incrementAndGet()));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private static PaymentResponse payment(int version) {
+        return PaymentResponse.builder().id("payment-" + version).orderId(1L).build();
+    }
+
+    private static PaymentResponse payment(int version, PaymentStatus status) {
+        return PaymentResponse.builder().id("payment-" + version).orderId(1L).status(status).build();
+    }
+
+    private static PaymentSummaryResponse summary(long count) {
+        return PaymentSummaryResponse.builder().paymentsCount(count).build();
+    }
+
+    private static Payment written(Long orderId, Long userId) {
+        return Payment.builder().orderId(orderId).userId(userId).status(PaymentStatus.SUCCESS).build();
+    }
+}
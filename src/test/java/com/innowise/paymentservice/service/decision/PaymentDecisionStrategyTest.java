@@ -0,0 +1,222 @@
+package com.innowise.paymentservice.service.decision;
+
+import com.innowise.paymentservice.client.RandomNumberPool;
+import com.innowise.paymentservice.client.RandomOrgClient;
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.PaymentStatus;
+import com.innowise.paymentservice.exception.ExternalServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.RestClientException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentDecisionStrategy Unit Tests")
+class PaymentDecisionStrategyTest {
+
+    private static Payment payment(String amount, Long userId) {
+        return Payment.builder()
+                .orderId(1L)
+                .userId(userId)
+                .paymentAmount(new BigDecimal(amount))
+                .build();
+    }
+
+    @Nested
+    @DisplayName("remote strategy")
+    class RemoteTests {
+
+        @Mock
+        private RandomOrgClient randomOrgClient;
+
+        @Mock
+        private RandomNumberPool randomNumberPool;
+
+        @InjectMocks
+        private RemotePaymentDecisionStrategy strategy;
+
+        @Test
+        @DisplayName("should return SUCCESS for even number")
+        void shouldReturnSuccess_ForEvenNumber() {
+            when(randomNumberPool.next()).thenReturn(42);
+            when(randomOrgClient.isEven(42)).thenReturn(true);
+
+            assertThat(strategy.decide(payment("10.00", 1L))).isEqualTo(PaymentStatus.SUCCESS);
+        }
+
+        @Test
+        @DisplayName("should throw ExternalServiceException when Random.org API fails")
+        void shouldThrowException_WhenApiFails() {
+            when(randomNumberPool.next()).thenThrow(new RestClientException("API unavailable"));
+
+            assertThatThrownBy(() -> strategy.decide(payment("10.00", 1L)))
+                    .isInstanceOf(ExternalServiceException.class)
+                    .hasMessageContaining("Failed to process payment");
+        }
+    }
+
+    @Nested
+    @DisplayName("local strategy")
+    class LocalTests {
+
+        @Test
+        @DisplayName("should produce both statuses without external calls")
+        void shouldProduceBothStatuses() {
+            for (boolean secure : new boolean[]{false, true}) {
+                LocalRandomPaymentDecisionStrategy strategy = new LocalRandomPaymentDecisionStrategy(secure);
+
+                Set<PaymentStatus> statuses = new java.util.HashSet<>();
+                IntStream.range(0, 200).forEach(i -> statuses.add(strategy.decide(payment("10.00", 1L))));
+
+                assertThat(statuses).containsExactlyInAnyOrder(PaymentStatus.SUCCESS, PaymentStatus.FAILED);
+            }
+        }
+
+        @Test
+        @DisplayName("should produce both statuses when every decision runs on its own virtual thread")
+        void shouldProduceBothStatuses_OnVirtualThreads() {
+            LocalRandomPaymentDecisionStrategy strategy = new LocalRandomPaymentDecisionStrategy(false);
+            Set<PaymentStatus> statuses = ConcurrentHashMap.newKeySet();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                IntStream.range(0, 200).forEach(i ->
+                        executor.submit(() -> statuses.add(strategy.decide(payment("10.00", 1L)))));
+            }
+
+            assertThat(statuses).containsExactlyInAnyOrder(PaymentStatus.SUCCESS, PaymentStatus.FAILED);
+        }
+    }
+
+    @Nested
+    @DisplayName("rules strategy")
+    class RulesTests {
+
+        private final RulesPaymentDecisionStrategy strategy =
+                new RulesPaymentDecisionStrategy(new BigDecimal("1000"), Set.of(13L));
+
+        @Test
+        @DisplayName("should accept payment within limits")
+        void shouldAcceptPayment_WithinLimits() {
+            assertThat(strategy.decide(payment("1000.00", 1L))).isEqualTo(PaymentStatus.SUCCESS);
+        }
+
+        @Test
+        @DisplayName("should fail payment above limit, non positive amount or blocked user")
+        void shouldFailPayment_WhenRuleIsBroken() {
+            assertThat(strategy.decide(payment("1000.01", 1L))).isEqualTo(PaymentStatus.FAILED);
+            assertThat(strategy.decide(payment("0", 1L))).isEqualTo(PaymentStatus.FAILED);
+            assertThat(strategy.decide(payment("10.00", 13L))).isEqualTo(PaymentStatus.FAILED);
+        }
+    }
+
+    @Nested
+    @DisplayName("fallback strategy")
+    class FallbackTests {
+
+        @Mock
+        private RemotePaymentDecisionStrategy remote;
+
+        @Mock
+        private LocalRandomPaymentDecisionStrategy local;
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        @Test
+        @DisplayName("should use remote decision when it answers within budget")
+        void shouldUseRemote_WithinBudget() {
+            when(remote.decide(any())).thenReturn(PaymentStatus.FAILED);
+            FallbackPaymentDecisionStrategy strategy =
+                    new FallbackPaymentDecisionStrategy(remote, local, meterRegistry, 1000);
+
+            assertThat(strategy.decide(payment("10.00", 1L))).isEqualTo(PaymentStatus.FAILED);
+            assertThat(meterRegistry.find("payment.decision.fallbacks").counter()).isNull();
+        }
+
+        @Test
+        @DisplayName("should degrade to local decision when remote is too slow")
+        void shouldDegradeToLocal_WhenRemoteIsSlow() {
+            when(remote.decide(any())).thenAnswer(invocation -> {
+                Thread.sleep(2000);
+                return PaymentStatus.FAILED;
+            });
+            when(local.decide(any())).thenReturn(PaymentStatus.SUCCESS);
+            FallbackPaymentDecisionStrategy strategy =
+                    new FallbackPaymentDecisionStrategy(remote, local, meterRegistry, 50);
+
+            assertThat(strategy.decide(payment("10.00", 1L))).isEqualTo(PaymentStatus.SUCCESS);
+            assertThat(meterRegistry.get("payment.decision.fallbacks").tag("reason", "timeout").counter().count())
+                    .isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("should degrade to local decision when remote fails")
+        void shouldDegradeToLocal_WhenRemoteFails() {
+            when(remote.decide(any())).thenThrow(new ExternalServiceException("unavailable"));
+            when(local.decide(any())).thenReturn(PaymentStatus.SUCCESS);
+            FallbackPaymentDecisionStrategy strategy =
+                    new FallbackPaymentDecisionStrategy(remote, local, meterRegistry, 1000);
+
+            assertThat(strategy.decide(payment("10.00", 1L))).isEqualTo(PaymentStatus.SUCCESS);
+            assertThat(meterRegistry.get("payment.decision.fallbacks").tag("reason", "error").counter().count())
+                    .isEqualTo(1.0);
+        }
+    }
+
+    @Nested
+    @DisplayName("selector")
+    class SelectorTests {
+
+        @Test
+        @DisplayName("should switch strategy at runtime and reject unknown names")
+        void shouldSwitchStrategy_AtRuntime() {
+            PaymentDecisionStrategy remote = strategy("remote", PaymentStatus.FAILED);
+            PaymentDecisionStrategy local = strategy("local", PaymentStatus.SUCCESS);
+            PaymentDecisionSelector selector = new PaymentDecisionSelector(List.of(remote, local), "remote");
+
+            assertThat(selector.decide(payment("10.00", 1L))).isEqualTo(PaymentStatus.FAILED);
+
+            assertThat(selector.switchTo("local")).isTrue();
+            assertThat(selector.decide(payment("10.00", 1L))).isEqualTo(PaymentStatus.SUCCESS);
+
+            assertThat(selector.switchTo("unknown")).isFalse();
+            assertThat(selector.currentStrategy()).isEqualTo("local");
+            assertThat(selector.availableStrategies()).containsExactly("local", "remote");
+        }
+
+        @Test
+        @DisplayName("should fail on startup when configured strategy is unknown")
+        void shouldFail_WhenConfiguredStrategyIsUnknown() {
+            PaymentDecisionStrategy remote = strategy("remote", PaymentStatus.SUCCESS);
+
+            assertThatThrownBy(() -> new PaymentDecisionSelector(List.of(remote), "quantum"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("quantum");
+        }
+
+        private PaymentDecisionStrategy strategy(String name, PaymentStatus status) {
+            PaymentDecisionStrategy strategy = mock(PaymentDecisionStrategy.class);
+            when(strategy.name()).thenReturn(name);
+            org.mockito.Mockito.lenient().when(strategy.decide(any())).thenReturn(status);
+            return strategy;
+        }
+    }
+}
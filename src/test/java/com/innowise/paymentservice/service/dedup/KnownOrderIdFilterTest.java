@@ -0,0 +1,72 @@
+package com.innowise.paymentservice.service.dedup;
+
+import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("KnownOrderIdFilter Unit Tests")
+class KnownOrderIdFilterTest {
+
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("should report nothing as new until warmed up, then only order ids it has not seen")
+    void shouldAnswerDefinitelyNew_OnlyAfterWarmUp() {
+        KnownOrderIdFilter filter = new KnownOrderIdFilter(paymentRepository, meterRegistry, true, 1_000, 0.01);
+        when(paymentRepository.forEachOrderId(any())).thenAnswer(invocation -> {
+            LongConsumer action = invocation.getArgument(0);
+            action.accept(1L);
+            action.accept(2L);
+            return 2L;
+        });
+
+        assertThat(filter.isDefinitelyNew(3L)).isFalse();
+
+        filter.warmUp();
+        filter.record(List.of(Payment.builder().orderId(3L).build()));
+
+        assertThat(filter.isDefinitelyNew(1L)).isFalse();
+        assertThat(filter.isDefinitelyNew(3L)).isFalse();
+        assertThat(filter.isDefinitelyNew(4L)).isTrue();
+        assertThat(meterRegistry.get("payment.order-id-filter.entries").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("payment.order-id-filter.memory").gauge().value()).isPositive();
+        assertThat(meterRegistry.get("payment.order-id-filter.warm-up").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.order-id-filter.lookups").tag("result", "definitely-new")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should keep reading Mongo when the warm-up fails")
+    void shouldStayNotReady_WhenWarmUpFails() {
+        KnownOrderIdFilter filter = new KnownOrderIdFilter(paymentRepository, meterRegistry, true, 1_000, 0.01);
+        when(paymentRepository.forEachOrderId(any())).thenThrow(new IllegalStateException("connection refused"));
+
+        filter.warmUp();
+
+        assertThat(filter.isDefinitelyNew(4L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("should not load order ids when disabled")
+    void shouldSkipWarmUp_WhenDisabled() {
+        KnownOrderIdFilter filter = new KnownOrderIdFilter(paymentRepository, meterRegistry, false, 1_000, 0.01);
+
+        filter.warmUpOnStartup();
+
+        verify(paymentRepository, never()).forEachOrderId(any());
+        assertThat(filter.isDefinitelyNew(4L)).isFalse();
+    }
+}
@@ -0,0 +1,54 @@
+package com.innowise.paymentservice.service.dedup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ScalableBloomFilter Unit Tests")
+class ScalableBloomFilterTest {
+
+    @Test
+    @DisplayName("should never report an added value as new")
+    void shouldHaveNoFalseNegatives() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+
+        LongStream.rangeClosed(1, 10_000).forEach(filter::put);
+
+        assertThat(LongStream.rangeClosed(1, 10_000).allMatch(filter::mightContain)).isTrue();
+    }
+
+    @Test
+    @DisplayName("should add stages when full and keep the false positive rate below twice the configured one")
+    void shouldGrow_AndBoundFalsePositiveRate() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+
+        LongStream.rangeClosed(1, 20_000).forEach(filter::put);
+        long falsePositives = LongStream.rangeClosed(1_000_001, 1_100_000).filter(filter::mightContain).count();
+
+        assertThat(filter.stageCount()).isGreaterThan(1);
+        assertThat(filter.size()).isLessThanOrEqualTo(20_000);
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.estimatedFalsePositiveRate()).isBetween(0.0, 0.02);
+        assertThat(filter.memoryBytes()).isPositive();
+    }
+
+    @Test
+    @DisplayName("should keep every value added concurrently")
+    void shouldKeepConcurrentPuts() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                long from = thread * 5_000L;
+                executor.execute(() -> LongStream.range(from, from + 5_000).forEach(filter::put));
+            }
+        }
+
+        assertThat(LongStream.range(0, 40_000).allMatch(filter::mightContain)).isTrue();
+    }
+}
@@ -1,17 +1,33 @@
 package com.innowise.paymentservice.service.impl;
 
-import com.innowise.paymentservice.client.RandomOrgClient;
+import com.innowise.paymentservice.dto.BatchPaymentItemResult;
 import com.innowise.paymentservice.dto.CreatePaymentRequest;
+import com.innowise.paymentservice.dto.PaymentCursor;
 import com.innowise.paymentservice.dto.PaymentResponse;
+import com.innowise.paymentservice.dto.PaymentSliceResponse;
+import com.innowise.paymentservice.dto.PaymentSummaryAggregationResult;
 import com.innowise.paymentservice.dto.PaymentSummaryResponse;
-import com.innowise.paymentservice.dto.TotalAmountAggregationResult;
+import com.innowise.paymentservice.entity.OutboxEvent;
 import com.innowise.paymentservice.entity.Payment;
+import com.innowise.paymentservice.enums.BatchItemStatus;
 import com.innowise.paymentservice.enums.PaymentStatus;
 import com.innowise.paymentservice.exception.ExternalServiceException;
+import com.innowise.paymentservice.exception.InvalidPageTokenException;
 import com.innowise.paymentservice.exception.PaymentAlreadyExistsException;
 import com.innowise.paymentservice.exception.PaymentNotFoundException;
 import com.innowise.paymentservice.mapper.PaymentMapper;
+import com.innowise.paymentservice.repository.BulkInsertResult;
+import com.innowise.paymentservice.repository.OutboxEventRepository;
+import com.innowise.paymentservice.repository.PaymentDailyRollupRepository;
 import com.innowise.paymentservice.repository.PaymentRepository;
+import com.innowise.paymentservice.service.PaymentCompletionNotifier;
+import com.innowise.paymentservice.service.PaymentResolutionExecutor;
+import com.innowise.paymentservice.service.PaymentWriteCoalescer;
+import com.innowise.paymentservice.service.cache.PaymentCache;
+import com.innowise.paymentservice.service.dedup.KnownOrderIdFilter;
+import com.innowise.paymentservice.service.decision.PaymentDecisionSelector;
+import com.innowise.paymentservice.service.statistics.PaymentWindowStatistics;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -20,17 +36,30 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.web.client.RestClientException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -47,7 +76,34 @@ public class PaymentServiceImplTest {
     private PaymentMapper paymentMapper;
 
     @Mock
-    private RandomOrgClient randomOrgClient;
+    private PaymentDecisionSelector paymentDecisionSelector;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PaymentResolutionExecutor paymentResolutionExecutor;
+
+    @Mock
+    private PaymentCompletionNotifier paymentCompletionNotifier;
+
+    @Mock
+    private PaymentDailyRollupRepository paymentDailyRollupRepository;
+
+    @Mock
+    private PaymentWindowStatistics paymentWindowStatistics;
+
+    @Mock
+    private PaymentCache paymentCache;
+
+    @Mock
+    private PaymentWriteCoalescer paymentWriteCoalescer;
+
+    @Mock
+    private KnownOrderIdFilter knownOrderIdFilter;
+
+    @Mock
+    private TransactionOperations paymentTransactionOperations;
 
     @InjectMocks
     private PaymentServiceImpl paymentService;
@@ -89,11 +145,9 @@ public class PaymentServiceImplTest {
                     .totalAmount(new BigDecimal("100.00"))
                     .build();
 
-            when(paymentRepository.existsByOrderId(1L)).thenReturn(false);
             when(paymentMapper.toEntity(request)).thenReturn(payment);
-            when(paymentRepository.save(any(Payment.class))).thenReturn(savedPayment);
-            when(randomOrgClient.generateRandomNumber()).thenReturn(42);
-            when(randomOrgClient.isEven(42)).thenReturn(true);
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.insert(any(Payment.class))).thenReturn(savedPayment);
             when(paymentMapper.toDto(savedPayment)).thenReturn(expected);
 
             PaymentResponse result = paymentService.createPayment(request);
@@ -102,10 +156,10 @@ public class PaymentServiceImplTest {
             assertThat(result.status()).isEqualTo(PaymentStatus.SUCCESS);
             assertThat(result.orderId()).isEqualTo(1L);
 
-            verify(paymentRepository).existsByOrderId(1L);
-            verify(paymentRepository, times(2)).save(any(Payment.class));
-            verify(randomOrgClient).generateRandomNumber();
-            verify(randomOrgClient).isEven(42);
+            verify(paymentRepository).insert(any(Payment.class));
+            verify(paymentRepository, never()).existsByOrderId(any());
+            verify(paymentRepository, never()).save(any());
+            verify(paymentDecisionSelector).decide(any(Payment.class));
         }
 
         @Test
@@ -141,11 +195,9 @@ public class PaymentServiceImplTest {
                     .timestamp(LocalDateTime.now())
                     .build();
 
-            when(paymentRepository.existsByOrderId(2L)).thenReturn(false);
             when(paymentMapper.toEntity(request)).thenReturn(payment);
-            when(paymentRepository.save(any(Payment.class))).thenReturn(savedPayment);
-            when(randomOrgClient.generateRandomNumber()).thenReturn(13); // Odd number
-            when(randomOrgClient.isEven(13)).thenReturn(false);
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.FAILED);
+            when(paymentRepository.insert(any(Payment.class))).thenReturn(savedPayment);
             when(paymentMapper.toDto(savedPayment)).thenReturn(expected);
 
             PaymentResponse result = paymentService.createPayment(request);
@@ -156,7 +208,7 @@ public class PaymentServiceImplTest {
         }
 
         @Test
-        @DisplayName("should throw PaymentAlreadyExistsException when payment exists for order")
+        @DisplayName("should throw PaymentAlreadyExistsException when insert hits the unique order id index")
         void shouldThrowException_WhenPaymentAlreadyExists() {
             CreatePaymentRequest request = CreatePaymentRequest.builder()
                     .orderId(1L)
@@ -164,15 +216,62 @@ public class PaymentServiceImplTest {
                     .paymentAmount(new BigDecimal("100.00"))
                     .build();
 
-            when(paymentRepository.existsByOrderId(1L)).thenReturn(true);
+            when(paymentMapper.toEntity(request)).thenReturn(Payment.builder().orderId(1L).build());
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.insert(any(Payment.class)))
+                    .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
 
             assertThatThrownBy(() -> paymentService.createPayment(request))
                     .isInstanceOf(PaymentAlreadyExistsException.class)
                     .hasMessageContaining("Payment already exists for orderId=1");
 
-            verify(paymentRepository).existsByOrderId(1L);
+            verify(paymentRepository, never()).existsByOrderId(any());
             verify(paymentRepository, never()).save(any());
-            verify(randomOrgClient, never()).generateRandomNumber();
+        }
+
+        @Test
+        @DisplayName("should insert through the write coalescer when it is active")
+        void shouldInsertThroughCoalescer_WhenActive() {
+            CreatePaymentRequest request = CreatePaymentRequest.builder()
+                    .orderId(3L)
+                    .userId(1L)
+                    .paymentAmount(new BigDecimal("300.00"))
+                    .build();
+            Payment payment = Payment.builder().orderId(3L).userId(1L).build();
+            PaymentResponse expected = PaymentResponse.builder()
+                    .orderId(3L)
+                    .status(PaymentStatus.SUCCESS)
+                    .build();
+
+            when(paymentMapper.toEntity(request)).thenReturn(payment);
+            when(paymentDecisionSelector.decide(payment)).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentWriteCoalescer.isActive()).thenReturn(true);
+            when(paymentWriteCoalescer.insert(payment)).thenReturn(payment);
+            when(paymentMapper.toDto(payment)).thenReturn(expected);
+
+            assertThat(paymentService.createPayment(request)).isEqualTo(expected);
+
+            verify(paymentRepository, never()).insert(any(Payment.class));
+        }
+
+        @Test
+        @DisplayName("should map a coalesced duplicate key error to PaymentAlreadyExistsException")
+        void shouldThrowException_WhenCoalescedInsertIsDuplicate() {
+            CreatePaymentRequest request = CreatePaymentRequest.builder()
+                    .orderId(3L)
+                    .userId(1L)
+                    .paymentAmount(new BigDecimal("300.00"))
+                    .build();
+
+            when(paymentMapper.toEntity(request)).thenReturn(Payment.builder().orderId(3L).build());
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentWriteCoalescer.isActive()).thenReturn(true);
+            when(paymentWriteCoalescer.insert(any(Payment.class)))
+                    .thenThrow(new DuplicateKeyException("Payment already exists for orderId=3"));
+
+            assertThatThrownBy(() -> paymentService.createPayment(request))
+                    .isInstanceOf(PaymentAlreadyExistsException.class)
+                    .hasMessageContaining("Payment already exists for orderId=3");
         }
 
         @Test
@@ -190,22 +289,23 @@ public class PaymentServiceImplTest {
                     .paymentAmount(new BigDecimal("300.00"))
                     .build();
 
-            when(paymentRepository.existsByOrderId(3L)).thenReturn(false);
             when(paymentMapper.toEntity(request)).thenReturn(payment);
-            when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
-            when(randomOrgClient.generateRandomNumber())
-                    .thenThrow(new RestClientException("API unavailable"));
+            when(paymentDecisionSelector.decide(any(Payment.class)))
+                    .thenThrow(new ExternalServiceException("Failed to process payment: external service unavailable"));
 
             assertThatThrownBy(() -> paymentService.createPayment(request))
                     .isInstanceOf(ExternalServiceException.class)
                     .hasMessageContaining("Failed to process payment");
 
-            verify(randomOrgClient).generateRandomNumber();
+            verify(paymentDecisionSelector).decide(any(Payment.class));
+            verify(paymentRepository, never()).insert(any(Payment.class));
         }
 
         @Test
-        @DisplayName("should set status to PROCESSING initially")
-        void shouldSetStatusToProcessing_Initially() {
+        @DisplayName("should store PROCESSING first and finish with one findAndModify when processing state is kept")
+        void shouldStoreProcessingFirst_WhenProcessingStateIsKept() {
+            ReflectionTestUtils.setField(paymentService, "keepProcessingState", true);
+
             CreatePaymentRequest request = CreatePaymentRequest.builder()
                     .orderId(4L)
                     .userId(1L)
@@ -218,32 +318,531 @@ public class PaymentServiceImplTest {
                     .paymentAmount(new BigDecimal("400.00"))
                     .build();
 
-            when(paymentRepository.existsByOrderId(4L)).thenReturn(false);
+            Payment finished = Payment.builder()
+                    .orderId(4L)
+                    .status(PaymentStatus.SUCCESS)
+                    .build();
+
             when(paymentMapper.toEntity(request)).thenReturn(payment);
-            when(paymentRepository.save(any(Payment.class)))
-                    .thenAnswer(invocation -> {
-                        Payment p = invocation.getArgument(0);
-                        return Payment.builder()
-                                .orderId(p.getOrderId())
-                                .userId(p.getUserId())
-                                .paymentAmount(p.getPaymentAmount())
-                                .status(p.getStatus())
-                                .timestamp(p.getTimestamp())
-                                .build();
-                    });
-            when(randomOrgClient.generateRandomNumber()).thenReturn(10);
-            when(randomOrgClient.isEven(10)).thenReturn(true);
-            when(paymentMapper.toDto(any())).thenReturn(
-                    PaymentResponse.builder().build()
+            when(paymentRepository.insertIfAbsent(any(Payment.class))).thenAnswer(invocation -> {
+                Payment inserted = invocation.getArgument(0);
+                assertThat(inserted.getStatus()).isEqualTo(PaymentStatus.PROCESSING);
+                assertThat(inserted.getId()).isNotNull();
+                return Optional.empty();
+            });
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.updateStatus(any(), eq(PaymentStatus.PROCESSING), eq(PaymentStatus.SUCCESS)))
+                    .thenReturn(Optional.of(finished));
+            when(paymentMapper.toDto(finished)).thenReturn(
+                    PaymentResponse.builder().status(PaymentStatus.SUCCESS).build()
+            );
+
+            PaymentResponse result = paymentService.createPayment(request);
+
+            assertThat(result.status()).isEqualTo(PaymentStatus.SUCCESS);
+            verify(paymentRepository, never()).save(any());
+            verify(paymentRepository, never()).insert(any(Payment.class));
+        }
+
+        @Test
+        @DisplayName("should not decide status when PROCESSING insert finds existing payment")
+        void shouldThrowException_WhenProcessingInsertFindsExistingPayment() {
+            ReflectionTestUtils.setField(paymentService, "keepProcessingState", true);
+
+            CreatePaymentRequest request = CreatePaymentRequest.builder()
+                    .orderId(4L)
+                    .userId(1L)
+                    .paymentAmount(new BigDecimal("400.00"))
+                    .build();
+
+            when(paymentMapper.toEntity(request)).thenReturn(Payment.builder().orderId(4L).build());
+            when(paymentRepository.insertIfAbsent(any(Payment.class)))
+                    .thenReturn(Optional.of(Payment.builder().orderId(4L).build()));
+
+            assertThatThrownBy(() -> paymentService.createPayment(request))
+                    .isInstanceOf(PaymentAlreadyExistsException.class);
+
+            verify(paymentDecisionSelector, never()).decide(any(Payment.class));
+            verify(paymentRepository, never()).updateStatus(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should resume existing payment stuck in PROCESSING instead of skipping the redelivered order")
+        void shouldResumeExistingPayment_WhenItIsStuckInProcessing() {
+            ReflectionTestUtils.setField(paymentService, "keepProcessingState", true);
+
+            CreatePaymentRequest request = CreatePaymentRequest.builder()
+                    .orderId(4L)
+                    .userId(1L)
+                    .paymentAmount(new BigDecimal("400.00"))
+                    .build();
+            Payment stuck = Payment.builder().id("payment-4").orderId(4L).status(PaymentStatus.PROCESSING).build();
+            Payment finished = Payment.builder().id("payment-4").orderId(4L).status(PaymentStatus.SUCCESS).build();
+
+            when(paymentMapper.toEntity(request)).thenReturn(Payment.builder().orderId(4L).build());
+            when(paymentRepository.insertIfAbsent(any(Payment.class))).thenReturn(Optional.of(stuck));
+            when(paymentRepository.findByOrderId(4L)).thenReturn(Optional.of(stuck));
+            when(paymentDecisionSelector.decide(stuck)).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.updateStatus("payment-4", PaymentStatus.PROCESSING, PaymentStatus.SUCCESS))
+                    .thenReturn(Optional.of(finished));
+            when(paymentMapper.toDto(finished)).thenReturn(
+                    PaymentResponse.builder().id("payment-4").orderId(4L).status(PaymentStatus.SUCCESS).build()
             );
 
+            PaymentResponse result = paymentService.createPayment(request);
+
+            assertThat(result.status()).isEqualTo(PaymentStatus.SUCCESS);
+            verify(paymentCompletionNotifier).publish(result);
+        }
+
+        @Test
+        @DisplayName("should detect an existing order with an upsert inside a transaction and resume it")
+        void shouldResumeExistingPayment_WithoutDuplicateKeyError_InsideTransaction() {
+            CreatePaymentRequest request = CreatePaymentRequest.builder()
+                    .orderId(4L)
+                    .userId(1L)
+                    .paymentAmount(new BigDecimal("400.00"))
+                    .build();
+            Payment stuck = Payment.builder().id("payment-4").orderId(4L).status(PaymentStatus.PROCESSING).build();
+            Payment finished = Payment.builder().id("payment-4").orderId(4L).status(PaymentStatus.SUCCESS).build();
+
+            when(paymentMapper.toEntity(request)).thenReturn(Payment.builder().orderId(4L).build());
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.insertIfAbsent(any(Payment.class))).thenReturn(Optional.of(stuck));
+            when(paymentRepository.findByOrderId(4L)).thenReturn(Optional.of(stuck));
+            when(paymentRepository.updateStatus("payment-4", PaymentStatus.PROCESSING, PaymentStatus.SUCCESS))
+                    .thenReturn(Optional.of(finished));
+            when(paymentMapper.toDto(finished)).thenReturn(
+                    PaymentResponse.builder().id("payment-4").orderId(4L).status(PaymentStatus.SUCCESS).build()
+            );
+
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            PaymentResponse result;
+            try {
+                result = paymentService.createPayment(request);
+            } finally {
+                TransactionSynchronizationManager.setActualTransactionActive(false);
+            }
+
+            assertThat(result.status()).isEqualTo(PaymentStatus.SUCCESS);
+            verify(paymentRepository, never()).insert(any(Payment.class));
+            verify(paymentWriteCoalescer, never()).insert(any(Payment.class));
+        }
+
+        @Test
+        @DisplayName("should not resume payment that already left PROCESSING")
+        void shouldNotResumePayment_WhenAlreadyResolved() {
+            when(paymentRepository.findByOrderId(4L)).thenReturn(Optional.of(
+                    Payment.builder().id("payment-4").orderId(4L).status(PaymentStatus.FAILED).build()));
+
+            assertThat(paymentService.resumePayment(4L)).isEmpty();
+
+            verify(paymentDecisionSelector, never()).decide(any(Payment.class));
+            verify(paymentRepository, never()).updateStatus(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should append payment event to outbox when outbox is enabled")
+        void shouldAppendPaymentEventToOutbox_WhenEnabled() {
+            ReflectionTestUtils.setField(paymentService, "outboxEnabled", true);
+
+            CreatePaymentRequest request = CreatePaymentRequest.builder()
+                    .orderId(5L)
+                    .userId(1L)
+                    .paymentAmount(new BigDecimal("500.00"))
+                    .build();
+
+            Payment payment = Payment.builder().orderId(5L).userId(1L).build();
+
+            PaymentResponse expected = PaymentResponse.builder()
+                    .id("payment-5")
+                    .orderId(5L)
+                    .userId(1L)
+                    .status(PaymentStatus.SUCCESS)
+                    .build();
+
+            when(paymentMapper.toEntity(request)).thenReturn(payment);
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.insert(any(Payment.class))).thenReturn(payment);
+            when(paymentMapper.toDto(payment)).thenReturn(expected);
+
             paymentService.createPayment(request);
 
-            ArgumentCaptor<Payment> paymentCaptor = ArgumentCaptor.forClass(Payment.class);
-            verify(paymentRepository, times(2)).save(paymentCaptor.capture());
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+            verify(outboxEventRepository).insert(captor.capture());
 
-            List<Payment> savedPayments = paymentCaptor.getAllValues();
-            assertThat(savedPayments.getFirst().getStatus()).isEqualTo(PaymentStatus.PROCESSING);
+            OutboxEvent entry = captor.getValue().getFirst();
+            assertThat(entry.getKey()).isEqualTo("5");
+            assertThat(entry.getEvent().paymentId()).isEqualTo("payment-5");
+            assertThat(entry.getEvent().status()).isEqualTo(PaymentStatus.SUCCESS);
+        }
+    }
+
+    @Nested
+    @DisplayName("Create payment asynchronously tests")
+    class CreatePaymentAsyncTests {
+
+        private final CreatePaymentRequest request = CreatePaymentRequest.builder()
+                .orderId(5L)
+                .userId(1L)
+                .paymentAmount(new BigDecimal("50.00"))
+                .build();
+
+        private final Payment payment = Payment.builder()
+                .orderId(5L)
+                .userId(1L)
+                .paymentAmount(new BigDecimal("50.00"))
+                .build();
+
+        private final Payment resolved = Payment.builder()
+                .orderId(5L)
+                .status(PaymentStatus.SUCCESS)
+                .build();
+
+        private final PaymentResponse processingResponse = PaymentResponse.builder()
+                .orderId(5L)
+                .status(PaymentStatus.PROCESSING)
+                .build();
+
+        private final PaymentResponse resolvedResponse = PaymentResponse.builder()
+                .orderId(5L)
+                .status(PaymentStatus.SUCCESS)
+                .build();
+
+        private final AtomicBoolean inTransaction = new AtomicBoolean();
+
+        @BeforeEach
+        void setUp() {
+            lenient().when(paymentTransactionOperations.execute(any())).thenAnswer(invocation -> {
+                inTransaction.set(true);
+                try {
+                    return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+                } finally {
+                    inTransaction.set(false);
+                }
+            });
+        }
+
+        @Test
+        @DisplayName("should return PROCESSING payment and resolve it in background")
+        void shouldReturnProcessingPayment_AndResolveInBackground() {
+            when(paymentMapper.toEntity(request)).thenReturn(payment);
+            when(paymentRepository.insertIfAbsent(any(Payment.class))).thenReturn(Optional.empty());
+            when(paymentResolutionExecutor.trySubmit(any())).thenReturn(true);
+            when(paymentMapper.toDto(payment)).thenReturn(processingResponse);
+
+            PaymentResponse result = paymentService.createPaymentAsync(request);
+
+            assertThat(result.status()).isEqualTo(PaymentStatus.PROCESSING);
+            verify(paymentDecisionSelector, never()).decide(any(Payment.class));
+
+            ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+            verify(paymentResolutionExecutor).trySubmit(task.capture());
+            when(paymentDecisionSelector.decide(payment)).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.updateStatus(any(), eq(PaymentStatus.PROCESSING), eq(PaymentStatus.SUCCESS)))
+                    .thenReturn(Optional.of(resolved));
+            when(paymentMapper.toDto(resolved)).thenReturn(resolvedResponse);
+
+            task.getValue().run();
+
+            verify(paymentCompletionNotifier).publish(resolvedResponse);
+        }
+
+        @Test
+        @DisplayName("should mark payment FAILED when decision fails in background")
+        void shouldMarkPaymentFailed_WhenDecisionFails() {
+            Payment failed = Payment.builder().orderId(5L).status(PaymentStatus.FAILED).build();
+            PaymentResponse failedResponse = PaymentResponse.builder().orderId(5L).status(PaymentStatus.FAILED).build();
+
+            when(paymentMapper.toEntity(request)).thenReturn(payment);
+            when(paymentRepository.insertIfAbsent(any(Payment.class))).thenReturn(Optional.empty());
+            when(paymentResolutionExecutor.trySubmit(any())).thenAnswer(invocation -> {
+                invocation.<Runnable>getArgument(0).run();
+                return true;
+            });
+            when(paymentDecisionSelector.decide(payment)).thenThrow(new ExternalServiceException("unavailable"));
+            when(paymentRepository.updateStatus(any(), eq(PaymentStatus.PROCESSING), eq(PaymentStatus.FAILED)))
+                    .thenReturn(Optional.of(failed));
+            when(paymentMapper.toDto(failed)).thenReturn(failedResponse);
+
+            paymentService.createPaymentAsync(request);
+
+            verify(paymentCompletionNotifier).publish(failedResponse);
+        }
+
+        @Test
+        @DisplayName("should resolve synchronously when too many payments are in progress")
+        void shouldResolveSynchronously_WhenExecutorIsSaturated() {
+            when(paymentMapper.toEntity(request)).thenReturn(payment);
+            when(paymentRepository.insertIfAbsent(any(Payment.class))).thenReturn(Optional.empty());
+            when(paymentResolutionExecutor.trySubmit(any())).thenReturn(false);
+            when(paymentDecisionSelector.decide(payment)).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.updateStatus(any(), eq(PaymentStatus.PROCESSING), eq(PaymentStatus.SUCCESS)))
+                    .thenReturn(Optional.of(resolved));
+            when(paymentMapper.toDto(resolved)).thenReturn(resolvedResponse);
+
+            PaymentResponse result = paymentService.createPaymentAsync(request);
+
+            assertThat(result.status()).isEqualTo(PaymentStatus.SUCCESS);
+        }
+
+        @Test
+        @DisplayName("should write status and outbox entry of a background resolution in one transaction")
+        void shouldWriteStatusAndOutboxInOneTransaction_WhenResolvedInBackground() {
+            ReflectionTestUtils.setField(paymentService, "outboxEnabled", true);
+            List<Boolean> writtenInTransaction = new ArrayList<>();
+            when(paymentMapper.toEntity(request)).thenReturn(payment);
+            when(paymentRepository.insertIfAbsent(any(Payment.class))).thenReturn(Optional.empty());
+            when(paymentResolutionExecutor.trySubmit(any())).thenAnswer(invocation -> {
+                invocation.<Runnable>getArgument(0).run();
+                return true;
+            });
+            when(paymentDecisionSelector.decide(payment)).thenAnswer(invocation -> {
+                writtenInTransaction.add(inTransaction.get());
+                return PaymentStatus.SUCCESS;
+            });
+            when(paymentRepository.updateStatus(any(), eq(PaymentStatus.PROCESSING), eq(PaymentStatus.SUCCESS)))
+                    .thenAnswer(invocation -> {
+                        writtenInTransaction.add(inTransaction.get());
+                        return Optional.of(resolved);
+                    });
+            when(outboxEventRepository.insert(anyList())).thenAnswer(invocation -> {
+                writtenInTransaction.add(inTransaction.get());
+                return invocation.getArgument(0);
+            });
+            doAnswer(invocation -> writtenInTransaction.add(inTransaction.get()))
+                    .when(paymentCompletionNotifier).publish(resolvedResponse);
+            when(paymentMapper.toDto(any(Payment.class))).thenReturn(resolvedResponse);
+
+            paymentService.createPaymentAsync(request);
+
+            // decision and notification stay outside, status change and outbox entry are written inside
+            assertThat(writtenInTransaction).containsExactly(false, true, true, false);
+            verify(paymentTransactionOperations).execute(any());
+        }
+
+        @Test
+        @DisplayName("should notify listener right away when payment is already resolved")
+        void shouldNotifyListener_WhenPaymentIsResolved() {
+            when(paymentRepository.findByOrderId(5L)).thenReturn(Optional.of(resolved));
+            when(paymentMapper.toDto(resolved)).thenReturn(resolvedResponse);
+            List<PaymentResponse> received = new ArrayList<>();
+
+            paymentService.onPaymentResolved(5L, received::add);
+
+            assertThat(received).containsExactly(resolvedResponse);
+            verify(paymentCompletionNotifier, never()).subscribe(any(), any());
+        }
+
+        @Test
+        @DisplayName("should notify listener once when payment is resolved after subscribing")
+        void shouldNotifyListenerOnce_WhenPaymentIsResolvedLater() {
+            Payment processing = Payment.builder().orderId(5L).status(PaymentStatus.PROCESSING).build();
+            when(paymentRepository.findByOrderId(5L))
+                    .thenReturn(Optional.of(processing))
+                    .thenReturn(Optional.of(resolved));
+            when(paymentMapper.toDto(processing)).thenReturn(processingResponse);
+            when(paymentMapper.toDto(resolved)).thenReturn(resolvedResponse);
+            ArgumentCaptor<Consumer<PaymentResponse>> subscribed = ArgumentCaptor.captor();
+            Runnable unsubscribe = mock(Runnable.class);
+            when(paymentCompletionNotifier.subscribe(eq(5L), subscribed.capture())).thenReturn(unsubscribe);
+            List<PaymentResponse> received = new ArrayList<>();
+
+            paymentService.onPaymentResolved(5L, received::add);
+            subscribed.getValue().accept(resolvedResponse);
+
+            assertThat(received).containsExactly(resolvedResponse);
+            verify(unsubscribe).run();
+        }
+    }
+
+    @Nested
+    @DisplayName("Create payments in bulk tests")
+    class CreatePaymentsTests {
+
+        @BeforeEach
+        void setUp() {
+            ReflectionTestUtils.setField(paymentService, "decisionConcurrency", 2);
+        }
+
+        @Test
+        @DisplayName("should skip orders that already exist or repeat within the batch")
+        void shouldSkipDuplicates_AgainstMongoAndWithinBatch() {
+            CreatePaymentRequest existing = request(1L);
+            CreatePaymentRequest fresh = request(2L);
+            CreatePaymentRequest repeated = request(2L);
+
+            when(paymentRepository.findOrderIdsByOrderIdIn(any()))
+                    .thenReturn(List.of(Payment.builder().orderId(1L).build()));
+            when(paymentMapper.toEntity(fresh)).thenReturn(Payment.builder().orderId(2L).build());
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.insertAllUnordered(any())).thenReturn(BulkInsertResult.empty());
+            when(paymentMapper.toDto(any(Payment.class)))
+                    .thenReturn(PaymentResponse.builder().orderId(2L).status(PaymentStatus.SUCCESS).build());
+
+            List<BatchPaymentItemResult> results = paymentService.createPayments(List.of(existing, fresh, repeated));
+
+            assertThat(results).extracting(BatchPaymentItemResult::result)
+                    .containsExactly(BatchItemStatus.DUPLICATE, BatchItemStatus.CREATED, BatchItemStatus.DUPLICATE);
+            verify(paymentRepository).findOrderIdsByOrderIdIn(any());
+            verify(paymentRepository, never()).existsByOrderId(any());
+            verify(paymentRepository, never()).save(any());
+            verify(paymentDecisionSelector, times(1)).decide(any(Payment.class));
+        }
+
+        @Test
+        @DisplayName("should read only order ids the filter cannot rule out and remember inserted ones")
+        void shouldSkipMongoRead_ForOrdersTheFilterKnowsAreNew() {
+            CreatePaymentRequest known = request(1L);
+            CreatePaymentRequest fresh = request(2L);
+
+            when(knownOrderIdFilter.isDefinitelyNew(1L)).thenReturn(false);
+            when(knownOrderIdFilter.isDefinitelyNew(2L)).thenReturn(true);
+            when(paymentRepository.findOrderIdsByOrderIdIn(Set.of(1L))).thenReturn(List.of());
+            when(paymentMapper.toEntity(known)).thenReturn(Payment.builder().orderId(1L).build());
+            when(paymentMapper.toEntity(fresh)).thenReturn(Payment.builder().orderId(2L).build());
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.insertAllUnordered(any())).thenReturn(BulkInsertResult.empty());
+            when(paymentMapper.toDto(any(Payment.class))).thenReturn(PaymentResponse.builder().build());
+
+            paymentService.createPayments(List.of(known, fresh));
+
+            verify(paymentRepository).findOrderIdsByOrderIdIn(Set.of(1L));
+            verify(knownOrderIdFilter).recordFalsePositives(1);
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Payment>> captor = ArgumentCaptor.forClass(List.class);
+            verify(knownOrderIdFilter).record(captor.capture());
+            assertThat(captor.getValue()).extracting(Payment::getOrderId).containsExactly(1L, 2L);
+        }
+
+        @Test
+        @DisplayName("should not read Mongo when the filter knows every order is new")
+        void shouldNotReadMongo_WhenAllOrdersAreNew() {
+            CreatePaymentRequest fresh = request(2L);
+
+            when(knownOrderIdFilter.isDefinitelyNew(2L)).thenReturn(true);
+            when(paymentMapper.toEntity(fresh)).thenReturn(Payment.builder().orderId(2L).build());
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.insertAllUnordered(any())).thenReturn(BulkInsertResult.empty());
+            when(paymentMapper.toDto(any(Payment.class))).thenReturn(PaymentResponse.builder().build());
+
+            paymentService.createPayments(List.of(fresh));
+
+            verify(paymentRepository, never()).findOrderIdsByOrderIdIn(any());
+        }
+
+        @Test
+        @DisplayName("should read every order id inside a transaction where a duplicate would abort the batch")
+        void shouldNotUseFilter_InsideTransaction() {
+            CreatePaymentRequest fresh = request(2L);
+
+            when(paymentRepository.findOrderIdsByOrderIdIn(Set.of(2L))).thenReturn(List.of());
+            when(paymentMapper.toEntity(fresh)).thenReturn(Payment.builder().orderId(2L).build());
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.insertAllUnordered(any())).thenReturn(BulkInsertResult.empty());
+            when(paymentMapper.toDto(any(Payment.class))).thenReturn(PaymentResponse.builder().build());
+
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            try {
+                paymentService.createPayments(List.of(fresh));
+            } finally {
+                TransactionSynchronizationManager.setActualTransactionActive(false);
+            }
+
+            verify(paymentRepository).findOrderIdsByOrderIdIn(Set.of(2L));
+            verify(knownOrderIdFilter, never()).isDefinitelyNew(anyLong());
+            verify(knownOrderIdFilter, never()).recordFalsePositives(anyInt());
+        }
+
+        @Test
+        @DisplayName("should write all payments with one bulk insert with final status and id assigned")
+        void shouldInsertAllPayments_WithSingleBulkWrite() {
+            CreatePaymentRequest first = request(1L);
+            CreatePaymentRequest second = request(2L);
+
+            when(paymentRepository.findOrderIdsByOrderIdIn(any())).thenReturn(List.of());
+            when(paymentMapper.toEntity(first)).thenReturn(Payment.builder().orderId(1L).build());
+            when(paymentMapper.toEntity(second)).thenReturn(Payment.builder().orderId(2L).build());
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenAnswer(invocation ->
+                    invocation.<Payment>getArgument(0).getOrderId() == 1L ? PaymentStatus.SUCCESS : PaymentStatus.FAILED);
+            when(paymentRepository.insertAllUnordered(any())).thenReturn(BulkInsertResult.empty());
+            when(paymentMapper.toDto(any(Payment.class))).thenReturn(PaymentResponse.builder().build());
+
+            paymentService.createPayments(List.of(first, second));
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Payment>> captor = ArgumentCaptor.forClass(List.class);
+            verify(paymentRepository).insertAllUnordered(captor.capture());
+
+            assertThat(captor.getValue()).hasSize(2);
+            assertThat(captor.getValue()).allMatch(p -> p.getId() != null && p.getTimestamp() != null);
+            assertThat(captor.getValue()).extracting(Payment::getStatus)
+                    .containsExactly(PaymentStatus.SUCCESS, PaymentStatus.FAILED);
+        }
+
+        @Test
+        @DisplayName("should report per-item failures and duplicate-key rejections from bulk insert")
+        void shouldReportFailures_PerItem() {
+            CreatePaymentRequest unavailable = request(1L);
+            CreatePaymentRequest raced = request(2L);
+            CreatePaymentRequest created = request(3L);
+
+            when(paymentRepository.findOrderIdsByOrderIdIn(any())).thenReturn(List.of());
+            when(paymentMapper.toEntity(unavailable)).thenReturn(Payment.builder().orderId(1L).build());
+            when(paymentMapper.toEntity(raced)).thenReturn(Payment.builder().orderId(2L).build());
+            when(paymentMapper.toEntity(created)).thenReturn(Payment.builder().orderId(3L).build());
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenAnswer(invocation -> {
+                if (invocation.<Payment>getArgument(0).getOrderId() == 1L) {
+                    throw new ExternalServiceException("Failed to process payment: external service unavailable");
+                }
+                return PaymentStatus.SUCCESS;
+            });
+            when(paymentRepository.insertAllUnordered(any()))
+                    .thenReturn(new BulkInsertResult(Set.of(2L), Map.of()));
+            when(paymentMapper.toDto(any(Payment.class)))
+                    .thenReturn(PaymentResponse.builder().orderId(3L).build());
+
+            List<BatchPaymentItemResult> results =
+                    paymentService.createPayments(List.of(unavailable, raced, created));
+
+            assertThat(results).extracting(BatchPaymentItemResult::result)
+                    .containsExactly(BatchItemStatus.FAILED, BatchItemStatus.DUPLICATE, BatchItemStatus.CREATED);
+            assertThat(results.getFirst().error()).contains("Failed to process payment");
+        }
+
+        @Test
+        @DisplayName("should decide at most decision-concurrency payments at once")
+        void shouldBoundConcurrentDecisions() {
+            List<CreatePaymentRequest> requests = LongStream.rangeClosed(1, 8).mapToObj(this::request).toList();
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+
+            when(paymentRepository.findOrderIdsByOrderIdIn(any())).thenReturn(List.of());
+            when(paymentMapper.toEntity(any(CreatePaymentRequest.class))).thenAnswer(invocation ->
+                    Payment.builder().orderId(invocation.<CreatePaymentRequest>getArgument(0).orderId()).build());
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenAnswer(invocation -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                running.decrementAndGet();
+                return PaymentStatus.SUCCESS;
+            });
+            when(paymentRepository.insertAllUnordered(any())).thenReturn(BulkInsertResult.empty());
+            when(paymentMapper.toDto(any(Payment.class))).thenReturn(PaymentResponse.builder().build());
+
+            List<BatchPaymentItemResult> results = paymentService.createPayments(requests);
+
+            assertThat(results).extracting(BatchPaymentItemResult::result).containsOnly(BatchItemStatus.CREATED);
+            assertThat(maxRunning.get()).isBetween(1, 2);
+            verify(paymentDecisionSelector, times(8)).decide(any(Payment.class));
+        }
+
+        private CreatePaymentRequest request(Long orderId) {
+            return CreatePaymentRequest.builder()
+                    .orderId(orderId)
+                    .userId(1L)
+                    .paymentAmount(new BigDecimal("100.00"))
+                    .build();
         }
     }
 
@@ -298,37 +897,20 @@ public class PaymentServiceImplTest {
     class GetPaymentsByUserIdTests {
 
         @Test
-        @DisplayName("should return list of payments for user")
+        @DisplayName("should return list of payments for user read as responses")
         void shouldReturnListOfPayments_ForUser() {
-            List<Payment> payments = List.of(
-                    Payment.builder()
-                            .id("payment-1")
-                            .orderId(1L)
-                            .userId(1L)
-                            .status(PaymentStatus.SUCCESS)
-                            .paymentAmount(new BigDecimal("100.00"))
-                            .build(),
-                    Payment.builder()
-                            .id("payment-2")
-                            .orderId(2L)
-                            .userId(1L)
-                            .status(PaymentStatus.FAILED)
-                            .paymentAmount(new BigDecimal("200.00"))
-                            .build()
-            );
-
             List<PaymentResponse> expectedResponses = List.of(
                     PaymentResponse.builder().id("payment-1").orderId(1L).build(),
                     PaymentResponse.builder().id("payment-2").orderId(2L).build()
             );
 
-            when(paymentRepository.findByUserId(1L)).thenReturn(payments);
-            when(paymentMapper.toDtoList(payments)).thenReturn(expectedResponses);
+            when(paymentRepository.findResponsesByUserId(1L)).thenReturn(expectedResponses);
 
             List<PaymentResponse> result = paymentService.getPaymentsByUserId(1L);
 
             assertThat(result).hasSize(2);
-            verify(paymentRepository).findByUserId(1L);
+            verify(paymentRepository, never()).findByUserId(any());
+            verifyNoInteractions(paymentMapper);
         }
 
         @Test
@@ -355,6 +937,55 @@ public class PaymentServiceImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("Payment slice tests")
+    class PaymentSliceTests {
+
+        @Test
+        @DisplayName("should return slice with token of the next one when more payments follow")
+        void shouldReturnSliceWithNextToken_WhenMorePaymentsFollow() {
+            LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 12, 0);
+            List<PaymentResponse> payments = List.of(
+                    PaymentResponse.builder().id("65a000000000000000000001").timestamp(timestamp).build(),
+                    PaymentResponse.builder().id("65a000000000000000000002").timestamp(timestamp).build(),
+                    PaymentResponse.builder().id("65a000000000000000000003").timestamp(timestamp).build()
+            );
+
+            when(paymentRepository.findSliceByStatus(PaymentStatus.FAILED, null, 3)).thenReturn(payments);
+
+            PaymentSliceResponse result = paymentService.getPaymentsByStatus(PaymentStatus.FAILED, null, 2);
+
+            assertThat(result.content()).hasSize(2);
+            assertThat(result.hasNext()).isTrue();
+            assertThat(PaymentCursor.decode(result.nextToken()))
+                    .isEqualTo(new PaymentCursor(timestamp, "65a000000000000000000002"));
+        }
+
+        @Test
+        @DisplayName("should seek after the cursor in the token and report the last slice")
+        void shouldSeekAfterCursor_AndReportLastSlice() {
+            PaymentCursor cursor = new PaymentCursor(LocalDateTime.of(2025, 1, 1, 12, 0), "65a000000000000000000002");
+            List<PaymentResponse> payments = List.of(PaymentResponse.builder().id("65a000000000000000000003").build());
+
+            when(paymentRepository.findSliceByUserId(1L, cursor, 3)).thenReturn(payments);
+
+            PaymentSliceResponse result = paymentService.getPaymentsByUserId(1L, cursor.encode(), 2);
+
+            assertThat(result.content()).hasSize(1);
+            assertThat(result.hasNext()).isFalse();
+            assertThat(result.nextToken()).isNull();
+        }
+
+        @Test
+        @DisplayName("should reject malformed page token")
+        void shouldRejectMalformedToken() {
+            assertThatThrownBy(() -> paymentService.getPaymentsByUserId(1L, "not-a-token", 20))
+                    .isInstanceOf(InvalidPageTokenException.class);
+
+            verify(paymentRepository, never()).findSliceByUserId(any(), any(), anyInt());
+        }
+    }
+
     @Nested
     @DisplayName("getPaymentsByStatus tests")
     class GetPaymentsByStatusTests {
@@ -362,19 +993,11 @@ public class PaymentServiceImplTest {
         @Test
         @DisplayName("should return payments by status")
         void shouldReturnPayments_ByStatus() {
-            List<Payment> payments = List.of(
-                    Payment.builder()
-                            .id("payment-1")
-                            .status(PaymentStatus.SUCCESS)
-                            .build()
-            );
-
             List<PaymentResponse> expectedResponses = List.of(
                     PaymentResponse.builder().id("payment-1").status(PaymentStatus.SUCCESS).build()
             );
 
-            when(paymentRepository.findByStatus(PaymentStatus.SUCCESS)).thenReturn(payments);
-            when(paymentMapper.toDtoList(payments)).thenReturn(expectedResponses);
+            when(paymentRepository.findResponsesByStatus(PaymentStatus.SUCCESS)).thenReturn(expectedResponses);
 
             List<PaymentResponse> result = paymentService.getPaymentsByStatus(PaymentStatus.SUCCESS);
 
@@ -383,45 +1006,58 @@ public class PaymentServiceImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("forEachPayment tests")
+    class ForEachPaymentTests {
+
+        @Test
+        @DisplayName("should pass payments to the action and close the cursor")
+        void shouldPassPayments_AndCloseCursor() {
+            PaymentResponse response = PaymentResponse.builder().id("payment-1").status(PaymentStatus.SUCCESS).build();
+            AtomicBoolean closed = new AtomicBoolean();
+
+            when(paymentRepository.streamResponses(1L, PaymentStatus.SUCCESS))
+                    .thenReturn(Stream.of(response).onClose(() -> closed.set(true)));
+
+            List<PaymentResponse> result = new ArrayList<>();
+            paymentService.forEachPayment(1L, PaymentStatus.SUCCESS, result::add);
+
+            assertThat(result).containsExactly(response);
+            assertThat(closed).isTrue();
+        }
+    }
+
     @Nested
     @DisplayName("getTotalAmountByUserAndDateRange tests")
     class GetTotalAmountByUserAndDateRangeTests {
         @Test
-        @DisplayName("should calculate total amount for user in date range")
+        @DisplayName("should build summary for user from a single aggregation")
         void shouldCalculateTotalAmount_ForUserInDateRange() {
             Long userId = 1L;
             LocalDateTime from = LocalDateTime.now().minusDays(7);
             LocalDateTime to = LocalDateTime.now();
-            BigDecimal expectedTotal = new BigDecimal("500.00");
 
-            List<Payment> payments = List.of(
-                    Payment.builder()
-                            .userId(1L)
-                            .timestamp(LocalDateTime.now().minusDays(3))
-                            .paymentAmount(new BigDecimal("200.00"))
-                            .build(),
-                    Payment.builder()
-                            .userId(1L)
-                            .timestamp(LocalDateTime.now().minusDays(1))
-                            .paymentAmount(new BigDecimal("300.00"))
-                            .build()
-            );
-
-            when(paymentRepository.getTotalAmountByUserIdAndDateRange(eq(userId), any(Date.class), any(Date.class)))
-                    .thenReturn(Optional.of(
-                            new TotalAmountAggregationResult(expectedTotal)
-                    ));
-
-            when(paymentRepository.findByUserId(userId)).thenReturn(payments);
+            when(paymentRepository.summarizeByUserIdAndDateRange(eq(userId), any(Date.class), any(Date.class)))
+                    .thenReturn(Optional.of(PaymentSummaryAggregationResult.builder()
+                            .totalAmount(new BigDecimal("500.00"))
+                            .paymentsCount(2L)
+                            .minAmount(new BigDecimal("200.00"))
+                            .maxAmount(new BigDecimal("300.00"))
+                            .averageAmount(new BigDecimal("250.00"))
+                            .build()));
 
             PaymentSummaryResponse result = paymentService.getTotalAmountByUserAndDateRange(
                     userId, from, to
             );
 
             assertThat(result).isNotNull();
-            assertThat(result.totalAmount()).isEqualByComparingTo(expectedTotal);
+            assertThat(result.totalAmount()).isEqualByComparingTo("500.00");
             assertThat(result.userId()).isEqualTo(userId);
             assertThat(result.paymentsCount()).isEqualTo(2L);
+            assertThat(result.minAmount()).isEqualByComparingTo("200.00");
+            assertThat(result.maxAmount()).isEqualByComparingTo("300.00");
+            assertThat(result.averageAmount()).isEqualByComparingTo("250.00");
+            verify(paymentRepository, never()).findByUserId(any());
         }
 
         @Test
@@ -431,9 +1067,8 @@ public class PaymentServiceImplTest {
             LocalDateTime from = LocalDateTime.now().minusDays(7);
             LocalDateTime to = LocalDateTime.now();
 
-            when(paymentRepository.getTotalAmountByUserIdAndDateRange(eq(userId), any(Date.class), any(Date.class)))
+            when(paymentRepository.summarizeByUserIdAndDateRange(eq(userId), any(Date.class), any(Date.class)))
                     .thenReturn(Optional.empty());
-            when(paymentRepository.findByUserId(userId)).thenReturn(List.of());
 
             PaymentSummaryResponse result = paymentService.getTotalAmountByUserAndDateRange(
                     userId, from, to
@@ -441,6 +1076,9 @@ public class PaymentServiceImplTest {
 
             assertThat(result.totalAmount()).isEqualByComparingTo(BigDecimal.ZERO);
             assertThat(result.paymentsCount()).isZero();
+            assertThat(result.minAmount()).isNull();
+            assertThat(result.maxAmount()).isNull();
+            assertThat(result.averageAmount()).isNull();
         }
     }
 
@@ -449,26 +1087,20 @@ public class PaymentServiceImplTest {
     class GetTotalAmountForAllUsersTests {
 
         @Test
-        @DisplayName("should calculate total amount for all users")
+        @DisplayName("should build summary for all users without loading payments")
         void shouldCalculateTotalAmount_ForAllUsers() {
             LocalDateTime from = LocalDateTime.now().minusDays(30);
             LocalDateTime to = LocalDateTime.now();
             BigDecimal expectedTotal = new BigDecimal("10000.00");
 
-            List<Payment> allPayments = List.of(
-                    Payment.builder()
-                            .timestamp(LocalDateTime.now().minusDays(15))
-                            .build(),
-                    Payment.builder()
-                            .timestamp(LocalDateTime.now().minusDays(10))
-                            .build()
-            );
-
-            when(paymentRepository.getTotalAmountForDateRange(any(Date.class), any(Date.class)))
-                    .thenReturn(Optional.of(
-                            new TotalAmountAggregationResult(expectedTotal)
-                    ));
-            when(paymentRepository.findAll()).thenReturn(allPayments);
+            when(paymentRepository.summarizeForDateRange(any(Date.class), any(Date.class)))
+                    .thenReturn(Optional.of(PaymentSummaryAggregationResult.builder()
+                            .totalAmount(expectedTotal)
+                            .paymentsCount(2L)
+                            .minAmount(new BigDecimal("4000.00"))
+                            .maxAmount(new BigDecimal("6000.00"))
+                            .averageAmount(new BigDecimal("5000.00"))
+                            .build()));
 
             PaymentSummaryResponse result = paymentService.getTotalAmountForDateRange(from, to);
 
@@ -476,6 +1108,115 @@ public class PaymentServiceImplTest {
             assertThat(result.totalAmount()).isEqualByComparingTo(expectedTotal);
             assertThat(result.userId()).isNull();
             assertThat(result.paymentsCount()).isEqualTo(2L);
+            assertThat(result.averageAmount()).isEqualByComparingTo("5000.00");
+            verify(paymentRepository, never()).findAll();
+        }
+    }
+
+    @Nested
+    @DisplayName("Daily rollup tests")
+    class DailyRollupTests {
+
+        @Test
+        @DisplayName("should add created payment to daily rollups when rollups are enabled")
+        void shouldAddPaymentToRollups_WhenCreated() {
+            ReflectionTestUtils.setField(paymentService, "rollupEnabled", true);
+            CreatePaymentRequest request = rollupRequest();
+            Payment savedPayment = Payment.builder().id("payment-1").orderId(1L).status(PaymentStatus.SUCCESS).build();
+
+            when(paymentMapper.toEntity(request)).thenReturn(Payment.builder().orderId(1L).build());
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.insert(any(Payment.class))).thenReturn(savedPayment);
+            when(paymentMapper.toDto(savedPayment)).thenReturn(PaymentResponse.builder().build());
+
+            paymentService.createPayment(request);
+
+            verify(paymentDailyRollupRepository).addAll(List.of(savedPayment));
+        }
+
+        @Test
+        @DisplayName("should move payment between status rollups when PROCESSING payment is resolved")
+        void shouldMovePaymentBetweenRollups_WhenResolved() {
+            ReflectionTestUtils.setField(paymentService, "rollupEnabled", true);
+            ReflectionTestUtils.setField(paymentService, "keepProcessingState", true);
+            CreatePaymentRequest request = rollupRequest();
+            Payment completed = Payment.builder().id("payment-1").orderId(1L).status(PaymentStatus.SUCCESS).build();
+
+            when(paymentMapper.toEntity(request)).thenReturn(Payment.builder().orderId(1L).build());
+            when(paymentRepository.insertIfAbsent(any(Payment.class))).thenReturn(Optional.empty());
+            when(paymentDecisionSelector.decide(any(Payment.class))).thenReturn(PaymentStatus.SUCCESS);
+            when(paymentRepository.updateStatus(any(), eq(PaymentStatus.PROCESSING), eq(PaymentStatus.SUCCESS)))
+                    .thenReturn(Optional.of(completed));
+            when(paymentMapper.toDto(completed)).thenReturn(PaymentResponse.builder().build());
+
+            paymentService.createPayment(request);
+
+            verify(paymentDailyRollupRepository).addAll(argThat(payments ->
+                    payments.size() == 1 && payments.getFirst().getStatus() == PaymentStatus.PROCESSING));
+            verify(paymentDailyRollupRepository).moveStatus(completed, PaymentStatus.PROCESSING);
+        }
+
+        @Test
+        @DisplayName("should combine rollups of full days with payments of partial edge days")
+        void shouldCombineRollupsWithEdgeDays() {
+            ReflectionTestUtils.setField(paymentService, "rollupEnabled", true);
+            Long userId = 1L;
+            LocalDateTime from = LocalDateTime.of(2025, 1, 1, 12, 0);
+            LocalDateTime to = LocalDateTime.of(2025, 1, 5, 6, 0);
+            LocalDateTime fullDaysFrom = LocalDateTime.of(2025, 1, 2, 0, 0);
+            LocalDateTime fullDaysTo = LocalDateTime.of(2025, 1, 5, 0, 0);
+
+            when(paymentRepository.summarizeByUserIdAndDateRange(userId, date(from), date(fullDaysFrom.minusNanos(1_000_000))))
+                    .thenReturn(Optional.of(summary("100.00", 1L, "100.00", "100.00")));
+            when(paymentDailyRollupRepository.summarizeByUserIdAndDays(userId, date(fullDaysFrom), date(fullDaysTo)))
+                    .thenReturn(Optional.of(summary("600.00", 3L, "50.00", "400.00")));
+            when(paymentRepository.summarizeByUserIdAndDateRange(userId, date(fullDaysTo), date(to)))
+                    .thenReturn(Optional.empty());
+
+            PaymentSummaryResponse result = paymentService.getTotalAmountByUserAndDateRange(userId, from, to);
+
+            assertThat(result.totalAmount()).isEqualByComparingTo("700.00");
+            assertThat(result.paymentsCount()).isEqualTo(4L);
+            assertThat(result.minAmount()).isEqualByComparingTo("50.00");
+            assertThat(result.maxAmount()).isEqualByComparingTo("400.00");
+            assertThat(result.averageAmount()).isEqualByComparingTo("175.00");
+        }
+
+        @Test
+        @DisplayName("should aggregate payments only when range has no full day")
+        void shouldAggregatePaymentsOnly_WhenNoFullDay() {
+            ReflectionTestUtils.setField(paymentService, "rollupEnabled", true);
+            LocalDateTime from = LocalDateTime.of(2025, 1, 1, 12, 0);
+            LocalDateTime to = LocalDateTime.of(2025, 1, 2, 6, 0);
+
+            when(paymentRepository.summarizeForDateRange(date(from), date(to)))
+                    .thenReturn(Optional.of(summary("100.00", 1L, "100.00", "100.00")));
+
+            PaymentSummaryResponse result = paymentService.getTotalAmountForDateRange(from, to);
+
+            assertThat(result.paymentsCount()).isEqualTo(1L);
+            verifyNoInteractions(paymentDailyRollupRepository);
+        }
+
+        private CreatePaymentRequest rollupRequest() {
+            return CreatePaymentRequest.builder()
+                    .orderId(1L)
+                    .userId(1L)
+                    .paymentAmount(new BigDecimal("100.00"))
+                    .build();
+        }
+
+        private static Date date(LocalDateTime dateTime) {
+            return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+        }
+
+        private static PaymentSummaryAggregationResult summary(String total, Long count, String min, String max) {
+            return PaymentSummaryAggregationResult.builder()
+                    .totalAmount(new BigDecimal(total))
+                    .paymentsCount(count)
+                    .minAmount(new BigDecimal(min))
+                    .maxAmount(new BigDecimal(max))
+                    .build();
         }
     }
 }
@@ -0,0 +1,77 @@
+package com.innowise.paymentservice.service.statistics;
+
+import com.innowise.paymentservice.enums.PaymentStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SecondBuckets Unit Tests")
+class SecondBucketsTest {
+
+    private static final long START_MILLIS = 1_700_000_000_000L;
+
+    @Mock
+    private Clock clock;
+
+    @Test
+    @DisplayName("should sum counts and amounts per status within the window only")
+    void shouldSumWithinWindow() {
+        SecondBuckets buckets = new SecondBuckets(60, clock);
+
+        when(clock.millis()).thenReturn(START_MILLIS);
+        buckets.add(PaymentStatus.SUCCESS, 1_000);
+        buckets.add(PaymentStatus.FAILED, 250);
+
+        when(clock.millis()).thenReturn(START_MILLIS + 30_000);
+        buckets.add(PaymentStatus.SUCCESS, 500);
+
+        assertThat(buckets.count(PaymentStatus.SUCCESS, 60)).isEqualTo(2);
+        assertThat(buckets.amount(PaymentStatus.SUCCESS, 60)).isEqualTo(1_500);
+        assertThat(buckets.count(PaymentStatus.FAILED, 60)).isEqualTo(1);
+        assertThat(buckets.count(PaymentStatus.SUCCESS, 10)).isEqualTo(1);
+        assertThat(buckets.amount(PaymentStatus.SUCCESS, 10)).isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("should drop seconds older than the window and reset reused buckets")
+    void shouldDropExpiredSeconds() {
+        SecondBuckets buckets = new SecondBuckets(60, clock);
+
+        when(clock.millis()).thenReturn(START_MILLIS);
+        buckets.add(PaymentStatus.SUCCESS, 1_000);
+
+        when(clock.millis()).thenReturn(START_MILLIS + 61_000);
+        assertThat(buckets.count(PaymentStatus.SUCCESS, 60)).isZero();
+
+        when(clock.millis()).thenReturn(START_MILLIS + 60_000);
+        buckets.add(PaymentStatus.SUCCESS, 200);
+
+        assertThat(buckets.count(PaymentStatus.SUCCESS, 60)).isEqualTo(1);
+        assertThat(buckets.amount(PaymentStatus.SUCCESS, 60)).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("should not lose updates from concurrent writers")
+    void shouldCountConcurrentWrites() {
+        SecondBuckets buckets = new SecondBuckets(60, clock);
+        when(clock.millis()).thenReturn(START_MILLIS);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 10_000).forEach(i -> executor.execute(() -> buckets.add(PaymentStatus.SUCCESS, 1)));
+        }
+
+        assertThat(buckets.count(PaymentStatus.SUCCESS, 60)).isEqualTo(10_000);
+        assertThat(buckets.amount(PaymentStatus.SUCCESS, 60)).isEqualTo(10_000);
+    }
+}